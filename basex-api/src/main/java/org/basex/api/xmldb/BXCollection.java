@@ -151,7 +151,7 @@ public final class BXCollection implements Collection {
       data.startUpdate(mopts);
       data.delete(getResource(del.getId()).pre);
       data.finishUpdate(mopts);
-    } catch(final BaseXException ex) {
+    } catch(final IOException ex) {
       Util.debug(ex);
       throw new XMLDBException(ErrorCodes.VENDOR_ERROR, ERR_LOCK);
     }
@@ -193,7 +193,7 @@ public final class BXCollection implements Collection {
       data.startUpdate(mopts);
       data.insert(data.meta.size, -1, new DataClip(md));
       data.finishUpdate(mopts);
-    } catch(final BaseXException ex) {
+    } catch(final IOException ex) {
       Util.debug(ex);
       throw new XMLDBException(ErrorCodes.VENDOR_ERROR, ERR_LOCK);
     }
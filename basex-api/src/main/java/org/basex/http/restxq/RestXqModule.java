@@ -25,6 +25,12 @@ final class RestXqModule {
   private final IOFile file;
   /** Parsing timestamp. */
   private long time;
+  /** Imported modules and their timestamps. */
+  private final HashMap<String, Long> imports = new HashMap<>();
+  /** Parsed module (copied for all requests, {@code null} if it cannot be copied). */
+  private QueryContext template;
+  /** Module content (read by {@link #parse}, reused if the module cannot be copied). */
+  private String content;
 
   /**
    * Constructor.
@@ -43,9 +49,31 @@ final class RestXqModule {
    */
   boolean parse(final Context ctx) throws Exception {
     functions.clear();
+    imports.clear();
+    template = null;
+    content = null;
 
-    // loop through all functions
-    try(QueryContext qc = qc(ctx)) {
+    final String query;
+    try {
+      query = string(file.read());
+    } catch(final IOException ex) {
+      // may be triggered when reading the file
+      throw IOERR_X.get(null, ex);
+    }
+    final QueryContext parsed = parse(query, ctx);
+    for(final byte[] path : parsed.modParsed) {
+      final IOFile imported = new IOFile(string(path));
+      if(!imported.eq(file)) imports.put(imported.path(), imported.timeStamp());
+    }
+    content = query;
+
+    // annotations are checked on a copy: they modify the serialization parameters
+    final QueryContext copy = parsed.copy(ctx);
+    if(copy != null) {
+      parsed.close();
+      template = parsed;
+    }
+    try(QueryContext qc = copy != null ? copy : parsed) {
       // loop through all functions
       final String name = file.name();
       for(final StaticFunc sf : qc.funcs.funcs()) {
@@ -60,11 +88,15 @@ final class RestXqModule {
   }
 
   /**
-   * Checks if the timestamp is still up-to-date.
+   * Checks if the timestamps of the module and its imported modules are still up-to-date.
    * @return result of check
    */
   boolean uptodate() {
-    return time == file.timeStamp();
+    if(time != file.timeStamp()) return false;
+    for(final Map.Entry<String, Long> entry : imports.entrySet()) {
+      if(entry.getValue() != new IOFile(entry.getKey()).timeStamp()) return false;
+    }
+    return true;
   }
 
   /**
@@ -109,19 +141,34 @@ final class RestXqModule {
 
   /**
    * Retrieves a query context for the given module.
+   * The module is only parsed once, so that requests will neither access the file system
+   * nor parse the module again, and so that all requests will be based on the version that
+   * has been checked for annotations.
    * @param ctx database context
    * @return query context
    * @throws Exception exception
    */
   private QueryContext qc(final Context ctx) throws Exception {
+    final QueryContext qc = template != null ? template.copy(ctx) : null;
+    return qc != null ? qc : parse(content, ctx);
+  }
+
+  /**
+   * Parses the module.
+   * @param query query string
+   * @param ctx database context
+   * @return query context
+   * @throws Exception exception
+   */
+  private QueryContext parse(final String query, final Context ctx) throws Exception {
     final QueryContext qc = new QueryContext(ctx);
     try {
-      qc.parse(string(file.read()), file.path(), null);
-      return qc;
-    } catch(final IOException ex) {
-      // may be triggered when reading the file
-      throw IOERR_X.get(null, ex);
+      qc.parse(query, file.path(), null);
+    } catch(final QueryException ex) {
+      qc.close();
+      throw ex;
     }
+    return qc;
   }
 
   /**
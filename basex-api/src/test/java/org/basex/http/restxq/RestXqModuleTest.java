@@ -0,0 +1,37 @@
+package org.basex.http.restxq;
+
+import static org.junit.Assert.*;
+
+import org.basex.io.*;
+import org.junit.*;
+
+/**
+ * This test contains RESTXQ module caching tests.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class RestXqModuleTest extends RestXqTest {
+  /**
+   * Evaluates a module several times without parsing it again.
+   * @throws Exception exception */
+  @Test
+  public void parseOnce() throws Exception {
+    final IOFile lib = new IOFile(sandbox(), "lib.xqm");
+    write(lib, "module namespace l = 'l'; declare function l:f() { 'A' };");
+    final long time = lib.timeStamp();
+    final String f = "import module namespace l = 'l' at '" + lib.path() + "';" +
+      "declare %R:path('') function m:a() { l:f() };";
+    get(f, "", "A");
+
+    // second request: parsed module is copied, imported module is not parsed again
+    write(lib, "module namespace l = 'l'; declare function l:f() { 'B' };");
+    assertTrue(lib.file().setLastModified(time));
+    assertEquals("A", get(""));
+
+    // module is parsed again if the imported module has been updated
+    assertTrue(lib.file().setLastModified(time + 2000));
+    RestXqModules.get(context).init();
+    assertEquals("B", get(""));
+  }
+}
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 import org.basex.api.client.*;
@@ -30,6 +31,8 @@ public final class BaseXServer extends CLI implements Runnable {
   private volatile boolean stop;
   /** Server socket. */
   private ServerSocket socket;
+  /** Selector for idle sessions ({@code null} if every session is run in its own thread). */
+  private ServerSelector selector;
   /** Start as service. */
   private boolean service;
   /** Daemon flag. */
@@ -96,9 +99,12 @@ public final class BaseXServer extends CLI implements Runnable {
     }
 
     try {
-      socket = new ServerSocket();
+      final boolean nio = sopts.get(StaticOptions.SERVERNIO);
+      final ServerSocketChannel channel = nio ? ServerSocketChannel.open() : null;
+      socket = nio ? channel.socket() : new ServerSocket();
       socket.setReuseAddress(true);
       socket.bind(new InetSocketAddress(addr, port));
+      if(nio) selector = new ServerSelector(channel);
       stopFile = stopFile(getClass(), port);
     } catch(final BindException ex) {
       context.log.writeServer(LogType.ERROR, Util.message(ex));
@@ -131,7 +137,7 @@ public final class BaseXServer extends CLI implements Runnable {
     running = true;
     while(running) {
       try {
-        final Socket s = socket.accept();
+        final Socket s = selector != null ? selector.accept() : socket.accept();
         if(stopFile.exists()) {
           close();
         } else {
@@ -144,17 +150,20 @@ public final class BaseXServer extends CLI implements Runnable {
             }
           }
           // create client listener, stop authentication after timeout
-          final ClientListener cl = new ClientListener(s, context, this);
+          final ClientListener cl = new ClientListener(s, context, this, selector);
           if(ka > 0) {
-            cl.timeout.schedule(new TimerTask() {
-              @Override
-              public void run() {
-                cl.close();
-              }
-            }, ka);
-            authorizing.add(cl);
+            synchronized(authorizing) {
+              cl.timeout = context.jobs.schedule(cl::close, ka);
+              authorizing.add(cl);
+            }
+          }
+          if(selector != null) {
+            selector.execute(cl);
+          } else {
+            final Thread thread = new Thread(cl);
+            thread.setDaemon(true);
+            thread.start();
           }
-          cl.start();
         }
       } catch(final SocketException ex) {
         Util.debug(ex);
@@ -184,11 +193,12 @@ public final class BaseXServer extends CLI implements Runnable {
   private synchronized void close() {
     if(!running) return;
 
-    for(final ClientListener cl : authorizing) {
+    for(final ClientListener cl : authorizing.toArray(new ClientListener[0])) {
       remove(cl);
       cl.close();
     }
     context.sessions.close();
+    if(selector != null) selector.close();
 
     try {
       // close interactive input if server was stopped by another process
@@ -335,7 +345,7 @@ public final class BaseXServer extends CLI implements Runnable {
    */
   public void remove(final ClientListener client) {
     synchronized(authorizing) {
-      client.timeout.cancel();
+      if(client.timeout != null) client.timeout.cancel(false);
       authorizing.remove(client);
     }
   }
@@ -18,6 +18,14 @@ import org.basex.util.*;
  * This class defines all methods for iteratively evaluating queries with the
  * client/server architecture. All sent data is received by the
  * {@link ClientListener} and interpreted by the {@link ServerQuery}.
+ * If results are read lazily, they are read from the socket while they are iterated. If another
+ * command is sent before all results have been read, the remaining results will be cached.
+ *
+ * The server query keeps its locks until all results have been sent. If results are read lazily,
+ * updating queries of other sessions may be blocked until a client has iterated through all
+ * results (or has cached, skipped or closed the query). If a non-admin client does not read any
+ * results for longer than the query timeout ({@link org.basex.core.StaticOptions#TIMEOUT}), the
+ * server stops the query and closes the session.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
@@ -27,6 +35,10 @@ public class ClientQuery extends Query {
   final ClientSession cs;
   /** Query id. */
   final String id;
+  /** Server input with streamed results ({@code null} if no results are requested). */
+  private BufferInput bi;
+  /** Error that occurred while the remaining results were cached. */
+  private BaseXException error;
 
   /**
    * Standard constructor.
@@ -59,6 +71,7 @@ public class ClientQuery extends Query {
 
   @Override
   public void bind(final String name, final Object value, final String type) throws IOException {
+    skip();
     cache = null;
 
     final Object vl = value instanceof BXNode ? ((BXNode) value).getNode() : value;
@@ -98,6 +111,16 @@ public class ClientQuery extends Query {
     bind(null, value, type);
   }
 
+  @Override
+  public boolean more() throws IOException {
+    if(super.more()) return true;
+    // raise error that occurred while the remaining results were cached
+    final BaseXException ex = error;
+    error = null;
+    if(ex != null) throw ex;
+    return false;
+  }
+
   @Override
   public String execute() throws IOException {
     return cs.exec(ServerCmd.EXEC, id, out);
@@ -105,18 +128,60 @@ public class ClientQuery extends Query {
 
   @Override
   public void close() throws IOException {
+    skip();
     cs.exec(ServerCmd.CLOSE, id, null);
   }
 
   @Override
   public void cache(final boolean full) throws IOException {
+    stream(full);
+    cacheRemaining();
+  }
+
+  @Override
+  void stream(final boolean full) throws IOException {
+    cs.release();
     cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
     cs.send(id);
     cs.sout.flush();
 
-    @SuppressWarnings("resource")
-    final BufferInput bi = new BufferInput(cs.sin);
-    cache(bi, full);
-    if(!ClientSession.ok(bi)) throw new BaseXException(bi.readString());
+    // results will be read from the socket while iterating through the result
+    bi = new BufferInput(cs.sin);
+    cs.streaming = this;
+    stream(bi, full);
+  }
+
+  @Override
+  void finish() throws IOException {
+    cs.streaming = null;
+    final int b = bi.read();
+    // the server closes the session if results have not been read for too long
+    if(b == -1) throw new EOFException(Text.CONNECTION_ERROR);
+    if(b != 0) throw new BaseXException(bi.readString());
+  }
+
+  /**
+   * Caches the remaining results before another command is sent to the server.
+   * @throws IOException I/O exception
+   */
+  void release() throws IOException {
+    try {
+      cacheRemaining();
+    } catch(final BaseXException ex) {
+      error = ex;
+    }
+  }
+
+  /**
+   * Skips the remaining results before the query is closed or rebound.
+   * @throws IOException I/O exception
+   */
+  private void skip() throws IOException {
+    if(cs.streaming != this) return;
+    try {
+      skipRemaining();
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
   }
 }
@@ -34,6 +34,8 @@ public class ClientSession extends Session {
   /** Server input. */
   final InputStream sin;
 
+  /** Query whose results are currently streamed by the server ({@code null} if none). */
+  ClientQuery streaming;
   /** Socket reference. */
   private final Socket socket;
 
@@ -155,6 +157,7 @@ public class ClientSession extends Session {
 
   @Override
   protected void execute(final String command, final OutputStream output) throws IOException {
+    release();
     send(command);
     sout.flush();
     receive(output);
@@ -211,6 +214,7 @@ public class ClientSession extends Session {
   private void send(final ServerCmd command, final InputStream input, final String... args)
       throws IOException {
 
+    release();
     sout.write(command.code);
     for(final String arg : args) send(arg);
     send(input);
@@ -227,6 +231,16 @@ public class ClientSession extends Session {
     for(int b; (b = si.read()) != -1;) output.write(b);
   }
 
+  /**
+   * Caches the remaining results of a query that are currently streamed by the server.
+   * Must be called before a new command is sent.
+   * @throws IOException I/O exception
+   */
+  void release() throws IOException {
+    final ClientQuery query = streaming;
+    if(query != null) query.release();
+  }
+
   /**
    * Sends a string to the server.
    * @param string string to be sent
@@ -250,6 +264,7 @@ public class ClientSession extends Session {
       throws IOException {
 
     final OutputStream o = output == null ? new ArrayOutput() : output;
+    release();
     sout.write(command.code);
     send(arg);
     sout.flush();
@@ -16,6 +16,10 @@ import org.basex.util.list.*;
  * stream that has been specified via the constructor or via
  * {@link Session#setOutputStream(OutputStream)}.</p>
  *
+ * <p>By default, the complete result is cached before the first item is returned.
+ * If results are read lazily (see {@link #lazy(boolean)}), they are read while they are
+ * iterated.</p>
+ *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
@@ -27,6 +31,12 @@ public abstract class Query implements Closeable {
 
   /** Cached result types. */
   private ByteList types;
+  /** Input with results that have not been read yet ({@code null} if all results were read). */
+  private InputStream input;
+  /** Retrieve full type information. */
+  private boolean full;
+  /** Read results while they are iterated. */
+  private boolean lazy;
   /** Cache pointer. */
   private int pos;
 
@@ -66,14 +76,37 @@ public abstract class Query implements Closeable {
    */
   public abstract void context(Object value, String type) throws IOException;
 
+  /**
+   * Specifies if results will be read while they are iterated. By default, the complete
+   * result is cached before the first item is returned.
+   * In the client/server architecture, the query on the server keeps its database locks until
+   * all results have been read. If updates are performed by another session while the results
+   * are being iterated, they will be blocked until then, or until the server has stopped the query
+   * after the query timeout.
+   * @param lzy lazy flag
+   */
+  public final void lazy(final boolean lzy) {
+    lazy = lzy;
+  }
+
   /**
    * Returns {@code true} if more items are available.
    * @return result of check
    * @throws IOException I/O exception
    */
   public boolean more() throws IOException {
-    if(cache == null) cache(false);
+    if(cache == null) {
+      if(lazy) stream(false);
+      else cache(false);
+    }
     if(pos < cache.size()) return true;
+    if(input != null) {
+      // read next result
+      cache.reset();
+      types.reset();
+      pos = 0;
+      if(read(true)) return true;
+    }
     cache = null;
     types = null;
     return false;
@@ -108,33 +141,96 @@ public abstract class Query implements Closeable {
     return ID.getType(types.get(pos - 1));
   }
 
+  /**
+   * Requests the query result, which will be read while iterating through the result.
+   * By default, the complete result is cached.
+   * @param fll retrieve full type information
+   * @throws IOException I/O exception
+   */
+  void stream(final boolean fll) throws IOException {
+    cache(fll);
+  }
+
   /**
    * Caches the incoming input.
-   * @param input input stream
-   * @param full retrieve full type information
+   * @param in input stream
+   * @param fll retrieve full type information
    * @throws IOException I/O exception
    */
-  void cache(final InputStream input, final boolean full) throws IOException {
+  void cache(final InputStream in, final boolean fll) throws IOException {
+    stream(in, fll);
+    cacheRemaining();
+  }
+
+  /**
+   * Assigns the incoming input, which will be read while iterating through the result.
+   * @param in input stream
+   * @param fll retrieve full type information
+   */
+  final void stream(final InputStream in, final boolean fll) {
     cache = new TokenList();
     types = new ByteList();
-    final ByteList bl = new ByteList();
-    for(int t; (t = input.read()) > 0;) {
-      // skip type information
-      if(full) {
-        final ID id = ID.get(t);
-        if(id != null && id.isExtended()) {
-          while(input.read() > 0);
-        }
+    pos = 0;
+    input = in;
+    full = fll;
+  }
+
+  /**
+   * Caches all results that have not been read yet.
+   * @throws IOException I/O exception
+   */
+  final void cacheRemaining() throws IOException {
+    while(input != null) read(true);
+  }
+
+  /**
+   * Skips all results that have not been read yet.
+   * @throws IOException I/O exception
+   */
+  final void skipRemaining() throws IOException {
+    while(input != null) read(false);
+  }
+
+  /**
+   * Reads the next result from the input.
+   * @param keep cache result (if {@code false}, it will be skipped)
+   * @return {@code true} if a result was found
+   * @throws IOException I/O exception
+   */
+  private boolean read(final boolean keep) throws IOException {
+    final InputStream in = input;
+    final int t = in.read();
+    if(t <= 0) {
+      input = null;
+      finish();
+      return false;
+    }
+    // skip type information
+    if(full) {
+      final ID id = ID.get(t);
+      if(id != null && id.isExtended()) {
+        while(in.read() > 0);
       }
-      // read and decode result
-      final ServerInput si = new ServerInput(input);
+    }
+    // read and decode result
+    final ServerInput si = new ServerInput(in);
+    if(keep) {
+      final ByteList bl = new ByteList();
       for(int b; (b = si.read()) != -1;) bl.add(b);
-      cache.add(bl.next());
+      cache.add(bl.finish());
       types.add(t);
+    } else {
+      while(si.read() != -1);
     }
-    pos = 0;
+    return true;
   }
 
+  /**
+   * Called after all results have been read from the input.
+   * @throws IOException I/O exception
+   */
+  void finish() throws IOException { }
+
   /**
    * Returns the complete result of the query.
    * @return item string or {@code null}
@@ -4,20 +4,27 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.MainOptions.MainParser;
 import org.basex.core.cmd.*;
+import org.basex.core.jobs.*;
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
+import org.basex.io.serial.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
  * This class recursively scans files and directories and parses all
- * relevant files.
+ * relevant files. If {@link MainOptions#PARSERTHREADS} is greater than 1, the files of
+ * directories and archives are parsed into main-memory instances by several threads, and
+ * the results are appended to the builder in the original order.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
@@ -46,9 +53,18 @@ public final class DirParser extends Parser {
   private final boolean rawParser;
   /** Archive name. */
   private final boolean archiveName;
+  /** Number of parser threads. */
+  private final int threads;
   /** Database path for storing binary files. */
   private IOFile rawPath;
 
+  /** Thread pool for parsing files in parallel (can be {@code null}). */
+  private ExecutorService pool;
+  /** Files that are currently parsed in parallel, in the original order. */
+  private final ArrayDeque<Parsed> parsed = new ArrayDeque<>();
+  /** Serializer for appending parsed files. */
+  private Serializer serializer;
+
   /** Last source. */
   private IO lastSrc;
   /** Parser reference. */
@@ -78,6 +94,7 @@ public final class DirParser extends Parser {
     addRaw = options.get(MainOptions.ADDRAW);
     dtd = options.get(MainOptions.DTD);
     rawParser = options.get(MainOptions.PARSER) == MainParser.RAW;
+    threads = options.get(MainOptions.PARSERTHREADS);
     filter = !isDir && !source.isArchive() ? null :
       Pattern.compile(IOFile.regex(options.get(MainOptions.CREATEFILTER)));
   }
@@ -97,7 +114,21 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.filesize = 0;
     build.meta.original = original;
-    parse(build, source);
+    if(threads < 2 || filter == null || rawParser) {
+      parse(build, source);
+      return;
+    }
+
+    pool = Executors.newFixedThreadPool(threads, JobPool.factory("Parser"));
+    serializer = new BuilderSerializer(build);
+    try {
+      parse(build, source);
+      while(!parsed.isEmpty()) append(build);
+    } finally {
+      pool.shutdownNow();
+      pool = null;
+      parsed.clear();
+    }
   }
 
   /**
@@ -204,6 +235,19 @@ public final class DirParser extends Parser {
         if(rawPath != null) {
           Store.store(source.inputSource(), new IOFile(rawPath, targ + name));
         }
+      } else if(pool != null) {
+        // parse input in parallel; cache the contents of archive entries
+        IO in = source;
+        if(source instanceof IOStream) {
+          in = new IOContent(source.read());
+          in.name(name);
+        }
+        final IO input = in;
+        final String target = targ;
+        parsed.add(new Parsed(source.path(), pool.submit(
+            () -> MemBuilder.build("", Parser.singleParser(input, options, target)))));
+        // limit number of cached documents
+        while(parsed.size() > threads << 1) append(builder);
       } else {
         // store input as XML
         boolean ok = true;
@@ -237,6 +281,37 @@ public final class DirParser extends Parser {
     }
   }
 
+  /**
+   * Waits until the first file has been parsed and appends it to the builder.
+   * @param builder builder instance
+   * @throws IOException I/O exception
+   */
+  private void append(final Builder builder) throws IOException {
+    final Parsed p = parsed.poll();
+    final MemData data;
+    try {
+      data = p.future.get();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof IOException && skipCorrupt) {
+        Util.debug(th);
+        skipped.add(p.path);
+        return;
+      }
+      if(th instanceof IOException) throw (IOException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      if(th instanceof Error) throw (Error) th;
+      throw new IOException(th);
+    }
+    builder.checkStop();
+    for(final int pre : data.resources.docs().toArray()) {
+      serializer.serialize(new DBNode(data, pre));
+    }
+    if(Prop.debug && (++c & 0x3FF) == 0) Util.err(";");
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
@@ -270,4 +345,24 @@ public final class DirParser extends Parser {
   public void close() throws IOException {
     if(parser != null) parser.close();
   }
+
+  /**
+   * File that is parsed in parallel.
+   */
+  private static final class Parsed {
+    /** Path to the file. */
+    private final String path;
+    /** Parsed document. */
+    private final Future<MemData> future;
+
+    /**
+     * Constructor.
+     * @param path path to the file
+     * @param future parsed document
+     */
+    private Parsed(final String path, final Future<MemData> future) {
+      this.path = path;
+      this.future = future;
+    }
+  }
 }
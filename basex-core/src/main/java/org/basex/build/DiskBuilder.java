@@ -31,6 +31,10 @@ public final class DiskBuilder extends Builder {
   private DataOutput vout;
   /** Output stream for temporary values. */
   private DataOutput sout;
+  /** Dictionary of texts (can be {@code null}). */
+  private TextDictionary xdict;
+  /** Dictionary of attribute values (can be {@code null}). */
+  private TextDictionary vdict;
 
   /** Static options. */
   private final StaticOptions sopts;
@@ -68,11 +72,15 @@ public final class DiskBuilder extends Builder {
 
     elemNames = new Names(meta);
     attrNames = new Names(meta);
+    if(meta.dictionary > 0) {
+      xdict = new TextDictionary(meta.dictionary);
+      vdict = new TextDictionary(meta.dictionary);
+    }
     try {
       try {
         tout = new DataOutput(new TableOutput(meta, DATATBL));
-        xout = new DataOutput(meta.dbfile(DATATXT), bs);
-        vout = new DataOutput(meta.dbfile(DATAATV), bs);
+        xout = heap(DATATXT, bs);
+        vout = heap(DATAATV, bs);
         sout = new DataOutput(meta.dbfile(DATATMP), bs);
         parse();
       } finally {
@@ -92,6 +100,10 @@ public final class DiskBuilder extends Builder {
         }
       }
       meta.dbfile(DATATMP).delete();
+      if(xdict != null) {
+        xdict.write(meta.dbfile('d' + DATATXT));
+        vdict.write(meta.dbfile('d' + DATAATV));
+      }
 
       // return database instance
       return new DiskData(meta, elemNames, attrNames, path, nspaces);
@@ -157,6 +169,19 @@ public final class DiskBuilder extends Builder {
     ++ssize;
   }
 
+  /**
+   * Creates the output stream for a heap file.
+   * If compression is enabled, values are written to compressed blocks.
+   * @param file name of the file
+   * @param bufs size of the buffer to use
+   * @return output stream
+   * @throws IOException I/O exception
+   */
+  private DataOutput heap(final String file, final int bufs) throws IOException {
+    return meta.compress ? new DataOutput(new BlockOutput(meta, file, bufs)) :
+      new DataOutput(meta.dbfile(file), bufs);
+  }
+
   /**
    * Calculates the text offset and writes the text value.
    * @param value value to be inlined
@@ -169,10 +194,17 @@ public final class DiskBuilder extends Builder {
     final long v = Token.toSimpleInt(value);
     if(v != Integer.MIN_VALUE) return v | IO.OFFNUM;
 
+    // reference dictionary entry
+    final TextDictionary dict = text ? xdict : vdict;
+    if(dict != null) {
+      final int id = dict.id(value);
+      if(id != 0) return id | IO.OFFDICT;
+    }
+
     // store text to heap file
     final DataOutput store = text ? xout : vout;
     final long off = store.size();
-    final byte[] val = Compress.pack(value);
+    final byte[] val = meta.compress ? value : Compress.pack(value);
     store.writeToken(val);
     return val == value ? off : off | IO.OFFCOMP;
   }
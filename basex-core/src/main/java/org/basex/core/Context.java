@@ -5,6 +5,7 @@ import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.random.*;
+import org.basex.query.*;
 import org.basex.query.util.pkg.*;
 import org.basex.query.value.seq.*;
 import org.basex.server.*;
@@ -45,6 +46,8 @@ public final class Context {
   public final Log log;
   /** Locking. */
   public final Locking locking;
+  /** Cached query plans. */
+  public final QueryPlans plans;
 
   /** Current node context. {@code null} if all documents of the current database are referenced. */
   private DBNodes current;
@@ -107,6 +110,7 @@ public final class Context {
     repo = ctx.repo;
     log = ctx.log;
     jobs = ctx.jobs;
+    plans = ctx.plans;
   }
 
   /**
@@ -126,6 +130,7 @@ public final class Context {
     log = new Log(soptions);
     user = users.get(UserText.ADMIN);
     jobs = new JobPool(soptions);
+    plans = new QueryPlans(soptions);
     client = null;
   }
 
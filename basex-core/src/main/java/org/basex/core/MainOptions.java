@@ -22,6 +22,10 @@ public final class MainOptions extends Options {
   public static final BooleanOption MAINMEM = new BooleanOption("MAINMEM", false);
   /** Flag for closing a database after creating it. */
   public static final BooleanOption CREATEONLY = new BooleanOption("CREATEONLY", false);
+  /** Flag for reading database files via memory-mapped I/O. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Flag for storing texts and attribute values in compressed blocks. */
+  public static final BooleanOption COMPRESS = new BooleanOption("COMPRESS", false);
 
   // Parsing
 
@@ -35,6 +39,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption SKIPCORRUPT = new BooleanOption("SKIPCORRUPT", false);
   /** Flag for adding remaining files as raw files. */
   public static final BooleanOption ADDRAW = new BooleanOption("ADDRAW", false);
+  /** Number of threads for parsing the files of directories and archives. */
+  public static final NumberOption PARSERTHREADS = new NumberOption("PARSERTHREADS", 1);
   /** Define CSV parser options. */
   public static final OptionsOption<CsvParserOptions> CSVPARSER =
       new OptionsOption<>("CSVPARSER", new CsvParserOptions());
@@ -95,12 +101,16 @@ public final class MainOptions extends Options {
   public static final NumberOption MAXLEN = new NumberOption("MAXLEN", 96);
   /** Maximum number of name categories. */
   public static final NumberOption MAXCATS = new NumberOption("MAXCATS", 100);
+  /** Maximum number of dictionary entries for texts and attribute values. */
+  public static final NumberOption DICTIONARY = new NumberOption("DICTIONARY", 0);
   /** Flag for activating incremental index structures. */
   public static final BooleanOption UPDINDEX = new BooleanOption("UPDINDEX", false);
   /** Flag for automatic index updates. */
   public static final BooleanOption AUTOOPTIMIZE = new BooleanOption("AUTOOPTIMIZE", false);
   /** Index split size. */
   public static final NumberOption SPLITSIZE = new NumberOption("SPLITSIZE", 0);
+  /** Flag for building independent index structures in parallel. */
+  public static final BooleanOption PARALLELINDEX = new BooleanOption("PARALLELINDEX", false);
 
   // Full-Text
 
@@ -141,6 +151,10 @@ public final class MainOptions extends Options {
   public static final NumberOption RUNS = new NumberOption("RUNS", 1);
   /** Flag for enforcing index rewritings. */
   public static final BooleanOption ENFORCEINDEX = new BooleanOption("ENFORCEINDEX", false);
+  /** Number of items sorted in main memory before they are written to disk (0: no limit). */
+  public static final NumberOption SORTSIZE = new NumberOption("SORTSIZE", 0);
+  /** Evaluate deterministic FLWOR and simple map expressions in parallel. */
+  public static final BooleanOption PARALLELQUERY = new BooleanOption("PARALLELQUERY", false);
 
   // Serialize
 
@@ -164,6 +178,8 @@ public final class MainOptions extends Options {
 
   /** Flushes the database after each update. */
   public static final BooleanOption AUTOFLUSH = new BooleanOption("AUTOFLUSH", true);
+  /** Logs updates of the database table before they are written. */
+  public static final BooleanOption JOURNAL = new BooleanOption("JOURNAL", false);
   /** Writes original files back after updates. */
   public static final BooleanOption WRITEBACK = new BooleanOption("WRITEBACK", false);
   /** Maximum number of index occurrences to print. */
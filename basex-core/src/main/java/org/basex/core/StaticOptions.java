@@ -38,6 +38,10 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Maximum number of cached query plans (0: no caching). */
+  public static final NumberOption PLANCACHE = new NumberOption("PLANCACHE", 0);
+  /** Maximum size of all database buffers, assigned to files in the order of access (MB). */
+  public static final NumberOption BUFFERLIMIT = new NumberOption("BUFFERLIMIT", 64);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -58,6 +62,8 @@ public final class StaticOptions extends Options {
   public static final StringOption PROXYHOST = new StringOption("PROXYHOST", "");
   /** Server: proxy port (default: ignored). */
   public static final NumberOption PROXYPORT = new NumberOption("PROXYPORT", 0);
+  /** Server: park idle client connections in a selector instead of assigning threads. */
+  public static final BooleanOption SERVERNIO = new BooleanOption("SERVERNIO", false);
   /** Server: non-proxy host. */
   public static final StringOption NONPROXYHOSTS = new StringOption("NONPROXYHOSTS", "");
   /** Ignore missing certificates. */
@@ -69,6 +75,8 @@ public final class StaticOptions extends Options {
   public static final NumberOption KEEPALIVE = new NumberOption("KEEPALIVE", 600);
   /** Defines the number of parallel readers. */
   public static final NumberOption PARALLEL = new NumberOption("PARALLEL", 8);
+  /** Number of threads for parallel query tasks (0: number of available processors). */
+  public static final NumberOption FORKJOIN = new NumberOption("FORKJOIN", 0);
   /** Logging flag. */
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
@@ -119,6 +127,7 @@ public final class StaticOptions extends Options {
     Prop.language = get(LANG);
     Prop.langkeys = get(LANGKEYS);
     Prop.debug = get(DEBUG);
+    Prop.bufferlimit = get(BUFFERLIMIT);
     final String ph = get(PROXYHOST);
     if(!ph.isEmpty()) {
       Prop.setSystem("http.proxyHost", ph);
@@ -1338,6 +1338,8 @@ public interface Text {
 
   /** Info on used main memory. */
   String USED_MEM = lang("used_mem");
+  /** Info on pending timers. */
+  String PENDING_TIMERS = lang("pending_timers");
   /** Memory information. */
   String TOTAL_MEM_C = lang("total_mem") + COLS;
   /** Memory information. */
@@ -75,6 +75,14 @@ public abstract class ACreate extends Command {
     return io;
   }
 
+  /**
+   * Checks if independent index structures will be built in parallel.
+   * @return result of check
+   */
+  final boolean parallelIndex() {
+    return options != null && options.get(MainOptions.PARALLELINDEX);
+  }
+
   /**
    * Runs an update operation.
    * @param data data reference
@@ -148,7 +148,7 @@ public abstract class AQuery extends Command {
    */
   private void init(final String query, final Context ctx) throws QueryException {
     final Performance perf = new Performance();
-    if(qp == null) qp = pushJob(new QueryProcessor(query, uri, ctx));
+    if(qp == null) qp = pushJob(new QueryProcessor(query, uri, ctx).cache());
     if(info == null) {
       info = qp.qc.info;
       info.locks = jc().locks;
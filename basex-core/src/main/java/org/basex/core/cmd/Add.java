@@ -6,10 +6,13 @@ import java.io.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
+import org.basex.core.MainOptions.MainParser;
+import org.basex.core.jobs.*;
 import org.basex.core.parse.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.*;
+import org.basex.io.out.*;
 import org.basex.query.up.atomic.*;
 import org.basex.util.*;
 
@@ -25,6 +28,8 @@ import org.basex.util.*;
 public final class Add extends ACreate {
   /** Builder. */
   private Builder build;
+  /** Result of building the input before locks were acquired ({@code null}: not built yet). */
+  private Boolean built;
 
   /** Data clip to insert. */
   DataClip clip;
@@ -48,9 +53,33 @@ public final class Add extends ACreate {
     super(Perm.WRITE, true, path == null ? "" : path, input);
   }
 
+  @Override
+  protected void prepare(final Context ctx) {
+    // parse input before write locks are acquired: other jobs will only be blocked while
+    // the parsed documents are inserted
+    final Data data = ctx.data();
+    if(data == null || !ctx.perm(Perm.WRITE, data.inMemory() ? null : data.meta.name)) return;
+    // raw files are directly written to the database directory: parse input when command is run
+    final MainOptions opts = ctx.options;
+    if(opts.get(MainOptions.ADDRAW) || opts.get(MainOptions.PARSER) == MainParser.RAW) return;
+
+    init(ctx, new NullOutput());
+    try {
+      built = build();
+    } catch(final JobException ex) {
+      built = error(ex.getMessage());
+    } catch(final RuntimeException | OutOfMemoryError ex) {
+      // input will be parsed again when the command is run
+      Util.debug(ex);
+      finish();
+      clip = null;
+      build = null;
+    }
+  }
+
   @Override
   protected boolean run() {
-    if(!build()) return false;
+    if(built != null ? !built : !build()) return false;
     try {
       final Data data = context.data();
       return update(data, new Code() {
@@ -71,6 +100,12 @@ public final class Add extends ACreate {
     }
   }
 
+  @Override
+  protected void cleanup() {
+    // drop input that has been parsed before the command was stopped
+    finish();
+  }
+
   /**
    * Builds a data clip for the document(s) to be added.
    * @return success flag
@@ -119,7 +154,11 @@ public final class Add extends ACreate {
       } else {
         build = new MemBuilder(name, parser);
       }
-      clip = build.dataClip();
+      try {
+        clip = pushJob(build).dataClip();
+      } finally {
+        popJob();
+      }
       return true;
     } catch(final IOException ex) {
       return error(Util.message(ex));
@@ -130,7 +169,10 @@ public final class Add extends ACreate {
    * Finalizes an add operation.
    */
   void finish() {
-    if(clip != null) DropDB.drop(clip.data, soptions);
+    if(clip != null) {
+      DropDB.drop(clip.data, soptions);
+      clip = null;
+    }
   }
 
   /**
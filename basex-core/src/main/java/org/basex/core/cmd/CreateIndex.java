@@ -3,8 +3,11 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
+import org.basex.core.jobs.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.core.users.*;
@@ -78,10 +81,58 @@ public final class CreateIndex extends ACreate {
    * @throws IOException I/O exception
    */
   static void create(final Data data, final ACreate cmd) throws IOException {
-    if(data.meta.createtext) create(IndexType.TEXT, data, cmd);
-    if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, cmd);
-    if(data.meta.createtoken) create(IndexType.TOKEN, data, cmd);
-    if(data.meta.createft) create(IndexType.FULLTEXT, data, cmd);
+    final ArrayList<IndexType> types = new ArrayList<>();
+    if(data.meta.createtext) types.add(IndexType.TEXT);
+    if(data.meta.createattr) types.add(IndexType.ATTRIBUTE);
+    if(data.meta.createtoken) types.add(IndexType.TOKEN);
+    if(data.meta.createft) types.add(IndexType.FULLTEXT);
+    create(types, data, cmd);
+  }
+
+  /**
+   * Builds the specified indexes. If {@link MainOptions#PARALLELINDEX} is enabled,
+   * the indexes will be built in parallel.
+   * @param types indexes to be built
+   * @param data data reference
+   * @param cmd calling command (may be {@code null})
+   * @throws IOException I/O exception
+   */
+  static void create(final ArrayList<IndexType> types, final Data data, final ACreate cmd)
+      throws IOException {
+
+    final int tl = types.size();
+    if(tl < 2 || cmd == null || !cmd.parallelIndex()) {
+      for(final IndexType type : types) create(type, data, cmd);
+      return;
+    }
+
+    final ExecutorService pool = Executors.newFixedThreadPool(tl, JobPool.factory("Index"));
+    try {
+      final ArrayList<Future<Void>> futures = new ArrayList<>(tl);
+      for(final IndexType type : types) {
+        futures.add(pool.submit(() -> {
+          create(type, data, cmd);
+          return null;
+        }));
+      }
+      // wait for all builders to finish; raise the first error
+      Throwable error = null;
+      for(final Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch(final ExecutionException ex) {
+          if(error == null) error = ex.getCause();
+        } catch(final InterruptedException ex) {
+          if(error == null) error = ex;
+        }
+      }
+      if(error instanceof IOException) throw (IOException) error;
+      if(error instanceof RuntimeException) throw (RuntimeException) error;
+      if(error instanceof Error) throw (Error) error;
+      if(error != null) throw new IOException(error);
+    } finally {
+      pool.shutdown();
+    }
   }
 
   /**
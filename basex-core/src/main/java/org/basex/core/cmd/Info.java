@@ -46,6 +46,7 @@ public final class Info extends AInfo {
 
     final User user = context.user();
     info(tb, USED_MEM, Performance.getMemory());
+    info(tb, PENDING_TIMERS, context.jobs.timers());
 
     if(user.has(Perm.ADMIN)) {
       final StaticOptions sopts = context.soptions;
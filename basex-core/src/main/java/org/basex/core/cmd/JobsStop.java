@@ -2,8 +2,6 @@ package org.basex.core.cmd;
 
 import static org.basex.core.Text.*;
 
-import java.util.*;
-
 import org.basex.core.*;
 import org.basex.core.jobs.*;
 import org.basex.core.parse.*;
@@ -39,7 +37,7 @@ public final class JobsStop extends Command {
    */
   public static boolean stop(final Context ctx, final String id) {
     // stop scheduled task
-    final TimerTask task = ctx.jobs.tasks.remove(id);
+    final JobTask task = ctx.jobs.tasks.remove(id);
     if(task != null) task.cancel();
     // send stop signal to job
     final Job job = ctx.jobs.active.get(id);
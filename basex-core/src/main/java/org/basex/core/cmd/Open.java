@@ -91,9 +91,10 @@ public final class Open extends Command {
         // check if the addressed database exists
         if(!context.soptions.dbExists(name)) throw new BaseXException(DB_NOT_FOUND_X, name);
 
-        // do not open a database that is currently updated
+        // do not open a database that is currently updated (unless it can be recovered)
         final MetaData meta = new MetaData(name, options, context.soptions);
-        if(meta.updateFile().exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
+        if(meta.updateFile().exists() && !meta.dbfile(DataText.DATALOG).exists())
+          throw new BaseXException(DB_UPDATED_X, meta.name);
 
         // open database
         data = new DiskData(meta);
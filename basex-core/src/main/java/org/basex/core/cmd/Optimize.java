@@ -3,11 +3,13 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.ft.*;
 import org.basex.index.stats.*;
 import org.basex.util.list.*;
 
@@ -41,12 +43,17 @@ public final class Optimize extends ACreate {
     return update(data, new Code() {
       @Override
       boolean run() throws IOException {
-        // reassign autooptimize flag
+        // reassign autooptimize and mmap flags
         final boolean autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
         if(autooptimize != data.meta.autooptimize) {
           data.meta.autooptimize = autooptimize;
           data.meta.dirty = true;
         }
+        final boolean mmap = options.get(MainOptions.MMAP);
+        if(mmap != data.meta.mmap) {
+          data.meta.mmap = mmap;
+          data.meta.dirty = true;
+        }
         optimize(data, Optimize.this);
         return info(DB_OPTIMIZED_X, meta.name, jc().performance);
       }
@@ -156,29 +163,34 @@ public final class Optimize extends ACreate {
       meta.uptodate = true;
     }
 
-    // rebuild value indexes
-    optimize(IndexType.TEXT, data, meta.createtext, enforceText, cmd);
-    optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
-    optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, cmd);
-    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, cmd);
+    // drop obsolete and rebuild value indexes
+    final ArrayList<IndexType> types = new ArrayList<>();
+    optimize(IndexType.TEXT, data, meta.createtext, enforceText, types);
+    optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, types);
+    optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, types);
+    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, types);
+    CreateIndex.create(types, data, cmd);
+    // merge pending updates of the full-text index
+    if(meta.ftindex) ((FTIndex) data.ftIndex).merge();
   }
 
   /**
-   * Creates or deletes the specified index if the old and new state is different.
+   * Deletes the specified index, or schedules it for creation, if the old and new state is
+   * different.
    * @param type index type
    * @param data data reference
    * @param create new flag
    * @param enforce enforce operation
-   * @param cmd calling command instance
+   * @param types indexes to be created
    * @throws IOException I/O exception
    */
   private static void optimize(final IndexType type, final Data data, final boolean create,
-      final boolean enforce, final Optimize cmd) throws IOException {
+      final boolean enforce, final ArrayList<IndexType> types) throws IOException {
 
     // check if flags have changed
     if(create == data.meta.index(type) && !enforce) return;
     // create or drop index
-    if(create) CreateIndex.create(type, data, cmd);
+    if(create) types.add(type);
     else DropIndex.drop(type, data);
   }
 
@@ -196,9 +208,12 @@ public final class Optimize extends ACreate {
 
     if(data.meta.updindex) {
       data.idmap = new IdPreMap(md.lastid);
-      if(data.meta.textindex) optimize(IndexType.TEXT, data, true, true, null);
-      if(data.meta.attrindex) optimize(IndexType.ATTRIBUTE, data, true, true, null);
-      if(data.meta.tokenindex) optimize(IndexType.TOKEN, data, true, true, null);
+      final ArrayList<IndexType> types = new ArrayList<>();
+      if(data.meta.textindex) optimize(IndexType.TEXT, data, true, true, types);
+      if(data.meta.attrindex) optimize(IndexType.ATTRIBUTE, data, true, true, types);
+      if(data.meta.tokenindex) optimize(IndexType.TOKEN, data, true, true, types);
+      if(data.meta.ftindex) optimize(IndexType.FULLTEXT, data, true, true, types);
+      CreateIndex.create(types, data, null);
     }
   }
 }
@@ -1,6 +1,7 @@
 package org.basex.core.jobs;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
@@ -17,8 +18,8 @@ public abstract class Job {
   private final List<Job> children = Collections.synchronizedList(new ArrayList<Job>(0));
   /** Job context. */
   private JobContext jc = new JobContext(this);
-  /** Timer. */
-  private Timer timer;
+  /** Timeout. */
+  private ScheduledFuture<?> timeout;
 
   /** This flag indicates that a job is updating. */
   public boolean updating;
@@ -43,19 +44,48 @@ public abstract class Job {
     jc.context = ctx;
     ctx.jobs.register(this);
     state(JobState.QUEUED);
+
+    // non-admin users: stop process after timeout
+    // (the time spent waiting for locks is not included)
+    final long ms = ctx.user().has(Perm.ADMIN) ? 0 :
+      ctx.soptions.get(StaticOptions.TIMEOUT) * 1000L;
+    final long start = System.currentTimeMillis();
+    startTimeout(ctx, ms);
+    try {
+      prepare(ctx);
+    } finally {
+      stopTimeout();
+    }
+    final long prepared = System.currentTimeMillis() - start;
+
     ctx.locking.acquire(this, ctx);
     state(JobState.RUNNING);
     jc.performance = new Performance();
-    // non-admin users: stop process after timeout
-    if(!ctx.user().has(Perm.ADMIN)) startTimeout(ctx.soptions.get(StaticOptions.TIMEOUT));
+    if(ms > 0 && !stopped) startTimeout(ctx, Math.max(1, ms - prepared));
   }
 
+  /**
+   * Performs work that does not require any locks. This function is called before locks
+   * are acquired; it can be overwritten to reduce the time in which other jobs are blocked.
+   * Resources allocated by this function must be released by {@link #cleanup()}.
+   * @param ctx context
+   */
+  @SuppressWarnings("unused")
+  protected void prepare(final Context ctx) { }
+
+  /**
+   * Releases resources that have been allocated by {@link #prepare(Context)}. This function
+   * is called when the job is unregistered, no matter if the job has been run or not.
+   */
+  protected void cleanup() { }
+
   /**
    * Unregisters the job.
    * @param ctx context
    */
   public final void unregister(final Context ctx) {
     stopTimeout();
+    cleanup();
     ctx.locking.release();
     ctx.jobs.unregister(this);
   }
@@ -74,7 +104,7 @@ public abstract class Job {
    * @param job child job
    * @return passed on job reference
    */
-  public final <J extends Job> J pushJob(final J job) {
+  public final synchronized <J extends Job> J pushJob(final J job) {
     children.add(job);
     job.jobContext(jc);
     return job;
@@ -87,6 +117,14 @@ public abstract class Job {
     children.remove(children.size() - 1);
   }
 
+  /**
+   * Removes the specified child job. Must be called if child jobs are run in parallel.
+   * @param job child job
+   */
+  public final synchronized void popJob(final Job job) {
+    children.remove(job);
+  }
+
   /**
    * Stops a job or sub job.
    */
@@ -175,25 +213,23 @@ public abstract class Job {
   // PRIVATE FUNCTIONS ============================================================================
 
   /**
-   * Starts a timeout thread.
-   * @param sec seconds wait; deactivated if set to 0
+   * Starts a timeout.
+   * @param ctx database context
+   * @param ms milliseconds to wait; deactivated if set to 0
    */
-  private void startTimeout(final long sec) {
-    if(sec == 0) return;
-    timer = new Timer(true);
-    timer.schedule(new TimerTask() {
-      @Override
-      public void run() { timeout(); }
-    }, sec * 1000L);
+  private void startTimeout(final Context ctx, final long ms) {
+    if(ms == 0) return;
+    timeout = ctx.jobs.schedule(this::timeout, ms);
   }
 
   /**
-   * Stops the timeout thread.
+   * Stops the timeout.
    */
   private void stopTimeout() {
-    if(timer != null) {
-      timer.cancel();
-      timer = null;
+    final ScheduledFuture<?> to = timeout;
+    if(to != null) {
+      to.cancel(false);
+      timeout = null;
     }
   }
 }
@@ -2,6 +2,7 @@ package org.basex.core.jobs;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
 import org.basex.util.Performance;
@@ -22,10 +23,16 @@ public final class JobPool {
   /** Timer tasks. */
   public final Map<String, JobTask> tasks = new ConcurrentHashMap<>();
 
-  /** Timer. */
-  final Timer timer = new Timer(true);
+  /** Timer, shared by all timeouts and scheduled tasks. */
+  final ScheduledThreadPoolExecutor timer;
+  /** Executor for scheduled jobs. */
+  final ExecutorService executor;
   /** Timeout (ms). */
   private final long timeout;
+  /** Number of threads for parallel query tasks. */
+  private final int parallelism;
+  /** Pool for parallel query tasks (lazy instantiation). */
+  private ForkJoinPool forkJoin;
 
   /**
    * Constructor.
@@ -33,6 +40,12 @@ public final class JobPool {
    */
   public JobPool(final StaticOptions sopts) {
     timeout = sopts.get(StaticOptions.CACHETIMEOUT) * 1000L;
+    timer = new ScheduledThreadPoolExecutor(1, factory("Timer"));
+    // cancelled timeouts will be removed immediately
+    timer.setRemoveOnCancelPolicy(true);
+    executor = Executors.newCachedThreadPool(factory("Job"));
+    final int fj = sopts.get(StaticOptions.FORKJOIN);
+    parallelism = fj > 0 ? fj : Runtime.getRuntime().availableProcessors();
   }
 
   /**
@@ -57,9 +70,20 @@ public final class JobPool {
    */
   public synchronized void close() {
     // stop running tasks and queries
-    timer.cancel();
+    timer.shutdownNow();
     for(final Job job : active.values()) job.stop();
     while(!active.isEmpty()) Performance.sleep(1);
+    executor.shutdownNow();
+    if(forkJoin != null) forkJoin.shutdownNow();
+  }
+
+  /**
+   * Returns the pool for parallel query tasks, which is shared by all queries.
+   * @return pool
+   */
+  public synchronized ForkJoinPool forkJoin() {
+    if(forkJoin == null) forkJoin = new ForkJoinPool(parallelism);
+    return forkJoin;
   }
 
   /**
@@ -67,11 +91,57 @@ public final class JobPool {
    * @param job job
    */
   public void scheduleResult(final Job job) {
-    timer.schedule(new TimerTask() {
-      @Override
-      public void run() {
-        results.remove(job.jc().id());
-      }
-    }, timeout);
+    schedule(() -> results.remove(job.jc().id()), timeout);
+  }
+
+  /**
+   * Returns the number of pending timers (timeouts and scheduled tasks).
+   * @return number of timers
+   */
+  public int timers() {
+    return timer.getQueue().size();
+  }
+
+  /**
+   * Schedules a timer task.
+   * @param task task to be run
+   * @param delay delay (ms)
+   * @return future, or {@code null} if the pool has been closed
+   */
+  public ScheduledFuture<?> schedule(final Runnable task, final long delay) {
+    try {
+      return timer.schedule(task, delay, TimeUnit.MILLISECONDS);
+    } catch(final RejectedExecutionException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Schedules a timer task that will be run periodically.
+   * @param task task to be run
+   * @param delay initial delay (ms)
+   * @param period period (ms)
+   * @return future, or {@code null} if the pool has been closed
+   */
+  public ScheduledFuture<?> schedule(final Runnable task, final long delay, final long period) {
+    try {
+      return timer.scheduleAtFixedRate(task, delay, period, TimeUnit.MILLISECONDS);
+    } catch(final RejectedExecutionException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a factory for daemon threads.
+   * @param name thread name prefix
+   * @return thread factory
+   */
+  public static ThreadFactory factory(final String name) {
+    final AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, name + '-' + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
   }
 }
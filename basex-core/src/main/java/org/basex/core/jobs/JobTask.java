@@ -1,6 +1,6 @@
 package org.basex.core.jobs;
 
-import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.query.func.jobs.*;
 
@@ -10,7 +10,7 @@ import org.basex.query.func.jobs.*;
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
-public final class JobTask extends TimerTask {
+public final class JobTask implements Runnable {
   /** Job. */
   public final Scheduled job;
   /** Job pool. */
@@ -23,6 +23,11 @@ public final class JobTask extends TimerTask {
   /** Next start time. */
   public long start;
 
+  /** Future of the scheduled task. */
+  private final ScheduledFuture<?> future;
+  /** Cancel flag. */
+  private volatile boolean cancelled;
+
   /**
    * Constructor.
    * @param job job
@@ -42,22 +47,38 @@ public final class JobTask extends TimerTask {
     end = duration == Long.MAX_VALUE ? duration : time + duration;
 
     jobs.tasks.put(job.jc().id(), this);
-    if(interval > 0) {
-      jobs.timer.scheduleAtFixedRate(this, delay, interval);
-    } else {
-      jobs.timer.schedule(this, delay);
-    }
+    future = interval > 0 ?
+      jobs.timer.scheduleAtFixedRate(this, delay, interval, TimeUnit.MILLISECONDS) :
+      jobs.timer.schedule(this, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Cancels the task.
+   */
+  public void cancel() {
+    cancelled = true;
+    future.cancel(false);
   }
 
   @Override
   public void run() {
+    if(cancelled) return;
+
     // check if job needs to be evaluated repeatedly
     start += interval;
     if(interval == 0 || start >= end) {
       job.remove();
-      cancel();
+      cancelled = true;
+      // future is unassigned if the task is run before the constructor has been finalized
+      if(future != null) future.cancel(false);
     }
     // skip execution if same job is still running
-    if(!jobs.active.containsKey(job.jc().id())) new Thread(job).start();
+    if(!jobs.active.containsKey(job.jc().id())) {
+      try {
+        jobs.executor.execute(job);
+      } catch(final RejectedExecutionException ex) {
+        // job pool has been closed
+      }
+    }
   }
 }
@@ -56,6 +56,9 @@ import org.basex.util.list.*;
  * - Byte    11:  NURI: Namespace (bits: 7-3)
  * </pre>
  *
+ * Text references contain inlined integers (bit 39), ids of dictionary entries
+ * (bits 39 and 38), or offsets into the heap files (bit 38: compressed entry).
+ *
  * As all methods of this class are optimized for performance, no checks are
  * performed on the arguments (e.g.: if the string value of a text node is
  * requested, the specified pre value must point to a text node).
@@ -161,8 +164,9 @@ public abstract class Data {
   /**
    * Finishes an update operation: removes the update file and the exclusive lock.
    * @param opts main options
+   * @throws IOException I/O exception
    */
-  public abstract void finishUpdate(MainOptions opts);
+  public abstract void finishUpdate(MainOptions opts) throws IOException;
 
   /**
    * Flushes updated data.
@@ -523,19 +527,44 @@ public abstract class Data {
 
       } else {
         // update element name
-        final IntList pres = new IntList();
-        // update text index
-        if(meta.updindex && meta.textindex) {
-          final int last = pre + sz;
-          for(int curr = pre + attSize(pre, kind); curr < last; curr += size(curr, kind(curr))) {
-            if(kind(curr) == TEXT) pres.add(curr);
+        final IntList pres = new IntList(), atts = new IntList();
+        final int last = pre + sz;
+        // update text indexes (include descendants if index names are qualified by paths)
+        final boolean txt = meta.updindex && meta.textindex, ft = meta.updindex && meta.ftindex;
+        if(txt || ft) {
+          final boolean desc = txt && new IndexNames(IndexType.TEXT, this).paths() ||
+              ft && new IndexNames(IndexType.FULLTEXT, this).paths();
+          for(int curr = pre + attSize(pre, kind); curr < last;) {
+            final int k = kind(curr);
+            if(k == TEXT) pres.add(curr);
+            curr += desc && k == ELEM ? attSize(curr, k) : size(curr, k);
+          }
+          if(txt) textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(ft) ftIndex.delete(new ValueCache(pres, IndexType.FULLTEXT, this));
+        }
+        // update attribute indexes if index names are qualified by paths
+        final boolean attr = meta.updindex && meta.attrindex &&
+            new IndexNames(IndexType.ATTRIBUTE, this).paths();
+        final boolean tok = meta.updindex && meta.tokenindex &&
+            new IndexNames(IndexType.TOKEN, this).paths();
+        if(attr || tok) {
+          for(int curr = pre + 1; curr < last; curr++) {
+            if(kind(curr) == ATTR) atts.add(curr);
           }
-          textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(attr) attrIndex.delete(new ValueCache(atts, IndexType.ATTRIBUTE, this));
+          if(tok) tokenIndex.delete(new ValueCache(atts, IndexType.TOKEN, this));
         }
         table.write1(pre, 3, uriId);
         final int nameId = elemNames.put(name);
         table.write2(nsPre, 1, (nsFlag || nsFlag(nsPre) ? 1 << 15 : 0) | nameId);
-        if(!pres.isEmpty()) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+        if(!pres.isEmpty()) {
+          if(txt) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+          if(ft) ftIndex.add(new ValueCache(pres, IndexType.FULLTEXT, this));
+        }
+        if(!atts.isEmpty()) {
+          if(attr) attrIndex.add(new ValueCache(atts, IndexType.ATTRIBUTE, this));
+          if(tok) tokenIndex.add(new ValueCache(atts, IndexType.TOKEN, this));
+        }
       }
     }
   }
@@ -1060,6 +1089,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.delete(new ValueCache(pre, size, IndexType.FULLTEXT, this));
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1078,6 +1108,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.add(new ValueCache(pre, size, IndexType.FULLTEXT, this));
     }
   }
 
@@ -34,6 +34,12 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Memory-mapped I/O. */
+  String DBMMAP = "MMAP";
+  /** Compressed heap files. */
+  String DBCOMPRESS = "COMPRESS";
+  /** Maximum number of dictionary entries. */
+  String DBDICT = "DICTIONARY";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
@@ -114,6 +120,8 @@ public interface DataText {
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Write-ahead log. */
+  String DATALOG = "log";
 
   // XML SERIALIZATION ============================================================================
 
@@ -16,9 +16,11 @@ import org.basex.index.path.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * This class stores and organizes the database table and the index structures
@@ -34,6 +36,10 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Dictionary of texts (can be {@code null}). */
+  private TextDictionary textDict;
+  /** Dictionary of attribute values (can be {@code null}). */
+  private TextDictionary valueDict;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -43,6 +49,8 @@ public final class DiskData extends Data {
   public DiskData(final MetaData meta) throws IOException {
     super(meta);
 
+    // recover database from write-ahead log
+    final boolean rollback = TableDiskAccess.recover(meta);
     try(DataInput in = new DataInput(meta.dbfile(DATAINF))) {
       meta.read(in);
       while(true) {
@@ -57,6 +65,14 @@ public final class DiskData extends Data {
         }
       }
     }
+    // index structures may contain discarded changes
+    if(rollback) {
+      meta.textindex = false;
+      meta.attrindex = false;
+      meta.tokenindex = false;
+      meta.ftindex = false;
+      meta.dirty = true;
+    }
 
     // open data and indexes
     init();
@@ -101,8 +117,31 @@ public final class DiskData extends Data {
    */
   private void init() throws IOException {
     table = new TableDiskAccess(meta, false);
-    texts = new DataAccess(meta.dbfile(DATATXT));
-    values = new DataAccess(meta.dbfile(DATAATV));
+    texts = heap(DATATXT);
+    values = heap(DATAATV);
+    final IOFile td = meta.dbfile('d' + DATATXT), vd = meta.dbfile('d' + DATAATV);
+    if(td.exists()) textDict = new TextDictionary(td);
+    if(vd.exists()) valueDict = new TextDictionary(vd);
+  }
+
+  /**
+   * Opens a heap file.
+   * @param file name of the file
+   * @return heap file
+   * @throws IOException I/O exception
+   */
+  private DataAccess heap(final String file) throws IOException {
+    final IOFile heap = meta.dbfile(file);
+    return meta.compress ? new DataAccess(heap, meta.dbfile('b' + file)) :
+      new DataAccess(heap, meta.mmap);
+  }
+
+  /**
+   * Returns the table.
+   * @return table
+   */
+  private TableDiskAccess table() {
+    return (TableDiskAccess) table;
   }
 
   /**
@@ -113,32 +152,90 @@ public final class DiskData extends Data {
     if(!meta.dirty) return;
 
     try(DataOutput out = new DataOutput(meta.dbfile(DATAINF))) {
-      meta.write(out);
-      out.writeToken(token(DBTAGS));
-      elemNames.write(out);
-      out.writeToken(token(DBATTS));
-      attrNames.write(out);
-      out.writeToken(token(DBPATH));
-      paths.write(out);
-      out.writeToken(token(DBNS));
-      nspaces.write(out);
-      out.writeToken(token(DBDOCS));
-      resources.write(out);
-      out.write(0);
+      write(out);
     }
     if(meta.updindex) idmap.write(meta.dbfile(DATAIDP));
     meta.dirty = false;
   }
 
+  /**
+   * Writes all meta data to the specified output.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out) throws IOException {
+    meta.write(out);
+    out.writeToken(token(DBTAGS));
+    elemNames.write(out);
+    out.writeToken(token(DBATTS));
+    attrNames.write(out);
+    out.writeToken(token(DBPATH));
+    paths.write(out);
+    out.writeToken(token(DBNS));
+    nspaces.write(out);
+    out.writeToken(token(DBDOCS));
+    resources.write(out);
+    out.write(0);
+  }
+
+  /**
+   * Commits an update to the write-ahead log. Heaps and index structures are flushed before
+   * the table and the meta data are logged.
+   * @param force force log to disk
+   * @return {@code true} if the log should be checkpointed (see {@link #checkpoint})
+   * @throws IOException I/O exception
+   */
+  private boolean commit(final boolean force) throws IOException {
+    flushStructures();
+    final TokenMap files = new TokenMap();
+    if(meta.dirty) {
+      final ArrayOutput inf = new ArrayOutput();
+      try(DataOutput out = new DataOutput(inf)) {
+        write(out);
+      }
+      files.put(token(DATAINF), inf.finish());
+      if(meta.updindex) {
+        final ArrayOutput idp = new ArrayOutput();
+        try(DataOutput out = new DataOutput(idp)) {
+          idmap.write(out);
+        }
+        files.put(token(DATAIDP), idp.finish());
+      }
+    }
+    return table().commit(files, force);
+  }
+
+  /**
+   * Writes logged changes to the database files and deletes the log.
+   * @throws IOException I/O exception
+   */
+  private void checkpoint() throws IOException {
+    write();
+    flushStructures();
+    table.flush(true);
+  }
+
+  /**
+   * Flushes heaps and index structures.
+   * @throws IOException I/O exception
+   */
+  private void flushStructures() throws IOException {
+    texts.flush();
+    values.flush();
+    if(textIndex != null) textIndex.flush();
+    if(attrIndex != null) attrIndex.flush();
+    if(ftIndex != null && meta.ftindex) ftIndex.flush();
+  }
+
   @Override
   public synchronized void close() {
     if(closed) return;
     super.close();
     try {
       write();
-      table.close();
       texts.close();
       values.close();
+      table.close();
       close(IndexType.TEXT);
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
@@ -175,7 +272,7 @@ public final class DiskData extends Data {
       if(cmd != null) cmd.pushJob(ib);
       set(type, ib.build());
     } finally {
-      if(cmd != null) cmd.popJob();
+      if(cmd != null) cmd.popJob(ib);
     }
   }
 
@@ -205,40 +302,63 @@ public final class DiskData extends Data {
   @Override
   public void startUpdate(final MainOptions opts) throws BaseXException {
     if(!table.lock(true)) throw new BaseXException(DB_PINNED_X, meta.name);
-    if(opts.get(MainOptions.AUTOFLUSH)) {
-      final IOFile upd = meta.updateFile();
+    final boolean journal = opts.get(MainOptions.JOURNAL);
+    if(journal) {
+      try {
+        table().journal();
+      } catch(final IOException ex) {
+        throw new BaseXException(ex);
+      }
+    } else if(table().journaled()) {
+      flush(true);
+    }
+    final IOFile upd = meta.updateFile();
+    if(journal) {
+      // with a write-ahead log, the updating file is deleted when the changes are forced to disk
+      if(!upd.exists() && !upd.touch())
+        throw Util.notExpected("%: could not create lock file.", meta.name);
+    } else if(opts.get(MainOptions.AUTOFLUSH)) {
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
       if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
     }
   }
 
   @Override
-  public synchronized void finishUpdate(final MainOptions opts) {
+  public synchronized void finishUpdate(final MainOptions opts) throws IOException {
     // OPTIMIZE ALL / db:optimize(..., true) will close the database before this function is called
     if(closed) return;
 
-    // remove updating file
-    final boolean auto = opts.get(MainOptions.AUTOFLUSH);
-    if(auto) {
-      final IOFile upd = meta.updateFile();
-      if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
-      if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
+    try {
+      final boolean auto = opts.get(MainOptions.AUTOFLUSH);
+      if(table().journaled()) {
+        // write logged changes to the database files if the log gets too large
+        if(commit(auto)) checkpoint();
+      } else {
+        // remove updating file
+        if(auto) {
+          final IOFile upd = meta.updateFile();
+          if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
+          if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
+        }
+        flush(auto);
+      }
+    } finally {
+      if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
     }
-
-    flush(auto);
-    if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
   }
 
   @Override
   public synchronized void flush(final boolean all) {
     try {
+      if(table().journaled()) {
+        // write logged changes to the database files and delete the log
+        if(all) checkpoint();
+        return;
+      }
       table.flush(all);
       if(all) {
         write();
-        texts.flush();
-        values.flush();
-        if(textIndex != null) textIndex.flush();
-        if(attrIndex != null) attrIndex.flush();
+        flushStructures();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -267,6 +387,7 @@ public final class DiskData extends Data {
   public int textLen(final int pre, final boolean text) {
     final long o = textRef(pre);
     if(number(o)) return numDigits((int) o);
+    if(dict(o)) return txt(o, text).length;
     final DataAccess da = text ? texts : values;
     final int l = da.readNum(o & IO.OFFCOMP - 1);
     // compressed: next number contains number of compressed bytes
@@ -280,6 +401,7 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long off, final boolean text) {
+    if(dict(off)) return (text ? textDict : valueDict).value((int) (off & IO.OFFCOMP - 1));
     final byte[] txt = (text ? texts : values).readToken(off & IO.OFFCOMP - 1);
     return compressed(off) ? Compress.unpack(txt) : txt;
   }
@@ -290,7 +412,25 @@ public final class DiskData extends Data {
    * @return result of check
    */
   private static boolean number(final long offset) {
-    return (offset & IO.OFFNUM) != 0;
+    return (offset & IO.OFFDICT) == IO.OFFNUM;
+  }
+
+  /**
+   * Returns true if the specified value references a dictionary entry.
+   * @param offset offset
+   * @return result of check
+   */
+  private static boolean dict(final long offset) {
+    return (offset & IO.OFFDICT) == IO.OFFDICT;
+  }
+
+  /**
+   * Returns true if the specified value references an entry in a heap file.
+   * @param offset offset
+   * @return result of check
+   */
+  private static boolean heapRef(final long offset) {
+    return (offset & IO.OFFNUM) == 0;
   }
 
   /**
@@ -299,7 +439,7 @@ public final class DiskData extends Data {
    * @return result of check
    */
   private static boolean compressed(final long offset) {
-    return (offset & IO.OFFCOMP) != 0;
+    return (offset & IO.OFFDICT) == IO.OFFCOMP;
   }
 
   @Override
@@ -314,7 +454,18 @@ public final class DiskData extends Data {
     // old entry (offset or value)
     final long old = textRef(pre);
     // fill unused space with zero-bytes
-    if(!number(old)) (text ? texts : values).free(old & IO.OFFCOMP - 1, 0);
+    if(reusable(old)) (text ? texts : values).free(old & IO.OFFCOMP - 1, 0);
+  }
+
+  /**
+   * Checks if the space of an old entry in a heap file can be reused.
+   * If updates are logged, heap files are append-only: old entries may still be referenced
+   * by the last committed table, which is restored if a database is recovered.
+   * @param offset offset of the old entry
+   * @return result of check
+   */
+  private boolean reusable(final long offset) {
+    return heapRef(offset) && !table().journaled();
   }
 
   @Override
@@ -329,14 +480,20 @@ public final class DiskData extends Data {
 
     // check if new entry is numeric and can be inlined
     final long v = toSimpleInt(value);
-    if(v == Integer.MIN_VALUE) {
-      // otherwise, try to compress new value
-      final byte[] val = Compress.pack(value);
+    final int id = v == Integer.MIN_VALUE ? dictId(value, kind != ATTR) : 0;
+    if(id != 0) {
+      // invalidate old entry if it was stored in the heap file
+      if(reusable(oldRef)) store.free(oldRef & IO.OFFCOMP - 1, 0);
+      // reference dictionary entry
+      textRef(pre, id | IO.OFFDICT);
+    } else if(v == Integer.MIN_VALUE) {
+      // otherwise, try to compress new value (skipped if the heap is stored in compressed blocks)
+      final byte[] val = meta.compress ? value : Compress.pack(value);
 
       // choose inserting position
       final long off;
-      if(number(oldRef)) {
-        // old entry was numeric: append new entry to heap file
+      if(!reusable(oldRef)) {
+        // old entry was inlined or must be preserved: append new entry to heap file
         off = store.length();
       } else {
         // otherwise, compute inserting position and invalidate old entry
@@ -347,8 +504,8 @@ public final class DiskData extends Data {
       store.writeToken(off, val);
       textRef(pre, val == value ? off : off | IO.OFFCOMP);
     } else {
-      // invalidate old entry if it was not inlined
-      if(!number(oldRef)) store.free(oldRef & IO.OFFCOMP - 1, 0);
+      // invalidate old entry if it was stored in the heap file
+      if(reusable(oldRef)) store.free(oldRef & IO.OFFCOMP - 1, 0);
       // inline integer value
       textRef(pre, v | IO.OFFNUM);
     }
@@ -363,11 +520,26 @@ public final class DiskData extends Data {
     final long v = toSimpleInt(value);
     if(v != Integer.MIN_VALUE) return v | IO.OFFNUM;
 
+    // reference dictionary entry
+    final int id = dictId(value, text);
+    if(id != 0) return id | IO.OFFDICT;
+
     // store text to heap file
     final DataAccess store = text ? texts : values;
     final long off = store.length();
-    final byte[] val = Compress.pack(value);
+    final byte[] val = meta.compress ? value : Compress.pack(value);
     store.writeToken(off, val);
     return val == value ? off : off | IO.OFFCOMP;
   }
+
+  /**
+   * Returns the id of a dictionary entry.
+   * @param value value
+   * @param text text or attribute flag
+   * @return id, or {@code 0} if the value is not stored in the dictionary
+   */
+  private int dictId(final byte[] value, final boolean text) {
+    final TextDictionary dict = text ? textDict : valueDict;
+    return dict != null ? dict.id(value) : 0;
+  }
 }
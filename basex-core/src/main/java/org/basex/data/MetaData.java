@@ -52,6 +52,10 @@ public final class MetaData {
   public boolean updindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for memory-mapped I/O. */
+  public boolean mmap;
+  /** Flag for compressed heap files. */
+  public boolean compress;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -81,6 +85,8 @@ public final class MetaData {
 
   /** Maximum number of categories. */
   public int maxcats;
+  /** Maximum number of dictionary entries for texts and attribute values. */
+  public int dictionary;
   /** Maximum length of index entries. */
   public int maxlen;
   /** Split size for creating indexes. */
@@ -130,8 +136,11 @@ public final class MetaData {
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    mmap = options.get(MainOptions.MMAP);
+    compress = options.get(MainOptions.COMPRESS);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
+    dictionary = options.get(MainOptions.DICTIONARY);
     stopwords = options.get(MainOptions.STOPWORDS);
     language = Language.get(options);
     textinclude = options.get(MainOptions.TEXTINCLUDE);
@@ -386,12 +395,15 @@ public final class MetaData {
       else if(k.equals(DBNDOCS))    ndocs        = toInt(v);
       else if(k.equals(DBMAXLEN))   maxlen       = toInt(v);
       else if(k.equals(DBMAXCATS))  maxcats      = toInt(v);
+      else if(k.equals(DBDICT))     dictionary   = toInt(v);
       else if(k.equals(DBLASTID))   lastid       = toInt(v);
       else if(k.equals(DBTIME))     time         = toLong(v);
       else if(k.equals(DBFSIZE))    filesize     = toLong(v);
       else if(k.equals(DBFTDC))     diacritics   = toBool(v);
       else if(k.equals(DBUPDIDX))   updindex     = toBool(v);
       else if(k.equals(DBAUTOOPT))  autooptimize = toBool(v);
+      else if(k.equals(DBMMAP))     mmap         = toBool(v);
+      else if(k.equals(DBCOMPRESS)) compress     = toBool(v);
       else if(k.equals(DBTXTIDX))   textindex    = toBool(v);
       else if(k.equals(DBATVIDX))   attrindex    = toBool(v);
       else if(k.equals(DBTOKIDX))   tokenindex   = toBool(v);
@@ -434,6 +446,8 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBMMAP,     mmap);
+    writeInfo(out, DBCOMPRESS, compress);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
@@ -453,6 +467,7 @@ public final class MetaData {
     writeInfo(out, DBFTSW,     stopwords);
     writeInfo(out, DBMAXLEN,   maxlen);
     writeInfo(out, DBMAXCATS,  maxcats);
+    writeInfo(out, DBDICT,     dictionary);
     writeInfo(out, DBUPTODATE, uptodate);
     writeInfo(out, DBLASTID,   lastid);
     if(language != null) writeInfo(out, DBFTLN, language.toString());
@@ -471,8 +486,8 @@ public final class MetaData {
       textindex = false;
       attrindex = false;
       tokenindex = false;
+      ftindex = false;
     }
-    ftindex = false;
   }
 
   /**
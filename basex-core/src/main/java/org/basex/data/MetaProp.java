@@ -49,6 +49,21 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.uptodate; }
   },
   /** Property. */
+  MMAP(false) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.mmap; }
+  },
+  /** Property. */
+  COMPRESS(false) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.compress; }
+  },
+  /** Property. */
+  DICTIONARY(false) {
+    @Override
+    public Integer value(final MetaData meta) { return meta.dictionary; }
+  },
+  /** Property. */
   INPUTPATH(false) {
     @Override
     public String value(final MetaData meta) { return meta.original; }
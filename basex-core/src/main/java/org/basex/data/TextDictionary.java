@@ -0,0 +1,90 @@
+package org.basex.data;
+
+import java.io.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.hash.*;
+
+/**
+ * This class stores the dictionary of a text or attribute value heap file.
+ * Values that occur repeatedly are stored only once; the table entries of the nodes
+ * reference their ids (see {@link IO#OFFDICT}). As all occurrences share the same byte array,
+ * comparisons of equal dictionary values are resolved by their reference.
+ *
+ * A value is added to the dictionary when it occurs for the second time while the database
+ * is created, and if the maximum number of entries ({@link MetaData#dictionary}) has not
+ * been reached yet. The dictionary is not changed by updates.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class TextDictionary {
+  /** Maximum length of dictionary entries. */
+  private static final int MAXLEN = 1 << 6;
+
+  /** Dictionary entries. */
+  private final TokenSet values;
+  /** Values that have occurred once (only used while the database is created). */
+  private final TokenSet candidates = new TokenSet();
+  /** Maximum number of entries. */
+  private final int max;
+
+  /**
+   * Constructor for a new dictionary.
+   * @param max maximum number of entries
+   */
+  public TextDictionary(final int max) {
+    this.max = max;
+    values = new TokenSet();
+  }
+
+  /**
+   * Constructor, reading the dictionary from disk.
+   * @param file input file
+   * @throws IOException I/O exception
+   */
+  TextDictionary(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      values = new TokenSet(in);
+    }
+    max = 0;
+  }
+
+  /**
+   * Writes the dictionary to disk.
+   * @param file output file
+   * @throws IOException I/O exception
+   */
+  public void write(final IOFile file) throws IOException {
+    try(DataOutput out = new DataOutput(file)) {
+      values.write(out);
+    }
+  }
+
+  /**
+   * Returns the id of the specified value and, while the database is created,
+   * adds values that occur for the second time.
+   * @param value value
+   * @return id, or {@code 0} if the value is not stored in the dictionary
+   */
+  public int id(final byte[] value) {
+    if(value.length > MAXLEN) return 0;
+    final int id = values.id(value);
+    if(id != 0 || values.size() >= max) return id;
+    // add value that has occurred before; limit number of candidates
+    if(candidates.contains(value)) return values.put(value);
+    if(candidates.size() < max << 2) candidates.add(value);
+    return 0;
+  }
+
+  /**
+   * Returns the value with the specified id.
+   * @param id id
+   * @return value
+   */
+  public byte[] value(final int id) {
+    return values.key(id);
+  }
+}
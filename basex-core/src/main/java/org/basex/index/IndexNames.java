@@ -6,12 +6,16 @@ import java.util.*;
 import java.util.regex.*;
 
 import org.basex.data.*;
+import org.basex.index.path.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
 
 /**
  * Names and namespace uris of elements/attribute to index.
+ * Names can be qualified by the names of their ancestors ({@code order/status},
+ * {@code /orders/order/status}, {@code item/@id}). Such entries are restricted to
+ * names without namespaces.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
@@ -19,6 +23,8 @@ import org.basex.util.hash.*;
 public final class IndexNames {
   /** Local names and namespace uris. All names are accepted if the list is empty. */
   private final Atts qnames = new Atts();
+  /** Local names of path-qualified entries (empty first name: absolute path). */
+  private final ArrayList<byte[][]> paths = new ArrayList<>();
   /** Data reference. */
   private final Data data;
 
@@ -35,6 +41,7 @@ public final class IndexNames {
       // global wildcard: ignore all assignments
       if(entry.equals("*") || entry.equals("*:*")) {
         qnames.reset();
+        paths.clear();
         return;
       }
 
@@ -43,6 +50,11 @@ public final class IndexNames {
       if(m.find()) { // Q{uri}name, Q{uri}*
         uri = m.group(1);
         ln = m.group(2).equals("*") ? null : m.group(2);
+      } else if(entry.indexOf('/') != -1) { // a/b, /a/b, a/@b
+        final byte[][] path = path(entry, type);
+        if(path != null) paths.add(path);
+        else Util.debug("Included path is invalid: %", entry);
+        continue;
       } else if(entry.startsWith("*:")) { // *:name
         uri = null;
         ln = entry.substring(2);
@@ -62,7 +74,15 @@ public final class IndexNames {
    * @return result of check
    */
   public boolean isEmpty() {
-    return qnames.isEmpty();
+    return qnames.isEmpty() && paths.isEmpty();
+  }
+
+  /**
+   * Checks if the list contains path-qualified entries.
+   * @return result of check
+   */
+  public boolean paths() {
+    return !paths.isEmpty();
   }
 
   /**
@@ -72,10 +92,33 @@ public final class IndexNames {
    * @return result of check
    */
   public boolean contains(final int pre, final boolean text) {
-    final byte[][] qname = text ? data.qname(data.parent(pre, Data.TEXT), Data.ELEM) :
-      data.qname(pre, Data.ATTR);
+    final int p = text ? data.parent(pre, Data.TEXT) : pre, k = text ? Data.ELEM : Data.ATTR;
+    final byte[][] qname = data.qname(p, k);
     qname[0] = local(qname[0]);
-    return contains(qname);
+    if(contains(qname)) return true;
+
+    for(final byte[][] path : paths) {
+      if(contains(path, p, k)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the values of all elements or attributes represented by the specified
+   * path nodes are to be indexed.
+   * @param nodes element or attribute path nodes (can be {@code null})
+   * @return result of check
+   */
+  public boolean contains(final ArrayList<PathNode> nodes) {
+    if(isEmpty()) return true;
+    if(nodes == null || nodes.isEmpty()) return false;
+
+    for(final PathNode node : nodes) {
+      if(!contains(new byte[][] { local(name(node)), EMPTY }) && !containsPath(node)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -100,6 +143,86 @@ public final class IndexNames {
     return false;
   }
 
+  /**
+   * Checks if the specified path node is matched by a path-qualified entry.
+   * @param node path node
+   * @return result of check
+   */
+  private boolean containsPath(final PathNode node) {
+    for(final byte[][] path : paths) {
+      PathNode pn = node;
+      for(int s = path.length - 1;; s--) {
+        final byte[] name = path[s];
+        if(name.length == 0) {
+          if(pn.kind != Data.DOC) break;
+          return true;
+        }
+        if(pn.kind != Data.ELEM && pn.kind != Data.ATTR || !eq(local(name(pn)), name)) break;
+        if(s == 0) return true;
+        pn = pn.parent;
+        if(pn == null) break;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the specified database node is matched by a path-qualified entry.
+   * @param path path
+   * @param pre pre value of element or attribute
+   * @param kind node kind
+   * @return result of check
+   */
+  private boolean contains(final byte[][] path, final int pre, final int kind) {
+    int p = pre, k = kind;
+    for(int s = path.length - 1;; s--) {
+      final byte[] name = path[s];
+      if(name.length == 0) return k == Data.DOC;
+      if(k != Data.ELEM && k != Data.ATTR || !eq(local(data.name(p, k)), name)) return false;
+      if(s == 0) return true;
+      p = data.parent(p, k);
+      if(p == -1) return false;
+      k = data.kind(p);
+    }
+  }
+
+  /**
+   * Returns the name of a path node.
+   * @param node path node
+   * @return name
+   */
+  private byte[] name(final PathNode node) {
+    return node.kind == Data.ATTR ? data.attrNames.key(node.name) :
+      node.kind == Data.ELEM ? data.elemNames.key(node.name) : EMPTY;
+  }
+
+  /**
+   * Parses a path-qualified entry.
+   * @param entry entry
+   * @param type index type
+   * @return local names, or {@code null} if the entry is invalid
+   */
+  private static byte[][] path(final String entry, final IndexType type) {
+    final boolean text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
+    final String[] steps = entry.split("/", -1);
+    final int sl = steps.length;
+    final byte[][] path = new byte[sl][];
+    for(int s = 0; s < sl; s++) {
+      String step = steps[s].trim();
+      if(s == 0 && step.isEmpty()) {
+        path[s] = EMPTY;
+        continue;
+      }
+      // attribute test: will never match elements of text-based indexes
+      final boolean attr = s == sl - 1 && step.startsWith("@");
+      if(attr) step = step.substring(1);
+      path[s] = token(step);
+      if(!XMLToken.isNCName(path[s])) return null;
+      if(attr && text) path[s] = token('@' + step);
+    }
+    return path;
+  }
+
   /**
    * Returns a set of all entries of the requested string (separated by commas).
    * @param names names
@@ -35,22 +35,31 @@ public final class FTBuilder extends IndexBuilder {
    */
   public FTBuilder(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
-    final MetaData meta = data.meta;
     tree = new FTIndexTrees(data.meta.maxlen);
+    lexer = lexer(data);
+  }
 
+  /**
+   * Creates a lexer for the full-text options of the specified database.
+   * @param data data reference
+   * @return lexer
+   * @throws IOException I/O exception
+   */
+  static FTLexer lexer(final Data data) throws IOException {
+    final MetaData meta = data.meta;
     final FTOpt fto = new FTOpt();
     fto.set(FTFlag.DC, meta.diacritics);
     fto.set(FTFlag.ST, meta.stemming);
     fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
     fto.sw = new StopWords(data, meta.stopwords);
-    fto.ln = data.meta.language;
+    fto.ln = meta.language;
 
     if(!Tokenizer.supportFor(fto.ln))
       throw new BaseXException(NO_TOKENIZER_X, fto.ln);
     if(meta.stemming && !Stemmer.supportFor(fto.ln))
       throw new BaseXException(NO_STEMMER_X, fto.ln);
 
-    lexer = new FTLexer(fto);
+    return new FTLexer(fto);
   }
 
   @Override
@@ -58,6 +67,8 @@ public final class FTBuilder extends IndexBuilder {
     Util.debug(detailedInfo());
 
     try {
+      // updatable index: index node ids instead of pre values
+      final boolean updindex = data.meta.updindex;
       for(pre = 0; pre < size; ++pre) {
         if((pre & 0x0FFF) == 0) check();
         if(!indexEntry()) continue;
@@ -76,7 +87,7 @@ public final class FTBuilder extends IndexBuilder {
               writeIndex(true);
               clean();
             }
-            tree.index(tok, pre, pos, splits);
+            tree.index(tok, updindex ? data.id(pre) : pre, pos, splits);
             count++;
           }
         }
@@ -84,6 +95,7 @@ public final class FTBuilder extends IndexBuilder {
 
       // finalize partial or all index structures
       write(splits > 0);
+      if(updindex) new FTDelta().write(data.meta.dbfile(DATAFTX + 'd'));
 
       finishIndex();
       return new FTIndex(data);
@@ -158,7 +170,7 @@ public final class FTBuilder extends IndexBuilder {
    * @param lp last offset
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il,
+  static void writeInd(final DataOutput outX, final IntList il,
       final int ls, final int lp) throws IOException {
 
     final int is = il.size();
@@ -0,0 +1,214 @@
+package org.basex.index.ft;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class stores updates of an updatable full-text index that have not been merged
+ * into the index files yet. Tokens are stored with the ids and positions of their
+ * occurrences. Ids of nodes that have been deleted or updated are recorded as well:
+ * they are ignored when the entries of the index files are evaluated.
+ *
+ * The delta is stored in the database file with the suffix {@code d}. Structure:
+ * {@code [deleted ids] [number of tokens] ([token] [ids] [positions])*}
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class FTDelta {
+  /** Tokens. */
+  private final TokenSet tokens = new TokenSet();
+  /** Ids of the tokens. */
+  private final ArrayList<IntList> ids = new ArrayList<>();
+  /** Positions of the tokens. */
+  private final ArrayList<IntList> pos = new ArrayList<>();
+  /** Ids of nodes whose entries in the index files are invalid. */
+  private final IntSet deleted = new IntSet();
+  /** Number of added entries. */
+  private int size;
+  /** Dirty flag. */
+  boolean dirty;
+
+  /**
+   * Default constructor.
+   */
+  FTDelta() { }
+
+  /**
+   * Constructor, reading the delta from disk.
+   * @param file input file
+   * @throws IOException I/O exception
+   */
+  FTDelta(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      for(final int id : in.readNums()) deleted.add(id);
+      for(int t = in.readNum(); --t >= 0;) {
+        final byte[] token = in.readToken();
+        final int[] is = in.readNums(), ps = in.readNums();
+        final int il = is.length;
+        for(int i = 0; i < il; i++) add(token, is[i], ps[i]);
+      }
+    }
+    dirty = false;
+  }
+
+  /**
+   * Writes the delta to disk.
+   * @param file output file
+   * @throws IOException I/O exception
+   */
+  void write(final IOFile file) throws IOException {
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeNums(deleted.toArray());
+      final TokenList list = tokens();
+      out.writeNum(list.size());
+      for(final byte[] token : list) {
+        final int i = tokens.id(token) - 1;
+        out.writeToken(token);
+        out.writeNums(ids.get(i).toArray());
+        out.writeNums(pos.get(i).toArray());
+      }
+    }
+    dirty = false;
+  }
+
+  /**
+   * Adds a token occurrence.
+   * @param token token
+   * @param id id of the text node
+   * @param ps position of the token
+   */
+  void add(final byte[] token, final int id, final int ps) {
+    final int i = tokens.put(token) - 1;
+    if(i == ids.size()) {
+      ids.add(new IntList(1));
+      pos.add(new IntList(1));
+    }
+    ids.get(i).add(id);
+    pos.get(i).add(ps);
+    size++;
+    dirty = true;
+  }
+
+  /**
+   * Removes all occurrences of a token in the specified text node.
+   * @param token token
+   * @param id id of the text node
+   */
+  void delete(final byte[] token, final int id) {
+    final int i = tokens.id(token) - 1;
+    if(i == -1) return;
+
+    final IntList is = ids.get(i), ps = pos.get(i);
+    final int s = is.size();
+    final IntList nis = new IntList(s), nps = new IntList(s);
+    for(int n = 0; n < s; n++) {
+      if(is.get(n) != id) {
+        nis.add(is.get(n));
+        nps.add(ps.get(n));
+      }
+    }
+    size -= s - nis.size();
+    ids.set(i, nis);
+    pos.set(i, nps);
+    dirty = true;
+  }
+
+  /**
+   * Invalidates the entries of a text node in the index files.
+   * @param id id of the text node
+   */
+  void delete(final int id) {
+    if(deleted.add(id)) dirty = true;
+  }
+
+  /**
+   * Checks if the entries of a text node in the index files are invalid.
+   * @param id id of the text node
+   * @return result of check
+   */
+  boolean deleted(final int id) {
+    return deleted.contains(id);
+  }
+
+  /**
+   * Returns the number of occurrences of a token.
+   * @param token token
+   * @return number of occurrences
+   */
+  int size(final byte[] token) {
+    final int i = tokens.id(token) - 1;
+    return i == -1 ? 0 : ids.get(i).size();
+  }
+
+  /**
+   * Adds the pre values and positions of a token to the specified lists.
+   * @param token token
+   * @param pres pre values
+   * @param poss positions
+   * @param data data reference
+   */
+  void add(final byte[] token, final IntList pres, final IntList poss, final Data data) {
+    final int i = tokens.id(token) - 1;
+    if(i == -1) return;
+
+    final IntList is = ids.get(i), ps = pos.get(i);
+    final int s = is.size();
+    for(int n = 0; n < s; n++) {
+      pres.add(data.pre(is.get(n)));
+      poss.add(ps.get(n));
+    }
+  }
+
+  /**
+   * Adds the ids and positions of a token to the specified lists.
+   * @param token token
+   * @param is ids
+   * @param ps positions
+   */
+  void ids(final byte[] token, final IntList is, final IntList ps) {
+    final int i = tokens.id(token) - 1;
+    if(i == -1) return;
+    is.add(ids.get(i).toArray());
+    ps.add(pos.get(i).toArray());
+  }
+
+  /**
+   * Returns all tokens with occurrences, sorted by their length and lexicographically.
+   * This is the order in which tokens are stored in the index files.
+   * @return tokens
+   */
+  TokenList tokens() {
+    final TokenList list = new TokenList();
+    for(final byte[] token : tokens) {
+      if(token != null && size(token) != 0) list.add(token);
+    }
+    return list.sort((t1, t2) -> t1.length != t2.length ? t1.length - t2.length : diff(t1, t2),
+        true);
+  }
+
+  /**
+   * Returns the number of pending updates.
+   * @return number of added entries and invalidated ids
+   */
+  int size() {
+    return size + deleted.size();
+  }
+
+  /**
+   * Checks if the delta contains no updates.
+   * @return result of check
+   */
+  boolean isEmpty() {
+    return size() == 0;
+  }
+}
@@ -13,6 +13,8 @@ import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.index.value.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.util.*;
@@ -47,12 +49,19 @@ import org.basex.util.similarity.*;
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
  * </ul>
  *
+ * <p>If the index is updatable ({@link MainOptions#UPDINDEX}), node ids are stored instead of
+ * pre values. Updates are collected in a {@link FTDelta} instance, which is stored in a fourth
+ * file with suffix <b>d</b>. The delta is merged into the index files if it gets too large,
+ * or if the database is optimized.</p>
+ *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
 public final class FTIndex extends ValueIndex {
   /** Entry size. */
   private static final int ENTRY = 9;
+  /** Minimum number of pending updates before the delta is merged. */
+  private static final int MERGE = 1 << 16;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   private final IntObjMap<byte[]> ctext = new IntObjMap<>();
@@ -61,16 +70,20 @@ public final class FTIndex extends ValueIndex {
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess inX;
+  private DataAccess inX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess inY;
+  private DataAccess inY;
   /** Storing pre and pos values for each token. */
-  private final DataAccess inZ;
+  private DataAccess inZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private IndexCache cache;
   /** Token positions. */
   private final int[] tp;
+  /** Pending updates ({@code null} if the index is not updatable). */
+  private FTDelta delta;
+  /** Lexer for tokenizing updated texts (lazy instantiation). */
+  private FTLexer lexer;
 
   /**
    * Constructor, initializing the index structure.
@@ -79,11 +92,24 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
-    // cache token length index
+    tp = new int[data.meta.maxlen + 3];
+    init();
+    // indexes created without delta file store pre values and cannot be updated
+    final IOFile file = data.meta.dbfile(DATAFTX + 'd');
+    if(data.meta.updindex && file.exists()) delta = new FTDelta(file);
+  }
+
+  /**
+   * Opens the index files and caches the token length index.
+   * @throws IOException I/O Exception
+   */
+  private void init() throws IOException {
     inY = new DataAccess(data.meta.dbfile(DATAFTX + 'y'));
     inZ = new DataAccess(data.meta.dbfile(DATAFTX + 'z'));
     inX = new DataAccess(data.meta.dbfile(DATAFTX + 'x'));
-    tp = new int[data.meta.maxlen + 3];
+    cache = new IndexCache();
+    ctext.clear();
+
     final int tl = tp.length;
     for(int i = 0; i < tl; ++i) tp[i] = -1;
     for(int is = inX.readNum(); --is >= 0;) {
@@ -101,7 +127,7 @@ public final class FTIndex extends ValueIndex {
     // estimate costs for queries which stretch over multiple index entries
     final FTOpt opt = ((FTLexer) it).ftOpt();
     return IndexCosts.get(opt.is(FZ) || opt.is(WC) ? Math.max(1, data.meta.size >> 4) :
-      entry(tok).size);
+      entry(tok).size + (delta != null ? delta.size(tok) : 0));
   }
 
   @Override
@@ -118,7 +144,10 @@ public final class FTIndex extends ValueIndex {
 
     // return cached or new result
     final IndexEntry e = entry(tok);
-    return e.size > 0 ? iter(e.offset, e.size, inZ, tok) : FTIndexIterator.FTEMPTY;
+    final IntList pr = new IntList(e.size), ps = new IntList(e.size);
+    if(e.size > 0) add(e.offset, e.size, pr, ps);
+    if(delta != null) delta.add(tok, pr, ps, data);
+    return pr.isEmpty() ? FTIndexIterator.FTEMPTY : iter(new FTCache(pr, ps), tok);
   }
 
   /**
@@ -138,8 +167,9 @@ public final class FTIndex extends ValueIndex {
   @Override
   public EntryIterator entries(final IndexEntries entries) {
     final byte[] prefix = entries.get();
+    final TokenList pending = delta != null ? delta.tokens() : null;
     return new EntryIterator() {
-      int ti = prefix.length - 1, i, e, nr;
+      int ti = prefix.length - 1, i, e, nr, d;
       boolean inner;
 
       @Override
@@ -169,6 +199,14 @@ public final class FTIndex extends ValueIndex {
           final byte[] n = next();
           if(n != null) return n;
         }
+        // return tokens that only occur in the delta
+        while(pending != null && d < pending.size()) {
+          final byte[] entry = pending.get(d++);
+          if(startsWith(entry, prefix) && token(entry) == -1) {
+            nr = delta.size(entry);
+            return entry;
+          }
+        }
         // all entries processed: return null
         return null;
       }
@@ -212,6 +250,7 @@ public final class FTIndex extends ValueIndex {
     final long l = inX.length() + inY.length() + inZ.length();
     tb.add(LI_NAMES).add(data.meta.ftinclude).add(NL);
     tb.add(LI_SIZE + Performance.format(l) + NL);
+    if(delta != null) tb.add(LI_ENTRIES + delta.size() + NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
     addOccs(stats);
@@ -226,6 +265,7 @@ public final class FTIndex extends ValueIndex {
 
   @Override
   public synchronized void close() {
+    write();
     inX.close();
     inY.close();
     inZ.close();
@@ -336,11 +376,22 @@ public final class FTIndex extends ValueIndex {
       while(t < tl && r == -1) r = tp[t++];
       while(p < r) {
         if(ls.similar(inY.readBytes(p, s), token, k)) {
-          it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), it);
+          final IntList pr = new IntList(), ps = new IntList();
+          add(pointer(p, s), size(p, s), pr, ps);
+          it = FTIndexIterator.union(iter(new FTCache(pr, ps), token), it);
         }
         p += s + ENTRY;
       }
     }
+    if(delta != null) {
+      final IntList pr = new IntList(), ps = new IntList();
+      for(final byte[] tok : delta.tokens()) {
+        final int dl = tok.length;
+        if(dl >= tokl - k && dl <= tokl + k && ls.similar(tok, token, k))
+          delta.add(tok, pr, ps, data);
+      }
+      if(!pr.isEmpty()) it = FTIndexIterator.union(iter(new FTCache(pr, ps), token), it);
+    }
     return it;
   }
 
@@ -370,37 +421,38 @@ public final class FTIndex extends ValueIndex {
       while(i < e) {
         final byte[] t = inY.readBytes(i, ti);
         if(!startsWith(t, pref)) break;
-        if(wc.match(t)) {
-          inZ.cursor(pointer(i, ti));
-          final int s = size(i, ti);
-          for(int d = 0; d < s; d++) {
-            pr.add(inZ.readNum());
-            ps.add(inZ.readNum());
-          }
-        }
+        if(wc.match(t)) add(pointer(i, ti), size(i, ti), pr, ps);
         i += ti + ENTRY;
       }
     }
+    if(delta != null) {
+      for(final byte[] tok : delta.tokens()) {
+        if(startsWith(tok, pref) && wc.match(tok)) delta.add(tok, pr, ps, data);
+      }
+    }
     return iter(new FTCache(pr, ps), token);
   }
 
   /**
-   * Returns an iterator for an index entry.
+   * Adds the pre values and positions of an index entry to the specified lists.
+   * If the index is updatable, ids are mapped to pre values, and invalid entries are skipped.
    * @param off offset on entries
    * @param size number of id/pos entries
-   * @param da data source
-   * @param token index token
-   * @return iterator
+   * @param pr pre values
+   * @param ps positions
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
-    final IntList pr = new IntList(size), ps = new IntList(size);
+  private void add(final long off, final int size, final IntList pr, final IntList ps) {
+    inZ.cursor(off);
     for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+      final int id = inZ.readNum(), pos = inZ.readNum();
+      if(delta == null) {
+        pr.add(id);
+        ps.add(pos);
+      } else if(!delta.deleted(id)) {
+        pr.add(data.pre(id));
+        ps.add(pos);
+      }
     }
-    return iter(new FTCache(pr, ps), token);
   }
 
   /**
@@ -482,15 +534,175 @@ public final class FTIndex extends ValueIndex {
   }
 
   @Override
-  public void add(final ValueCache vc) {
-    throw Util.notExpected();
+  public synchronized void add(final ValueCache vc) {
+    if(invalidate()) return;
+    for(final byte[] text : vc) {
+      final IntList ids = vc.ids(text);
+      final int is = ids.size();
+      final TokenList tokens = tokens(text);
+      final int ts = tokens.size();
+      for(int t = 0; t < ts; t++) {
+        final byte[] token = tokens.get(t);
+        if(token != null) {
+          for(int i = 0; i < is; i++) delta.add(token, ids.get(i), t);
+        }
+      }
+    }
   }
 
   @Override
-  public void delete(final ValueCache vc) {
-    throw Util.notExpected();
+  public synchronized void delete(final ValueCache vc) {
+    if(invalidate()) return;
+    for(final byte[] text : vc) {
+      final IntList ids = vc.ids(text);
+      final int is = ids.size();
+      for(final byte[] token : tokens(text)) {
+        if(token != null) {
+          for(int i = 0; i < is; i++) delta.delete(token, ids.get(i));
+        }
+      }
+      for(int i = 0; i < is; i++) delta.delete(ids.get(i));
+    }
   }
 
   @Override
-  public void flush() { }
+  public synchronized void flush() {
+    try {
+      if(delta != null && delta.size() > Math.max(MERGE, inZ.length() >> 3)) merge();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+    write();
+  }
+
+  /**
+   * Merges pending updates into the index files.
+   * @throws IOException I/O exception
+   */
+  public synchronized void merge() throws IOException {
+    if(delta == null || delta.isEmpty()) return;
+
+    final String name = DATAFTX + 'm';
+    try(DataOutput outX = new DataOutput(data.meta.dbfile(name + 'x'));
+        DataOutput outY = new DataOutput(data.meta.dbfile(name + 'y'));
+        DataOutput outZ = new DataOutput(data.meta.dbfile(name + 'z'))) {
+
+      final TokenList tokens = delta.tokens();
+      final IntList ind = new IntList(), ids = new IntList(), pos = new IntList();
+      final int tl = tp.length, ts = tokens.size();
+      int d = 0, last = 0;
+      // merge the tokens of each length
+      for(int l = 1; l < tl - 1; l++) {
+        int p = tp[l], e = -1;
+        if(p != -1) {
+          int c = l + 1;
+          do e = tp[c++]; while(e == -1);
+        }
+        boolean first = true;
+        while(p != -1 && p < e || d < ts && tokens.get(d).length == l) {
+          final byte[] mt = p != -1 && p < e ? inY.readBytes(p, l) : null;
+          final byte[] dt = d < ts && tokens.get(d).length == l ? tokens.get(d) : null;
+          final int df = mt == null ? 1 : dt == null ? -1 : diff(mt, dt);
+
+          // collect valid entries of the index files and the delta
+          ids.reset();
+          pos.reset();
+          if(df <= 0) {
+            inZ.cursor(pointer(p, l));
+            for(int s = size(p, l); --s >= 0;) {
+              final int id = inZ.readNum(), ps = inZ.readNum();
+              if(!delta.deleted(id)) {
+                ids.add(id);
+                pos.add(ps);
+              }
+            }
+            p += l + ENTRY;
+          }
+          final byte[] token = df <= 0 ? mt : dt;
+          if(df >= 0) {
+            delta.ids(dt, ids, pos);
+            d++;
+          }
+
+          final int is = ids.size();
+          if(is == 0) continue;
+          if(first) {
+            ind.add(l);
+            ind.add((int) outY.size());
+            first = false;
+          }
+          outY.writeBytes(token);
+          outY.write5(outZ.size());
+          outY.write4(is);
+          for(int i = 0; i < is; i++) {
+            outZ.writeNum(ids.get(i));
+            outZ.writeNum(pos.get(i));
+          }
+          last = l;
+        }
+      }
+      FTBuilder.writeInd(outX, ind, last + 1, (int) outY.size());
+    }
+
+    // replace index files
+    inX.close();
+    inY.close();
+    inZ.close();
+    for(final char c : new char[] { 'x', 'y', 'z' }) {
+      final IOFile file = data.meta.dbfile(DATAFTX + c);
+      if(!file.delete() || !data.meta.dbfile(name + c).rename(file))
+        throw new IOException("Full-text index could not be updated: " + file);
+    }
+    init();
+    delta = new FTDelta();
+    delta.dirty = true;
+  }
+
+  /**
+   * Writes pending updates to disk.
+   */
+  private void write() {
+    if(delta == null || !delta.dirty) return;
+    try {
+      delta.write(data.meta.dbfile(DATAFTX + 'd'));
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Invalidates an index that cannot be updated.
+   * @return {@code true} if the index was invalidated
+   */
+  private boolean invalidate() {
+    if(delta != null) return false;
+    data.meta.ftindex = false;
+    return true;
+  }
+
+  /**
+   * Returns the tokens of a text. Tokens that will not be indexed (stop words,
+   * tokens exceeding the maximum token length) are represented by {@code null}.
+   * @param text text
+   * @return tokens (the offset of a token is its position)
+   */
+  private TokenList tokens(final byte[] text) {
+    if(lexer == null) {
+      try {
+        lexer = FTBuilder.lexer(data);
+      } catch(final IOException ex) {
+        throw Util.notExpected(ex);
+      }
+    }
+    final StopWords sw = lexer.ftOpt().sw;
+    final TokenList tokens = new TokenList();
+    lexer.init(text);
+    while(lexer.hasNext()) {
+      final byte[] token = lexer.nextToken();
+      tokens.add(token.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(token)) ?
+        token : null);
+    }
+    return tokens;
+  }
 }
+
@@ -16,6 +16,10 @@ public final class NumericRange implements IndexToken {
   public final double min;
   /** Maximum value. */
   public final double max;
+  /** Include minimum value. */
+  public final boolean mni;
+  /** Include maximum value. */
+  public final boolean mxi;
 
   /**
    * Constructor.
@@ -24,9 +28,33 @@ public final class NumericRange implements IndexToken {
    * @param max maximum value
    */
   public NumericRange(final IndexType type, final double min, final double max) {
+    this(type, min, true, max, true);
+  }
+
+  /**
+   * Constructor.
+   * @param type index type
+   * @param min minimum value
+   * @param mni include minimum value
+   * @param max maximum value
+   * @param mxi include maximum value
+   */
+  public NumericRange(final IndexType type, final double min, final boolean mni,
+      final double max, final boolean mxi) {
     this.type = type;
     this.min = min;
+    this.mni = mni;
     this.max = max;
+    this.mxi = mxi;
+  }
+
+  /**
+   * Checks if the specified value is within the range.
+   * @param value value
+   * @return result of check
+   */
+  public boolean contains(final double value) {
+    return (mni ? value >= min : value > min) && (mxi ? value <= max : value < max);
   }
 
   @Override
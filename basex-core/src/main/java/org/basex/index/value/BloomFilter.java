@@ -0,0 +1,184 @@
+package org.basex.index.value;
+
+import java.io.*;
+
+import org.basex.io.*;
+import org.basex.util.list.*;
+
+/**
+ * This class provides a Bloom filter for the keys of a value index. It is consulted before
+ * the index files are accessed: if it does not contain a key, the key is known to be absent.
+ * Keys are never removed from the filter, so it may return false positives,
+ * but no false negatives. If keys are added, and if the number of keys exceeds the capacity
+ * of the filter by the factor {@link #GROWTH}, the filter is rebuilt when the index is flushed.
+ *
+ * The filter is stored in the index file with the suffix {@code f}:
+ * {@code [number of index keys (4 bytes)] [bits]}.
+ * It is ignored if the number of keys does not match the number of index keys.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class BloomFilter {
+  /** Number of bits per key. */
+  private static final int BITS = 10;
+  /** Number of hash functions. */
+  private static final int HASHES = 7;
+  /** Factor by which the number of keys may exceed the capacity before the filter is rebuilt. */
+  private static final int GROWTH = 2;
+
+  /** Filter file. */
+  private final IOFile file;
+  /** Bits. */
+  private final byte[] bits;
+  /** Modified flag. */
+  private boolean dirty;
+
+  /**
+   * Constructor.
+   * @param file filter file
+   * @param bits bits
+   */
+  private BloomFilter(final IOFile file, final byte[] bits) {
+    this.file = file;
+    this.bits = bits;
+  }
+
+  /**
+   * Constructor, creating a filter for the specified keys.
+   * @param file filter file
+   * @param hashes hash values of the keys (see {@link #hash(byte[])})
+   */
+  BloomFilter(final IOFile file, final IntList hashes) {
+    this(file, new byte[(int) Math.min(Integer.MAX_VALUE - 8,
+        Math.max(8, ((long) hashes.size() * BITS + 7) >>> 3))]);
+    for(final int hash : hashes.toArray()) add(hash);
+  }
+
+  /**
+   * Returns the filter that has been stored for the specified index.
+   * @param file filter file
+   * @param size number of index keys
+   * @return filter, or {@code null} if no valid filter exists
+   * @throws IOException I/O exception
+   */
+  static BloomFilter get(final IOFile file, final int size) throws IOException {
+    if(!file.exists()) return null;
+    final byte[] data = file.read();
+    final int dl = data.length;
+    if(dl < 12 || ((data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 |
+        data[3] & 0xFF) != size) return null;
+
+    final byte[] bits = new byte[dl - 4];
+    System.arraycopy(data, 4, bits, 0, bits.length);
+    return new BloomFilter(file, bits);
+  }
+
+  /**
+   * Writes the filter to disk.
+   * @param size number of index keys
+   * @throws IOException I/O exception
+   */
+  void write(final int size) throws IOException {
+    final byte[] data = new byte[bits.length + 4];
+    data[0] = (byte) (size >>> 24);
+    data[1] = (byte) (size >>> 16);
+    data[2] = (byte) (size >>> 8);
+    data[3] = (byte) size;
+    System.arraycopy(bits, 0, data, 4, bits.length);
+    file.write(data);
+    dirty = false;
+  }
+
+  /**
+   * Indicates if the filter should be rebuilt for the specified number of keys.
+   * @param size number of index keys
+   * @return result of check
+   */
+  boolean exceeded(final int size) {
+    return size > ((long) bits.length << 3) / BITS * GROWTH;
+  }
+
+  /**
+   * Creates a new filter for the specified keys, which will be stored in the same file.
+   * @param hashes hash values of the keys (see {@link #hash(byte[])})
+   * @return new filter
+   */
+  BloomFilter rebuild(final IntList hashes) {
+    return new BloomFilter(file, hashes);
+  }
+
+  /**
+   * Indicates if the filter has been modified.
+   * @return result of check
+   */
+  boolean dirty() {
+    return dirty;
+  }
+
+  /**
+   * Adds a key.
+   * @param key key
+   */
+  void add(final byte[] key) {
+    add(hash(key));
+    dirty = true;
+  }
+
+  /**
+   * Registers the deletion of keys. The bits of deleted keys are kept,
+   * but the filter must be written again with the new number of keys.
+   */
+  void delete() {
+    dirty = true;
+  }
+
+  /**
+   * Checks if the specified key may be contained in the index.
+   * @param key key
+   * @return {@code false} if the key is not contained in the index
+   */
+  boolean contains(final byte[] key) {
+    final int hash = hash(key), delta = delta(hash);
+    final long size = (long) bits.length << 3;
+    for(int h = 0; h < HASHES; h++) {
+      final long bit = ((hash + h * delta) & 0xFFFFFFFFL) % size;
+      if((bits[(int) (bit >>> 3)] & 1 << (bit & 7)) == 0) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Adds a key.
+   * @param hash hash value of the key
+   */
+  private void add(final int hash) {
+    final int delta = delta(hash);
+    final long size = (long) bits.length << 3;
+    for(int h = 0; h < HASHES; h++) {
+      final long bit = ((hash + h * delta) & 0xFFFFFFFFL) % size;
+      bits[(int) (bit >>> 3)] |= 1 << (bit & 7);
+    }
+  }
+
+  /**
+   * Computes the hash value of a key (FNV-1a).
+   * @param key key
+   * @return hash value
+   */
+  static int hash(final byte[] key) {
+    int h = 0x811C9DC5;
+    for(final byte b : key) h = (h ^ b & 0xFF) * 0x01000193;
+    return h;
+  }
+
+  /**
+   * Computes the distance between the bits of a key (double hashing).
+   * @param hash hash value
+   * @return distance (odd number)
+   */
+  private static int delta(final int hash) {
+    final int h = hash * 0x9E3779B9;
+    return (h >>> 15 | h << 17) | 1;
+  }
+}
@@ -5,6 +5,7 @@ import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
 import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
@@ -36,9 +37,15 @@ public class DiskValues extends ValueIndex {
   final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
   final AtomicInteger size = new AtomicInteger();
+  /** Filter for the index keys (can be {@code null}). */
+  volatile BloomFilter filter;
 
   /** Synchronization object. */
   private final Object monitor = new Object();
+  /** Numeric keys, sorted by their values (lazily created, reset by updates). */
+  private volatile double[] numValues;
+  /** Positions of the numeric keys in the reference file. */
+  private volatile int[] numIndexes;
 
   /**
    * Constructor, initializing the index structure.
@@ -63,6 +70,7 @@ public class DiskValues extends ValueIndex {
     idxl = new DataAccess(data.meta.dbfile(pref + 'l'));
     idxr = new DataAccess(data.meta.dbfile(pref + 'r'));
     size.set(idxl.read4());
+    filter = BloomFilter.get(data.meta.dbfile(pref + 'f'), size.get());
   }
 
   @Override
@@ -115,6 +123,7 @@ public class DiskValues extends ValueIndex {
   @Override
   public final void close() {
     synchronized(monitor) {
+      writeFilter();
       idxl.close();
       idxr.close();
     }
@@ -140,6 +149,9 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final void flush() {
+    synchronized(monitor) {
+      writeFilter();
+    }
     idxl.flush();
     idxr.flush();
   }
@@ -153,6 +165,14 @@ public class DiskValues extends ValueIndex {
     return id;
   }
 
+  /**
+   * Invalidates the numeric order of the keys. Must be called before the index is updated.
+   */
+  protected final void resetNumeric() {
+    numValues = null;
+    numIndexes = null;
+  }
+
   /**
    * Binary search for key in the {@code idxr} reference file.
    * <p><em>Important:</em> This method is thread-safe.</p>
@@ -197,6 +217,9 @@ public class DiskValues extends ValueIndex {
   private IndexEntry entry(final byte[] key) {
     final IndexEntry entry = cache.get(key);
     if(entry != null) return entry;
+    // skip lookup if the key is known to be absent
+    final BloomFilter f = filter;
+    if(f != null && !f.contains(key)) return new IndexEntry(key, 0, 0);
 
     final long index = get(key);
     if(index < 0) return new IndexEntry(key, 0, 0);
@@ -214,6 +237,31 @@ public class DiskValues extends ValueIndex {
     return cache.add(key, count, offset);
   }
 
+  /**
+   * Writes the filter to disk if it has been modified.
+   * The filter is rebuilt if too many keys have been added since it was created.
+   */
+  private void writeFilter() {
+    BloomFilter f = filter;
+    if(f != null && f.dirty()) {
+      final int sz = size();
+      if(f.exceeded(sz)) {
+        final IntList hashes = new IntList(sz);
+        for(int index = 0; index < sz; index++) {
+          idxl.readNum(idxr.read5(index * 5L));
+          hashes.add(BloomFilter.hash(key(idxl.readNum())));
+        }
+        f = f.rebuild(hashes);
+        filter = f;
+      }
+      try {
+        f.write(sz);
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
+  }
+
   /**
    * Returns all index entries.
    * @param reverse return in a reverse order
@@ -407,44 +455,69 @@ public class DiskValues extends ValueIndex {
   }
 
   /**
-   * Performs a range query. All index values must be numeric.
+   * Performs a numeric range query. Keys that cannot be converted to numbers are ignored.
    * <p><em>Important:</em> This method is thread-safe.</p>
    * @param tok index term
    * @return results
    */
   private IndexIterator idRange(final NumericRange tok) {
-    // check if min and max are positive integers with the same number of digits
-    final double min = tok.min, max = tok.max;
-    final int len = max > 0 && (long) max == max ? token(max).length : 0;
-    final boolean simple = len != 0 && min > 0 && (long) min == min && token(min).length == len;
-
     final IntList pres = new IntList();
     synchronized(monitor) {
-      final int entries = size();
-      final boolean text = type == IndexType.TEXT;
-      for(int index = 0; index < entries; ++index) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        final int pre = pre(id);
-
-        final double v = data.textDbl(pre, text);
-        if(v >= min && v <= max) {
-          // value is in range
-          for(int c = 0; c < count; c++) {
-            pres.add(pre(id));
-            id += idxl.readNum();
-          }
-        } else if(simple && v > max && data.textLen(pre, text) == len) {
-          // if limits are integers, if min, max and current value have the same
-          // string length, and if current value is larger than max, test can be
-          // skipped, as all remaining values will be bigger
-          break;
+      numeric();
+      final double[] values = numValues;
+      final int[] indexes = numIndexes;
+      final int nl = values.length;
+
+      // find first value in range, add ids of all keys until maximum is exceeded
+      int l = 0, h = nl - 1;
+      while(l <= h) {
+        final int m = l + h >>> 1;
+        final double v = values[m];
+        if(tok.mni ? v < tok.min : v <= tok.min) l = m + 1;
+        else h = m - 1;
+      }
+      for(int n = l; n < nl && tok.contains(values[n]); n++) {
+        final int count = idxl.readNum(idxr.read5(indexes[n] * 5L));
+        for(int c = 0, id = 0; c < count; c++) {
+          id += idxl.readNum();
+          pres.add(pre(id));
         }
       }
     }
     return iter(pres.sort());
   }
 
+  /**
+   * Creates the numeric order of the keys if it does not exist yet.
+   * The numeric values are computed from the string keys once and sorted in ascending order.
+   * <p><em>Important:</em> This method is NOT thread-safe.</p>
+   */
+  private void numeric() {
+    if(numValues != null) return;
+
+    final int entries = size();
+    final boolean text = type == IndexType.TEXT;
+    double[] values = new double[entries];
+    final IntList indexes = new IntList();
+    int nl = 0;
+    for(int index = 0; index < entries; index++) {
+      idxl.readNum(idxr.read5(index * 5L));
+      final int pre = pre(idxl.readNum());
+      // skip non-numeric keys and token keys (only the texts of tokens are indexed)
+      final double v = type == IndexType.TOKEN ? Double.NaN : data.textDbl(pre, text);
+      if(!Double.isNaN(v)) {
+        values[nl++] = v;
+        indexes.add(index);
+      }
+    }
+    values = Arrays.copyOf(values, nl);
+    final int[] order = Array.createOrder(values, true);
+    final int[] idx = new int[nl];
+    for(int n = 0; n < nl; n++) idx[n] = indexes.get(order[n]);
+    numIndexes = idx;
+    numValues = values;
+  }
+
   /**
    * Returns an iterator for the specified id list.
    * @param pres pre values
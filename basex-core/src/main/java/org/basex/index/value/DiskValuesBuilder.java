@@ -26,6 +26,7 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the id references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV + 'f'}: contains a {@link BloomFilter} for the keys.</li>
  * </ul>
  *
  * @author BaseX Team 2005-17, BSD License
@@ -34,6 +35,8 @@ import org.basex.util.list.*;
 public final class DiskValuesBuilder extends ValuesBuilder {
   /** Temporary value tree. */
   private IndexTree index;
+  /** Hash values of the index keys (see {@link BloomFilter}). */
+  private final IntList hashes = new IntList();
 
   /**
    * Constructor.
@@ -74,6 +77,8 @@ public final class DiskValuesBuilder extends ValuesBuilder {
         clean();
         merge();
       }
+      new BloomFilter(data.meta.dbfile(DiskValues.fileSuffix(type) + 'f'), hashes).
+        write(hashes.size());
 
       finishIndex();
       return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
@@ -136,6 +141,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
         }
 
         // parse through all values, cache and sort id values
+        hashes.add(BloomFilter.hash(vm[min].key));
         final int ms = ml.size();
         for(int m = 0; m < ms; ++m) {
           final DiskValuesMerger t = vm[ml.get(m)];
@@ -177,7 +183,8 @@ public final class DiskValuesBuilder extends ValuesBuilder {
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
       index.init();
       while(index.more()) {
-        final byte[] values = index.ids.get(index.next());
+        final int i = index.next();
+        final byte[] values = index.ids.get(i);
         final int vs = Num.size(values);
 
         if(partial) {
@@ -185,6 +192,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
           outR.write5(outL.size());
           outL.write(values, 0, vs);
         } else {
+          hashes.add(BloomFilter.hash(index.keys.get(i)));
           // cache and sort all values
           for(int ip = 4; ip < vs; ip += Num.length(values, ip)) {
             id.add(Num.get(values, ip));
@@ -35,6 +35,7 @@ public final class UpdatableDiskValues extends DiskValues {
 
   @Override
   public synchronized void add(final ValueCache values) {
+    resetNumeric();
     // create a sorted list of the new keys and update the old keys
     final TokenList newKeys = new TokenList();
 
@@ -83,12 +84,14 @@ public final class UpdatableDiskValues extends DiskValues {
       }
       // add the new key and its ids
       writeIds(key, values.ids(key), values.pos(key), newIndex--);
+      if(filter != null) filter.add(key);
     }
     size(sz + ns);
   }
 
   @Override
   public synchronized void delete(final ValueCache values) {
+    resetNumeric();
     // create a list of the indexes of the keys which should be completely deleted
     final IntList keys = new IntList();
     int p = 0;
@@ -162,6 +165,7 @@ public final class UpdatableDiskValues extends DiskValues {
     }
     sz -= kl;
     size(sz);
+    if(filter != null) filter.delete();
 
     idxr.cursor(0);
     idxr.writeBytes(tmp, 0, sz * 5);
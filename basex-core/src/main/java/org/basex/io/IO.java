@@ -90,6 +90,8 @@ public abstract class IO {
   public static final int NODESIZE = 1 << NODEPOWER;
   /** Entries per block (256). */
   public static final int ENTRIES = BLOCKSIZE >>> NODEPOWER;
+  /** Uncompressed size of the blocks of compressed heap files (65536). */
+  public static final int HEAPBLOCKSIZE = BLOCKSIZE << 4;
 
   /** Maximum number of attributes (see bit layout in {@link Data} class). */
   public static final int MAXATTS = 0x1F;
@@ -97,6 +99,8 @@ public abstract class IO {
   public static final long OFFNUM = 0x8000000000L;
   /** Offset for compressing texts (see bit layout in {@link Data} class). */
   public static final long OFFCOMP = 0x4000000000L;
+  /** Offset for referencing dictionary entries (see bit layout in {@link Data} class). */
+  public static final long OFFDICT = OFFNUM | OFFCOMP;
 
   /** Absolute file path. All paths have forward slashes, no matter which OS is used. */
   protected String pth;
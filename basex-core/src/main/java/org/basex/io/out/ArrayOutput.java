@@ -28,6 +28,18 @@ public final class ArrayOutput extends PrintOutput {
     size = s + 1;
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) {
+    final int s = (int) size, l = (int) Math.min(len, max - s);
+    if(l <= 0) return;
+
+    byte[] bffr = buffer;
+    if(s + l > bffr.length) bffr = Arrays.copyOf(bffr, Math.max(Array.newSize(s), s + l));
+    System.arraycopy(b, off, bffr, s, l);
+    buffer = bffr;
+    size = s + l;
+  }
+
   /**
    * Returns the output as byte array.
    * @return byte array
@@ -0,0 +1,113 @@
+package org.basex.io.out;
+
+import java.io.*;
+import java.util.zip.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.list.*;
+
+/**
+ * This class allows a blockwise, compressed output of a heap file (texts, attribute values).
+ * The written bytes are divided into blocks of {@link IO#HEAPBLOCKSIZE} bytes, which are
+ * compressed individually. The end is padded to a multiple of {@link IO#BLOCKSIZE} bytes.
+ * The file offsets of the compressed blocks are written to a second file with the
+ * prefix {@code b} (a suffix would be matched by the file patterns of the value indexes):
+ * {@code [number of blocks] [block offsets] [end offset] [uncompressed size]}
+ * (offsets and size are written as 5-byte values).
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class BlockOutput extends OutputStream {
+  /** Buffer with uncompressed bytes. */
+  private final byte[] buffer = new byte[IO.HEAPBLOCKSIZE];
+  /** Buffer with compressed bytes. */
+  private final byte[] compressed = new byte[IO.HEAPBLOCKSIZE + (IO.HEAPBLOCKSIZE >>> 4) + 64];
+  /** Compressor. */
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  /** File offsets of the compressed blocks. */
+  private final LongList offsets = new LongList();
+
+  /** The underlying output stream. */
+  private final OutputStream os;
+  /** Meta data. */
+  private final MetaData meta;
+  /** Current filename. */
+  private final String file;
+
+  /** Position inside buffer. */
+  private int pos;
+  /** Number of written compressed bytes. */
+  private long size;
+  /** Number of written uncompressed bytes. */
+  private long length;
+
+  /**
+   * Initializes the output.
+   * The database suffix will be added to all filenames.
+   * @param md meta data
+   * @param fn the file to be written to
+   * @param bufs size of the buffer to use
+   * @throws IOException I/O exception
+   */
+  public BlockOutput(final MetaData md, final String fn, final int bufs) throws IOException {
+    os = new BufferOutput(new FileOutputStream(md.dbfile(fn).file()), bufs);
+    meta = md;
+    file = fn;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    if(pos == IO.HEAPBLOCKSIZE) compress();
+    buffer[pos++] = (byte) b;
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    int o = off;
+    final int e = off + len;
+    while(o < e) {
+      if(pos == IO.HEAPBLOCKSIZE) compress();
+      final int l = Math.min(e - o, IO.HEAPBLOCKSIZE - pos);
+      System.arraycopy(b, o, buffer, pos, l);
+      pos += l;
+      o += l;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    // pad last block with zero bytes
+    while((pos & IO.BLOCKSIZE - 1) != 0) buffer[pos++] = 0;
+    compress();
+    os.close();
+    deflater.end();
+
+    try(DataOutput out = new DataOutput(meta.dbfile('b' + file))) {
+      out.writeNum(offsets.size());
+      for(final long offset : offsets.finish()) out.write5(offset);
+      out.write5(size);
+      out.write5(length);
+    }
+  }
+
+  /**
+   * Compresses and writes the current block.
+   * @throws IOException I/O exception
+   */
+  private void compress() throws IOException {
+    if(pos == 0) return;
+    deflater.reset();
+    deflater.setInput(buffer, 0, pos);
+    deflater.finish();
+    offsets.add(size);
+    while(!deflater.finished()) {
+      final int l = deflater.deflate(compressed);
+      os.write(compressed, 0, l);
+      size += l;
+    }
+    length += pos;
+    pos = 0;
+  }
+}
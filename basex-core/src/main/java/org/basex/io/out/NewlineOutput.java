@@ -34,6 +34,20 @@ public final class NewlineOutput extends PrintOutput {
     }
   }
 
+  @Override
+  public void print(final byte[] token, final int start, final int end) throws IOException {
+    // pass on runs of characters without newlines
+    int s = start;
+    for(int t = start; t < end; t++) {
+      if(token[t] == '\n') {
+        if(s < t) po.print(token, s, t);
+        po.print(newline);
+        s = t + 1;
+      }
+    }
+    if(s < end) po.print(token, s, end);
+  }
+
   @Override
   public boolean finished() {
     return po.finished();
@@ -66,6 +66,13 @@ public class PrintOutput extends OutputStream {
     if(size++ < max) os.write(b);
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    final long s = size, l = Math.min(len, max - s);
+    if(l > 0) os.write(b, off, (int) l);
+    size = s + len;
+  }
+
   /**
    * Prints a single codepoint.
    * @param cp codepoint to be printed
@@ -95,8 +102,30 @@ public class PrintOutput extends OutputStream {
    * @throws IOException I/O exception
    */
   public void print(final byte[] token) throws IOException {
-    final int tl = token.length;
-    for(int t = 0; t < tl; t += cl(token, t)) print(cp(token, t));
+    print(token, 0, token.length);
+  }
+
+  /**
+   * Prints the specified range of a token to the output stream.
+   * Runs of ASCII characters are written in a single call.
+   * @param token token to be written
+   * @param start start position
+   * @param end end position
+   * @throws IOException I/O exception
+   */
+  public void print(final byte[] token, final int start, final int end) throws IOException {
+    int s = start;
+    for(int t = start; t < end;) {
+      if(token[t] >= 0) {
+        t++;
+      } else {
+        if(s < t) write(token, s, t - s);
+        print(cp(token, t));
+        t += cl(token, t);
+        s = t;
+      }
+    }
+    if(s < end) write(token, s, end - s);
   }
 
   /**
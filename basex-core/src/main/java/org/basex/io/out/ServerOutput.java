@@ -31,6 +31,22 @@ public final class ServerOutput extends OutputStream {
     os.write(b);
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    // write runs of bytes that need not be escaped in a single call
+    final int e = off + len;
+    int s = off;
+    for(int o = off; o < e; o++) {
+      final byte c = b[o];
+      if(c == 0x00 || c == (byte) 0xFF) {
+        if(s < o) os.write(b, s, o - s);
+        os.write(0xFF);
+        s = o;
+      }
+    }
+    if(s < e) os.write(b, s, e - s);
+  }
+
   @Override
   public void flush() throws IOException {
     os.flush();
@@ -0,0 +1,95 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.io.out.*;
+
+/**
+ * This class provides access to the compressed blocks of a heap file
+ * (see {@link BlockOutput}). Recently decompressed blocks are cached.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class Blocks {
+  /** Number of cached blocks (must be 1 << n). */
+  private static final int CACHE = 1 << 3;
+
+  /** File offsets of the compressed blocks, followed by the end offset. */
+  private final long[] offsets;
+  /** Uncompressed size of all blocks. */
+  final long size;
+
+  /** Cached blocks. */
+  private final byte[][] cache = new byte[CACHE][];
+  /** Indexes of the cached blocks. */
+  private final int[] cached = new int[CACHE];
+  /** Decompressor. */
+  private final Inflater inflater = new Inflater();
+
+  /**
+   * Constructor.
+   * @param file file with the block offsets
+   * @throws IOException I/O exception
+   */
+  Blocks(final IOFile file) throws IOException {
+    try(DataAccess da = new DataAccess(file)) {
+      final int bl = da.readNum();
+      offsets = new long[bl + 1];
+      for(int b = 0; b <= bl; b++) offsets[b] = da.read5();
+      size = da.read5();
+    }
+    Arrays.fill(cached, -1);
+  }
+
+  /**
+   * Returns the file offset of the first byte after the compressed blocks.
+   * @return offset
+   */
+  long end() {
+    return offsets[offsets.length - 1];
+  }
+
+  /**
+   * Copies a page of uncompressed bytes into the specified array.
+   * @param pos position of the page (multiple of {@link IO#BLOCKSIZE})
+   * @param data target array
+   * @param raf heap file
+   * @throws IOException I/O exception
+   */
+  synchronized void read(final long pos, final byte[] data, final RandomAccessFile raf)
+      throws IOException {
+
+    final int b = (int) (pos / IO.HEAPBLOCKSIZE), c = b & CACHE - 1;
+    if(cached[c] != b) {
+      final byte[] input = new byte[(int) (offsets[b + 1] - offsets[b])];
+      raf.seek(offsets[b]);
+      raf.readFully(input);
+
+      if(cache[c] == null) cache[c] = new byte[IO.HEAPBLOCKSIZE];
+      final byte[] block = cache[c];
+      cached[c] = -1;
+      inflater.reset();
+      inflater.setInput(input);
+      try {
+        for(int l = 0; l < block.length && !inflater.finished();) {
+          l += inflater.inflate(block, l, block.length - l);
+        }
+      } catch(final DataFormatException ex) {
+        throw new IOException(ex);
+      }
+      cached[c] = b;
+    }
+    System.arraycopy(cache[c], (int) (pos % IO.HEAPBLOCKSIZE), data, 0, IO.BLOCKSIZE);
+  }
+
+  /**
+   * Releases the decompressor.
+   */
+  synchronized void close() {
+    inflater.end();
+  }
+}
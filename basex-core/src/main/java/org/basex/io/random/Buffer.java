@@ -15,4 +15,10 @@ final class Buffer {
   long pos = -1;
   /** Dirty flag. */
   boolean dirty;
+  /** Indicates if the buffer has been committed to the log, but not written yet. */
+  boolean pending;
+  /** Reference flag (used by the clock algorithm). */
+  boolean used;
+  /** Next buffer with the same hash value (see {@link Buffers.Stripe}). */
+  Buffer next;
 }
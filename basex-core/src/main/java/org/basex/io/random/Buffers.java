@@ -1,24 +1,55 @@
 package org.basex.io.random;
 
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
 /**
- * This class provides a simple, clock-based buffer management.
+ * This class provides a lock-striped, clock-based buffer management.
+ * Blocks are distributed to a fixed number of stripes. Each stripe manages its own buffers and
+ * can be used as monitor, so that concurrent lookups of blocks in different stripes will not
+ * block each other. Stripes grow on demand until the buffer limit is reached
+ * (see {@link Prop#bufferlimit}).
+ *
+ * The buffers are no shared cache: each manager only recycles its own buffers. The limit is
+ * split statically: buffers are assigned to the first files that request them, they are not
+ * rebalanced or evicted across files, and they are only returned when a file is closed.
+ * Files that are opened later may be left with a single buffer per stripe, even if the
+ * buffers of other files are no longer accessed.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
 final class Buffers {
-  /** Number of buffers (must be 1 << n). */
-  private static final int BUFFERS = 1 << 4;
-  /** Buffers. */
-  private final Buffer[] buf = new Buffer[BUFFERS];
-  /** Current buffer offset. */
-  private int off;
+  /** Number of stripes (must be 1 << n). */
+  private static final int STRIPES = 1 << 4;
+  /** Maximum number of buffers per stripe. */
+  private static final int MAXBUFFERS = 1 << 8;
+  /** Number of buffers that have been allocated by all buffer managers. */
+  private static final AtomicLong ALLOCATED = new AtomicLong();
+
+  /** Stripes. */
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  /** Closed flag. */
+  private boolean closed;
 
   /**
    * Constructor.
    */
   Buffers() {
-    for(int b = 0; b < BUFFERS; ++b) buf[b] = new Buffer();
+    for(int s = 0; s < STRIPES; ++s) stripes[s] = new Stripe();
+    ALLOCATED.addAndGet(STRIPES);
+  }
+
+  /**
+   * Returns the stripe responsible for the specified block.
+   * @param pos disk offset, or block position
+   * @return stripe
+   */
+  Stripe stripe(final long pos) {
+    return stripes[(int) (pos ^ pos >>> 12) & STRIPES - 1];
   }
 
   /**
@@ -26,28 +57,143 @@ final class Buffers {
    * @return buffers
    */
   Buffer[] all() {
-    return buf;
+    final ArrayList<Buffer> list = new ArrayList<>();
+    for(final Stripe stripe : stripes) {
+      synchronized(stripe) {
+        for(int b = 0; b < stripe.size; b++) list.add(stripe.buffers[b]);
+      }
+    }
+    return list.toArray(new Buffer[list.size()]);
   }
 
   /**
-   * Returns the current buffer.
-   * @return current buffer
+   * Returns the buffers of this manager to the buffer limit.
    */
-  Buffer current() {
-    return buf[off];
+  void close() {
+    if(closed) return;
+    closed = true;
+    int size = 0;
+    for(final Stripe stripe : stripes) {
+      synchronized(stripe) {
+        size += stripe.size;
+      }
+    }
+    ALLOCATED.addAndGet(-size);
   }
 
   /**
-   * Chooses a buffer and sets the offset.
-   * @param p buffer pointer
-   * @return true if cursor has changed
+   * Tries to reserve space for another buffer.
+   * @return success flag
    */
-  boolean cursor(final long p) {
-    final int o = off;
-    do {
-      if(buf[off].pos == p) return false;
-    } while((off = off + 1 & BUFFERS - 1) != o);
-    off = o + 1 & BUFFERS - 1;
-    return true;
+  private static boolean reserve() {
+    final long max = Math.max(0, (long) Prop.bufferlimit << 20) / IO.BLOCKSIZE;
+    while(true) {
+      final long alloc = ALLOCATED.get();
+      if(alloc >= max) return false;
+      if(ALLOCATED.compareAndSet(alloc, alloc + 1)) return true;
+    }
+  }
+
+  /**
+   * A single stripe. If buffers are accessed concurrently, callers must synchronize on the stripe.
+   */
+  static final class Stripe {
+    /** Buffers. */
+    private Buffer[] buffers = { new Buffer() };
+    /** Hash buckets (buffers with the same hash value are chained). */
+    private Buffer[] buckets = new Buffer[1];
+    /** Number of buffers. */
+    private int size = 1;
+    /** Clock hand. */
+    private int hand;
+
+    /**
+     * Returns the buffer for the specified block.
+     * @param pos disk offset, or block position
+     * @return buffer or {@code null}
+     */
+    Buffer get(final long pos) {
+      for(Buffer buffer = buckets[bucket(pos)]; buffer != null; buffer = buffer.next) {
+        if(buffer.pos == pos) {
+          buffer.used = true;
+          return buffer;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Returns a buffer that can be assigned to a new block.
+     * A new buffer will be created if the buffer limit permits.
+     * Otherwise, an existing buffer is chosen via the clock algorithm.
+     * @return buffer (the caller is responsible for writing back dirty data, and for
+     *   assigning the new block via {@link #assign})
+     */
+    Buffer free() {
+      if(size < MAXBUFFERS && reserve()) {
+        if(size == buffers.length) buffers = Arrays.copyOf(buffers, size << 1);
+        final Buffer buffer = new Buffer();
+        buffers[size++] = buffer;
+        if(size > buckets.length) rehash(buckets.length << 1);
+        buffer.used = true;
+        return buffer;
+      }
+      while(true) {
+        final Buffer buffer = buffers[hand];
+        hand = (hand + 1) % size;
+        if(!buffer.used) {
+          buffer.used = true;
+          return buffer;
+        }
+        buffer.used = false;
+      }
+    }
+
+    /**
+     * Assigns a new block to the specified buffer.
+     * @param buffer buffer
+     * @param pos disk offset, or block position
+     */
+    void assign(final Buffer buffer, final long pos) {
+      if(buffer.pos != -1) {
+        final int b = bucket(buffer.pos);
+        if(buckets[b] == buffer) {
+          buckets[b] = buffer.next;
+        } else {
+          Buffer prev = buckets[b];
+          while(prev.next != buffer) prev = prev.next;
+          prev.next = buffer.next;
+        }
+      }
+      buffer.pos = pos;
+      final int b = bucket(pos);
+      buffer.next = buckets[b];
+      buckets[b] = buffer;
+    }
+
+    /**
+     * Resizes the hash table.
+     * @param capacity new number of buckets (power of two)
+     */
+    private void rehash(final int capacity) {
+      buckets = new Buffer[capacity];
+      for(int b = 0; b < size; b++) {
+        final Buffer buffer = buffers[b];
+        if(buffer.pos == -1) continue;
+        final int i = bucket(buffer.pos);
+        buffer.next = buckets[i];
+        buckets[i] = buffer;
+      }
+    }
+
+    /**
+     * Returns the hash bucket for the specified block.
+     * @param pos disk offset, or block position
+     * @return bucket index
+     */
+    private int bucket(final long pos) {
+      // disk offsets are multiples of the block size, and the lower bits select the stripe
+      return (int) (pos * 0x9E3779B97F4A7C15L >>> 40) & buckets.length - 1;
+    }
   }
 }
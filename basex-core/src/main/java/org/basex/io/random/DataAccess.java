@@ -3,6 +3,7 @@ package org.basex.io.random;
 import java.io.*;
 
 import org.basex.io.*;
+import org.basex.io.out.*;
 import org.basex.util.*;
 
 /**
@@ -14,6 +15,8 @@ import org.basex.util.*;
 public final class DataAccess implements Closeable {
   /** Buffer manager. */
   private final Buffers bm = new Buffers();
+  /** Current buffer. */
+  private Buffer current;
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
   /** File length. */
@@ -22,6 +25,12 @@ public final class DataAccess implements Closeable {
   private boolean changed;
   /** Offset. */
   private int off;
+  /** Memory mapping (used for reading; can be {@code null}). */
+  private Mapping mapping;
+  /** File position (used if the file is memory-mapped). */
+  private long mpos;
+  /** Compressed blocks at the beginning of the file (can be {@code null}). */
+  private final Blocks blocks;
 
   /**
    * Constructor, initializing the file reader.
@@ -29,11 +38,48 @@ public final class DataAccess implements Closeable {
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile file) throws IOException {
+    this(file, false);
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param mapped read file contents via memory mapping
+   * (the mapping will be discarded as soon as data is written)
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final boolean mapped) throws IOException {
+    this(file, mapped, null);
+  }
+
+  /**
+   * Constructor for a heap file that starts with compressed blocks (see {@link BlockOutput}).
+   * Positions refer to the uncompressed bytes. Compressed bytes are never overwritten:
+   * new entries are appended to the uncompressed end of the file.
+   * @param file the file to be read
+   * @param index file with the offsets of the compressed blocks
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final IOFile index) throws IOException {
+    this(file, false, new Blocks(index));
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param mapped read file contents via memory mapping
+   * @param blocks compressed blocks (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  private DataAccess(final IOFile file, final boolean mapped, final Blocks blocks)
+      throws IOException {
+    this.blocks = blocks;
     RandomAccessFile f = null;
     try {
       f = new RandomAccessFile(file.file(), "rw");
-      length = f.length();
+      length = blocks != null ? f.length() - blocks.end() + blocks.size : f.length();
       raf = f;
+      if(mapped && length > 0) mapping = new Mapping(f.getChannel(), length);
       cursor(0);
     } catch(final IOException ex) {
       if(f != null) f.close();
@@ -48,7 +94,7 @@ public final class DataAccess implements Closeable {
     try {
       for(final Buffer b : bm.all()) if(b.dirty) writeBlock(b);
       if(changed) {
-        raf.setLength(length);
+        raf.setLength(offset(length));
         changed = false;
       }
     } catch(final IOException ex) {
@@ -59,6 +105,12 @@ public final class DataAccess implements Closeable {
   @Override
   public synchronized void close() {
     flush();
+    if(mapping != null) {
+      mapping.close();
+      mapping = null;
+    }
+    bm.close();
+    if(blocks != null) blocks.close();
     try {
       raf.close();
     } catch(final IOException ex) {
@@ -71,7 +123,7 @@ public final class DataAccess implements Closeable {
    * @return position in the file
    */
   public long cursor() {
-    return buffer(false).pos + off;
+    return mapping != null ? mpos : buffer(false).pos + off;
   }
 
   /**
@@ -190,6 +242,13 @@ public final class DataAccess implements Closeable {
    * @return byte array
    */
   public synchronized byte[] readBytes(final int len) {
+    if(mapping != null) {
+      final byte[] b = new byte[len];
+      mapping.get(mpos, b, 0, len);
+      mpos += len;
+      return b;
+    }
+
     int l = len;
     int ll = IO.BLOCKSIZE - off;
     final byte[] b = new byte[l];
@@ -213,20 +272,35 @@ public final class DataAccess implements Closeable {
    * @param pos read position
    */
   public void cursor(final long pos) {
+    if(mapping != null) {
+      mpos = pos;
+      return;
+    }
+
     off = (int) (pos & IO.BLOCKSIZE - 1);
     final long b = pos - off;
-    if(!bm.cursor(b)) return;
-
-    final Buffer bf = bm.current();
-    try {
-      if(bf.dirty) writeBlock(bf);
-      bf.pos = b;
-      raf.seek(bf.pos);
-      if(bf.pos < raf.length())
-        raf.readFully(bf.data, 0, (int) Math.min(length - bf.pos, IO.BLOCKSIZE));
-    } catch(final IOException ex) {
-      Util.stack(ex);
+    if(current != null && current.pos == b) return;
+
+    final Buffers.Stripe stripe = bm.stripe(b);
+    Buffer bf = stripe.get(b);
+    if(bf == null) {
+      bf = stripe.free();
+      try {
+        if(bf.dirty) writeBlock(bf);
+        stripe.assign(bf, b);
+        if(blocks != null && b < blocks.size) {
+          blocks.read(b, bf.data, raf);
+        } else {
+          final long o = offset(b);
+          raf.seek(o);
+          if(o < raf.length())
+            raf.readFully(bf.data, 0, (int) Math.min(length - bf.pos, IO.BLOCKSIZE));
+        }
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
     }
+    current = bf;
   }
 
   /**
@@ -306,6 +380,7 @@ public final class DataAccess implements Closeable {
    * @param len token length
    */
   public void writeBytes(final byte[] buffer, final int offset, final int len) {
+    unmap();
     final int last = offset + len;
     int o = offset;
 
@@ -340,6 +415,9 @@ public final class DataAccess implements Closeable {
    * @return new offset to store text
    */
   public long free(final long pos, final int size) {
+    // compressed entry: place new entry after last entry
+    if(blocks != null && pos < blocks.size) return length;
+
     // old text size (available space)
     int os = readNum(pos) + (int) (cursor() - pos);
 
@@ -375,6 +453,7 @@ public final class DataAccess implements Closeable {
    * @param len file length
    */
   private synchronized void length(final long len) {
+    unmap();
     if(len != length) {
       changed = true;
       length = len;
@@ -388,6 +467,7 @@ public final class DataAccess implements Closeable {
    * @return next byte
    */
   private int read() {
+    if(mapping != null) return mapping.get(mpos++) & 0xFF;
     final Buffer bf = buffer();
     return bf.data[off++] & 0xFF;
   }
@@ -397,6 +477,7 @@ public final class DataAccess implements Closeable {
    * @param value byte to be written
    */
   private void write(final int value) {
+    unmap();
     final Buffer bf = buffer();
     bf.dirty = true;
     bf.data[off++] = (byte) value;
@@ -415,6 +496,16 @@ public final class DataAccess implements Closeable {
     writeBytes(buffer, offset, len);
   }
 
+  /**
+   * Discards the memory mapping before data is written.
+   */
+  private void unmap() {
+    if(mapping == null) return;
+    mapping.close();
+    mapping = null;
+    cursor(mpos);
+  }
+
   /**
    * Writes the specified block to disk.
    * @param buffer buffer to write
@@ -422,11 +513,20 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
+    raf.seek(offset(pos));
     raf.write(buffer.data, 0, (int) len);
     buffer.dirty = false;
   }
 
+  /**
+   * Returns the file offset of the specified position.
+   * @param pos position (refers to uncompressed bytes)
+   * @return file offset
+   */
+  private long offset(final long pos) {
+    return blocks != null ? pos - blocks.size + blocks.end() : pos;
+  }
+
   /**
    * Returns a buffer which can be used for writing new bytes.
    * @return buffer
@@ -441,7 +541,7 @@ public final class DataAccess implements Closeable {
    * @return buffer
    */
   private Buffer buffer(final boolean next) {
-    if(next) cursor(bm.current().pos + IO.BLOCKSIZE);
-    return bm.current();
+    if(next) cursor(current.pos + IO.BLOCKSIZE);
+    return current;
   }
 }
@@ -0,0 +1,335 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Write-ahead log of a database table. Committed updates are appended to the log as
+ * images of the modified table pages and of the modified pages of small database files.
+ * They are written to their original positions at checkpoints, and replayed if a database
+ * is opened after a crash.
+ *
+ * If a page with uncommitted changes is evicted from the buffer cache, its previous
+ * contents are logged before the page is overwritten. The images of uncommitted
+ * transactions are restored in reverse order before the committed images are replayed.
+ *
+ * Heaps and index structures are not logged. Before a commit is forced to disk, all other
+ * database files are forced to disk as well, and the updating file is deleted afterwards.
+ * If the updating file exists when the log is recovered, the last update was incomplete,
+ * and the index structures may contain changes that have not been committed.
+ *
+ * The log consists of the following records:
+ * <ul>
+ *   <li>{@link #PAGE}, {@link #UNDO}: {@code [type] [page (4 bytes)] [contents]}</li>
+ *   <li>{@link #FILE}: {@code [type] [name] [file size (4 bytes)] [page (4 bytes)] [contents]}
+ *   (name with 4-byte length)</li>
+ *   <li>{@link #COMMIT}: {@code [type] [number of preceding records (4 bytes)]}</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class Journal {
+  /** Record: committed page. */
+  private static final int PAGE = 1;
+  /** Record: previous contents of a page. */
+  private static final int UNDO = 2;
+  /** Record: committed page of a file. */
+  private static final int FILE = 3;
+  /** Record: commit. */
+  private static final int COMMIT = 4;
+
+  /** Meta data. */
+  private final MetaData meta;
+  /** Log file. */
+  private final IOFile file;
+  /** File stream. */
+  private final FileOutputStream fos;
+  /** Output. */
+  private final DataOutput out;
+  /** Pages whose previous contents have been logged in the current transaction. */
+  private IntSet undone = new IntSet();
+  /** Size of the log at the time it was opened. */
+  private final long offset;
+  /** Number of records of the current transaction. */
+  private int records;
+  /** Last logged contents of files. */
+  private final TokenObjMap<byte[]> images = new TokenObjMap<>();
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  Journal(final MetaData meta) throws IOException {
+    this.meta = meta;
+    file = meta.dbfile(DATALOG);
+    offset = file.length();
+    fos = new FileOutputStream(file.file(), true);
+    out = new DataOutput(new BufferOutput(fos, IO.BLOCKSIZE << 4));
+  }
+
+  /**
+   * Logs the contents of a committed page.
+   * @param page page
+   * @param data contents
+   * @throws IOException I/O exception
+   */
+  synchronized void page(final long page, final byte[] data) throws IOException {
+    out.write1(PAGE);
+    out.write4((int) page);
+    out.write(data);
+    records++;
+  }
+
+  /**
+   * Logs the contents of a committed file. If the file has already been logged, only those pages
+   * are logged that differ from the last logged contents. If the file size has changed,
+   * the last page is logged as well.
+   * @param name name of the file
+   * @param data contents
+   * @throws IOException I/O exception
+   */
+  synchronized void file(final byte[] name, final byte[] data) throws IOException {
+    final byte[] old = images.get(name);
+    final int dl = data.length, ol = old != null ? old.length : -1;
+    final int pages = Math.max(1, (dl + IO.BLOCKSIZE - 1) / IO.BLOCKSIZE);
+    for(int p = 0; p < pages; p++) {
+      final int s = p * IO.BLOCKSIZE, e = Math.min(s + IO.BLOCKSIZE, dl);
+      if(e > ol || p == pages - 1 && dl != ol || !equal(data, old, s, e)) {
+        out.write1(FILE);
+        out.write4(name.length);
+        out.write(name);
+        out.write4(dl);
+        out.write4(p);
+        out.write(Arrays.copyOfRange(data, s, e));
+        records++;
+      }
+    }
+    images.put(name, data);
+  }
+
+  /**
+   * Logs the current contents of a page before it is overwritten by uncommitted changes.
+   * The log is forced to disk before this function returns.
+   * @param page page
+   * @param table table file
+   * @throws IOException I/O exception
+   */
+  synchronized void undo(final long page, final RandomAccessFile table) throws IOException {
+    final long pos = page * IO.BLOCKSIZE;
+    if(!undone.add((int) page) || pos >= table.length()) return;
+
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    table.seek(pos);
+    table.readFully(data);
+    out.write1(UNDO);
+    out.write4((int) page);
+    out.write(data);
+    records++;
+    sync(true);
+  }
+
+  /**
+   * Commits the current transaction. If the log is forced to disk, all other database files
+   * are forced to disk before, and the updating file is deleted afterwards.
+   * @param force force log to disk
+   * @throws IOException I/O exception
+   */
+  synchronized void commit(final boolean force) throws IOException {
+    if(force) syncFiles();
+    out.write1(COMMIT);
+    out.write4(records);
+    sync(force);
+    records = 0;
+    undone = new IntSet();
+    if(force) deleteUpdateFile(meta);
+  }
+
+  /**
+   * Returns the size of the log.
+   * @return size in bytes
+   */
+  synchronized long size() {
+    return offset + out.size();
+  }
+
+  /**
+   * Closes and deletes the log. All other database files are forced to disk before,
+   * and the updating file is deleted.
+   * @throws IOException I/O exception
+   */
+  synchronized void delete() throws IOException {
+    syncFiles();
+    out.close();
+    deleteUpdateFile(meta);
+    if(!file.delete()) throw Util.notExpected("Log file could not be deleted: %", file);
+  }
+
+  /**
+   * Forces all database files except for the log to disk.
+   * @throws IOException I/O exception
+   */
+  private void syncFiles() throws IOException {
+    for(final IOFile f : meta.path.children()) {
+      if(!f.isDir() && !f.eq(file)) sync(f);
+    }
+  }
+
+  /**
+   * Flushes the output.
+   * @param force force log to disk
+   * @throws IOException I/O exception
+   */
+  private void sync(final boolean force) throws IOException {
+    out.flush();
+    if(force) fos.getFD().sync();
+  }
+
+  /**
+   * Recovers the table and files of a database from the log (if it exists).
+   * The log and the updating file are deleted afterwards.
+   * @param meta meta data
+   * @return {@code true} if uncommitted changes were discarded, or if the last update
+   *   was incomplete
+   * @throws IOException I/O exception
+   */
+  static boolean recover(final MetaData meta) throws IOException {
+    final IOFile log = meta.dbfile(DATALOG);
+    if(!log.exists()) return false;
+    final boolean incomplete = meta.updateFile().exists();
+
+    // parse records, stop at first incomplete record
+    final byte[] data = log.read();
+    final int dl = data.length;
+    final IntList types = new IntList(), starts = new IntList();
+    int committed = 0, pos = 0;
+    while(pos < dl) {
+      final int type = data[pos], start = pos + 1;
+      int end = -1;
+      if(type == PAGE || type == UNDO) {
+        end = start + 4 + IO.BLOCKSIZE;
+      } else if(type == FILE && start + 4 <= dl) {
+        final int nl = int4(data, start), s = start + 4 + nl;
+        if(nl >= 0 && s >= start && s + 8 <= dl) {
+          final long l = int4(data, s), p = (long) int4(data, s + 4) * IO.BLOCKSIZE;
+          if(p >= 0 && p <= l) end = s + 8 + (int) Math.min(IO.BLOCKSIZE, l - p);
+        }
+      } else if(type == COMMIT) {
+        end = start + 4;
+      }
+      if(end < start || end > dl) break;
+      if(type == COMMIT && int4(data, start) != types.size() - committed) break;
+
+      types.add(type);
+      starts.add(start);
+      if(type == COMMIT) committed = types.size();
+      pos = end;
+    }
+
+    try(RandomAccessFile table = new RandomAccessFile(meta.dbfile(DATATBL).file(), "rw")) {
+      // restore previous contents of pages with uncommitted changes
+      final int ts = types.size();
+      for(int r = ts - 1; r >= committed; r--) {
+        if(types.get(r) == UNDO) write(table, data, starts.get(r));
+      }
+      // replay committed pages and files
+      final TokenObjMap<byte[]> files = new TokenObjMap<>();
+      for(int r = 0; r < committed; r++) {
+        final int type = types.get(r), start = starts.get(r);
+        if(type == PAGE) {
+          write(table, data, start);
+        } else if(type == FILE) {
+          final int nl = int4(data, start), s = start + 4 + nl;
+          final byte[] name = Arrays.copyOfRange(data, start + 4, s);
+          byte[] file = files.contains(name) ? files.get(name) : EMPTY;
+          final int l = int4(data, s), p = int4(data, s + 4) * IO.BLOCKSIZE;
+          if(file.length != l) file = Arrays.copyOf(file, l);
+          System.arraycopy(data, s + 8, file, p, Math.min(IO.BLOCKSIZE, l - p));
+          files.put(name, file);
+        }
+      }
+      for(final byte[] name : files) {
+        final IOFile f = meta.dbfile(string(name));
+        f.write(files.get(name));
+        sync(f);
+      }
+      table.getFD().sync();
+    }
+    deleteUpdateFile(meta);
+    if(!log.delete()) throw Util.notExpected("Log file could not be deleted: %", log);
+    return incomplete || committed < types.size();
+  }
+
+  /**
+   * Deletes the updating file of a database.
+   * @param meta meta data
+   */
+  private static void deleteUpdateFile(final MetaData meta) {
+    final IOFile upd = meta.updateFile();
+    if(upd.exists() && !upd.delete())
+      throw Util.notExpected("%: could not delete lock file.", meta.name);
+  }
+
+  /**
+   * Forces a file to disk.
+   * @param file file
+   * @throws IOException I/O exception
+   */
+  private static void sync(final IOFile file) throws IOException {
+    try(RandomAccessFile raf = new RandomAccessFile(file.file(), "rw")) {
+      raf.getFD().sync();
+    }
+  }
+
+  /**
+   * Compares a range of two arrays.
+   * @param data1 first array
+   * @param data2 second array (must have at least the specified length)
+   * @param start start position
+   * @param end end position
+   * @return result of check
+   */
+  private static boolean equal(final byte[] data1, final byte[] data2, final int start,
+      final int end) {
+    for(int i = start; i < end; i++) {
+      if(data1[i] != data2[i]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Writes a logged page to the table.
+   * @param table table file
+   * @param data log contents
+   * @param start start of the record
+   * @throws IOException I/O exception
+   */
+  private static void write(final RandomAccessFile table, final byte[] data, final int start)
+      throws IOException {
+    table.seek((long) int4(data, start) * IO.BLOCKSIZE);
+    table.write(data, start + 4, IO.BLOCKSIZE);
+  }
+
+  /**
+   * Returns a 4-byte integer.
+   * @param data data
+   * @param pos position
+   * @return integer
+   */
+  private static int int4(final byte[] data, final int pos) {
+    return ((data[pos] & 0xFF) << 24) + ((data[pos + 1] & 0xFF) << 16) +
+      ((data[pos + 2] & 0xFF) << 8) + (data[pos + 3] & 0xFF);
+  }
+}
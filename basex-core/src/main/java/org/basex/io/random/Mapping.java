@@ -0,0 +1,184 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.*;
+
+import org.basex.util.*;
+
+/**
+ * Read-only memory mapping of a file. Files larger than 1 GB are mapped in several segments.
+ * The absolute access methods can be called concurrently.
+ *
+ * Mapped segments are explicitly released when the mapping is closed. Otherwise, they would
+ * be kept until they are garbage-collected, and on Windows, the file could neither be
+ * deleted nor truncated. Accessing a released segment crashes the JVM: if the mapping may be
+ * closed by another thread, readers must {@link #pin()} it before accessing it, and the
+ * segments will only be released when the last reader has unpinned the mapping.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class Mapping {
+  /** Segment size power (must be a multiple of the block size). */
+  private static final int POWER = 30;
+  /** Segment size. */
+  private static final int SEGMENT = 1 << POWER;
+
+  /** Unsafe instance (Java 9 and later, {@code null} if not available). */
+  private static final Object UNSAFE;
+  /** Method for releasing a mapped buffer via the unsafe instance. */
+  private static final Method CLEANER;
+
+  static {
+    final Class<?> clazz = Reflect.find("sun.misc.Unsafe");
+    final Method cleaner = Reflect.method(clazz, "invokeCleaner", ByteBuffer.class);
+    Object unsafe = null;
+    if(cleaner != null) {
+      try {
+        final Field field = clazz.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        unsafe = field.get(null);
+      } catch(final Exception ex) {
+        Util.debug(ex);
+      }
+    }
+    UNSAFE = unsafe;
+    CLEANER = unsafe != null ? cleaner : null;
+  }
+
+  /** Mapped segments. */
+  private final MappedByteBuffer[] segments;
+  /** Number of readers (sign bit set: mapping has been closed). */
+  private final AtomicInteger readers = new AtomicInteger();
+
+  /**
+   * Constructor.
+   * @param channel file channel
+   * @param length number of bytes to be mapped
+   * @throws IOException I/O exception
+   */
+  Mapping(final FileChannel channel, final long length) throws IOException {
+    final int sl = (int) ((length + SEGMENT - 1) >>> POWER);
+    segments = new MappedByteBuffer[sl];
+    for(int s = 0; s < sl; s++) {
+      final long start = (long) s << POWER;
+      segments[s] = channel.map(MapMode.READ_ONLY, start, Math.min(SEGMENT, length - start));
+    }
+  }
+
+  /**
+   * Returns a byte.
+   * @param pos position
+   * @return byte
+   */
+  byte get(final long pos) {
+    return segments[(int) (pos >>> POWER)].get((int) (pos & SEGMENT - 1));
+  }
+
+  /**
+   * Returns a short value. The value must not cross segment boundaries.
+   * @param pos position
+   * @return short value
+   */
+  short getShort(final long pos) {
+    return segments[(int) (pos >>> POWER)].getShort((int) (pos & SEGMENT - 1));
+  }
+
+  /**
+   * Returns an integer value. The value must not cross segment boundaries.
+   * @param pos position
+   * @return integer value
+   */
+  int getInt(final long pos) {
+    return segments[(int) (pos >>> POWER)].getInt((int) (pos & SEGMENT - 1));
+  }
+
+  /**
+   * Copies bytes to the specified array.
+   * @param pos position
+   * @param bytes target array
+   * @param off array offset
+   * @param len number of bytes to copy
+   */
+  void get(final long pos, final byte[] bytes, final int off, final int len) {
+    long p = pos;
+    int o = off, l = len;
+    while(l > 0) {
+      final ByteBuffer bb = segments[(int) (p >>> POWER)].duplicate();
+      final int sp = (int) (p & SEGMENT - 1), n = Math.min(l, SEGMENT - sp);
+      bb.position(sp);
+      bb.get(bytes, o, n);
+      p += n;
+      o += n;
+      l -= n;
+    }
+  }
+
+  /**
+   * Registers a reader. If the call succeeds, the mapping can be accessed until
+   * {@link #unpin()} is called.
+   * @return {@code false} if the mapping has already been closed
+   */
+  boolean pin() {
+    while(true) {
+      final int r = readers.get();
+      if(r < 0) return false;
+      if(readers.compareAndSet(r, r + 1)) return true;
+    }
+  }
+
+  /**
+   * Unregisters a reader. Releases the mapped segments if the mapping has been closed
+   * and if this was the last reader.
+   */
+  void unpin() {
+    if(readers.decrementAndGet() == Integer.MIN_VALUE) release();
+  }
+
+  /**
+   * Closes the mapping. The mapped segments are released as soon as no reader is registered
+   * anymore. The mapping must not be pinned anymore after this call.
+   */
+  void close() {
+    while(true) {
+      final int r = readers.get();
+      if(r < 0) return;
+      if(readers.compareAndSet(r, r | Integer.MIN_VALUE)) {
+        if(r == 0) release();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Releases the mapped segments.
+   */
+  private void release() {
+    for(final MappedByteBuffer segment : segments) unmap(segment);
+  }
+
+  /**
+   * Releases a mapped buffer.
+   * @param buffer buffer
+   */
+  private static void unmap(final MappedByteBuffer buffer) {
+    try {
+      if(CLEANER != null) {
+        CLEANER.invoke(UNSAFE, buffer);
+      } else {
+        // Java 8: invoke cleaner of the buffer
+        final Method method = buffer.getClass().getMethod("cleaner");
+        method.setAccessible(true);
+        final Object cleaner = method.invoke(buffer);
+        if(cleaner != null) cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+    } catch(final Exception ex) {
+      // buffer will be released by the garbage collector
+      Util.debug(ex);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.basex.io.random;
 
 import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
 
 import java.io.*;
 import java.nio.channels.*;
@@ -10,19 +11,24 @@ import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * This class stores the table on disk and reads it page-wise.
  *
- * NOTE: this class is not thread-safe.
+ * NOTE: read operations can be performed concurrently. Updates are not thread-safe;
+ * they must not be performed in parallel with other read or write operations.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  * @author Tim Petrowsky
  */
 public final class TableDiskAccess extends TableAccess {
+  /** Size of the write-ahead log that triggers a checkpoint. */
+  private static final long CHECKPOINT = 1 << 26;
   /** Buffer manager. */
   private final Buffers bm = new Buffers();
   /** File storing all pages. */
@@ -31,6 +37,10 @@ public final class TableDiskAccess extends TableAccess {
   private BitArray usedPages;
   /** File lock. */
   private FileLock fl;
+  /** Memory mapping of the table file (used for reading; can be {@code null}). */
+  private volatile Mapping mapping;
+  /** Write-ahead log (only assigned if updates are logged). */
+  private Journal journal;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fpres;
@@ -41,6 +51,12 @@ public final class TableDiskAccess extends TableAccess {
   /** Number of used pages. */
   private int used;
 
+  /** Current buffer (used for updates). */
+  private Buffer current;
+  /** Page of the current buffer. */
+  private int currentPage = -1;
+  /** Index of the most recently accessed page (used by read operations). */
+  private int hint;
   /** Pointer to current page. */
   private int page = -1;
   /** Pre value of the first entry in the current page. */
@@ -84,6 +100,9 @@ public final class TableDiskAccess extends TableAccess {
     // initialize data file
     file = new RandomAccessFile(meta.dbfile(DATATBL).file(), "rw");
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, md.name);
+    // map table file (will be discarded as soon as the table is updated)
+    final long length = file.length();
+    if(md.mmap && length > 0) mapping = new Mapping(file.getChannel(), length);
   }
 
   /**
@@ -104,29 +123,92 @@ public final class TableDiskAccess extends TableAccess {
     }
   }
 
+  /**
+   * Recovers the table and meta data of a database from its write-ahead log.
+   * Must be called before the database files are opened.
+   * @param md meta data
+   * @return {@code true} if uncommitted changes were discarded, or if the last update
+   *   was incomplete
+   * @throws IOException I/O exception
+   */
+  public static boolean recover(final MetaData md) throws IOException {
+    return Journal.recover(md);
+  }
+
+  /**
+   * Activates the write-ahead log. If activated, updates will only be written
+   * to the table file by {@link #flush} and {@link #close}.
+   * @throws IOException I/O exception
+   */
+  public synchronized void journal() throws IOException {
+    if(journal == null) journal = new Journal(meta);
+  }
+
+  /**
+   * Checks if the write-ahead log is active.
+   * @return result of check
+   */
+  public boolean journaled() {
+    return journal != null;
+  }
+
+  /**
+   * Commits all changes to the write-ahead log.
+   * @param files names and contents of database files to be logged as well
+   * @param force force log to disk
+   * @return {@code true} if the log should be checkpointed (see {@link #flush})
+   * @throws IOException I/O exception
+   */
+  public synchronized boolean commit(final TokenMap files, final boolean force)
+      throws IOException {
+
+    for(final Buffer b : bm.all()) {
+      if(b.dirty) {
+        journal.page(b.pos, b.data);
+        b.dirty = false;
+        b.pending = true;
+      }
+    }
+    if(dirty) {
+      final ArrayOutput ao = new ArrayOutput();
+      try(DataOutput out = new DataOutput(ao)) {
+        writeIndex(out);
+      }
+      journal.file(token(DATATBL + 'i'), ao.finish());
+    }
+    for(final byte[] name : files) journal.file(name, files.get(name));
+    journal.commit(force);
+    return journal.size() > CHECKPOINT;
+  }
+
+  /**
+   * Writes all buffers to disk. If all data is flushed and the write-ahead log is active,
+   * all database files are forced to disk, and the log is deleted.
+   * @param all flush all data
+   * @throws IOException I/O exception
+   */
   @Override
   public synchronized void flush(final boolean all) throws IOException {
-    for(final Buffer b : bm.all()) if(b.dirty) write(b);
-    if(!dirty || !all) return;
-
-    try(DataOutput out = new DataOutput(meta.dbfile(DATATBL + 'i'))) {
-      final int sz = size;
-      out.writeNum(sz);
-      out.writeNum(used);
-      // due to legacy issues, number of pages is written several times
-      out.writeNum(sz);
-      for(int s = 0; s < sz; s++) out.writeNum(fpres[s]);
-      out.writeNum(sz);
-      for(int s = 0; s < sz; s++) out.writeNum(pages[s]);
-
-      out.writeLongs(usedPages.toArray());
+    for(final Buffer b : bm.all()) if(b.dirty || b.pending) write(b);
+    if(!all) return;
+
+    if(dirty) {
+      try(DataOutput out = new DataOutput(meta.dbfile(DATATBL + 'i'))) {
+        writeIndex(out);
+      }
+      dirty = false;
+    }
+    if(journal != null) {
+      journal.delete();
+      journal = null;
     }
-    dirty = false;
   }
 
   @Override
   public synchronized void close() throws IOException {
     flush(true);
+    unmap();
+    bm.close();
     file.close();
   }
 
@@ -145,39 +227,84 @@ public final class TableDiskAccess extends TableAccess {
   }
 
   @Override
-  public synchronized int read1(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return b[o] & 0xFF;
+  public int read1(final int pre, final int off) {
+    final int i = index(pre), p = page(i), o = off + (pre - fpre(i) << IO.NODEPOWER);
+    final Mapping mp = mapping;
+    if(mp != null && mp.pin()) {
+      try {
+        return mp.get((long) p * IO.BLOCKSIZE + o) & 0xFF;
+      } finally {
+        mp.unpin();
+      }
+    }
+    final Buffers.Stripe stripe = bm.stripe(p);
+    synchronized(stripe) {
+      final byte[] b = buffer(stripe, p).data;
+      return b[o] & 0xFF;
+    }
   }
 
   @Override
-  public synchronized int read2(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+  public int read2(final int pre, final int off) {
+    final int i = index(pre), p = page(i), o = off + (pre - fpre(i) << IO.NODEPOWER);
+    final Mapping mp = mapping;
+    if(mp != null && mp.pin()) {
+      try {
+        return mp.getShort((long) p * IO.BLOCKSIZE + o) & 0xFFFF;
+      } finally {
+        mp.unpin();
+      }
+    }
+    final Buffers.Stripe stripe = bm.stripe(p);
+    synchronized(stripe) {
+      final byte[] b = buffer(stripe, p).data;
+      return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+    }
   }
 
   @Override
-  public synchronized int read4(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
-      ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+  public int read4(final int pre, final int off) {
+    final int i = index(pre), p = page(i), o = off + (pre - fpre(i) << IO.NODEPOWER);
+    final Mapping mp = mapping;
+    if(mp != null && mp.pin()) {
+      try {
+        return mp.getInt((long) p * IO.BLOCKSIZE + o);
+      } finally {
+        mp.unpin();
+      }
+    }
+    final Buffers.Stripe stripe = bm.stripe(p);
+    synchronized(stripe) {
+      final byte[] b = buffer(stripe, p).data;
+      return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
+        ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+    }
   }
 
   @Override
-  public synchronized long read5(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
-      ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+  public long read5(final int pre, final int off) {
+    final int i = index(pre), p = page(i), o = off + (pre - fpre(i) << IO.NODEPOWER);
+    final Mapping mp = mapping;
+    if(mp != null && mp.pin()) {
+      try {
+        final long pos = (long) p * IO.BLOCKSIZE + o;
+        return (long) (mp.get(pos) & 0xFF) << 32 | mp.getInt(pos + 1) & 0xFFFFFFFFL;
+      } finally {
+        mp.unpin();
+      }
+    }
+    final Buffers.Stripe stripe = bm.stripe(p);
+    synchronized(stripe) {
+      final byte[] b = buffer(stripe, p).data;
+      return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
+        ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+    }
   }
 
   @Override
   public void write1(final int pre, final int off, final int v) {
     final int o = off + cursor(pre);
-    final Buffer bf = bm.current();
+    final Buffer bf = current;
     final byte[] b = bf.data;
     b[o] = (byte) v;
     bf.dirty = true;
@@ -186,7 +313,7 @@ public final class TableDiskAccess extends TableAccess {
   @Override
   public void write2(final int pre, final int off, final int v) {
     final int o = off + cursor(pre);
-    final Buffer bf = bm.current();
+    final Buffer bf = current;
     final byte[] b = bf.data;
     b[o] = (byte) (v >>> 8);
     b[o + 1] = (byte) v;
@@ -196,7 +323,7 @@ public final class TableDiskAccess extends TableAccess {
   @Override
   public void write4(final int pre, final int off, final int v) {
     final int o = off + cursor(pre);
-    final Buffer bf = bm.current();
+    final Buffer bf = current;
     final byte[] b = bf.data;
     b[o]     = (byte) (v >>> 24);
     b[o + 1] = (byte) (v >>> 16);
@@ -208,7 +335,7 @@ public final class TableDiskAccess extends TableAccess {
   @Override
   public void write5(final int pre, final int off, final long v) {
     final int o = off + cursor(pre);
-    final Buffer bf = bm.current();
+    final Buffer bf = current;
     final byte[] b = bf.data;
     b[o]     = (byte) (v >>> 32);
     b[o + 1] = (byte) (v >>> 24);
@@ -222,7 +349,7 @@ public final class TableDiskAccess extends TableAccess {
   protected void copy(final byte[] entries, final int pre, final int last) {
     for(int o = 0, i = pre; i < last; ++i, o += IO.NODESIZE) {
       final int off = cursor(i);
-      final Buffer bf = bm.current();
+      final Buffer bf = current;
       System.arraycopy(entries, o, bf.data, off, IO.NODESIZE);
       bf.dirty = true;
     }
@@ -242,7 +369,7 @@ public final class TableDiskAccess extends TableAccess {
 
     // check if all entries are in current page: handle and return
     if(last - 1 < nextPre) {
-      final Buffer bf = bm.current();
+      final Buffer bf = current;
       copy(bf.data, from + nr, bf.data, from, nextPre - last);
       updatePre(nr);
 
@@ -277,7 +404,7 @@ public final class TableDiskAccess extends TableAccess {
 
     // if the last page is empty, clear the corresponding bit
     read(pages[page]);
-    final Buffer bf = bm.current();
+    final Buffer bf = current;
     if(nextPre == last) {
       usedPages.clear((int) bf.pos);
       ++unused;
@@ -328,7 +455,7 @@ public final class TableDiskAccess extends TableAccess {
     final int moved = nold - split;
 
     // special case: all entries fit in the current page
-    Buffer bf = bm.current();
+    Buffer bf = current;
     if(nold + nnew <= IO.BLOCKSIZE) {
       Array.move(bf.data, split, nnew, moved);
       System.arraycopy(entries, 0, bf.data, split, nnew);
@@ -367,7 +494,7 @@ public final class TableDiskAccess extends TableAccess {
         if(remain <= IO.BLOCKSIZE - o) {
           // copy the last records
           readPage(page + 1);
-          bf = bm.current();
+          bf = current;
           System.arraycopy(bf.data, 0, bf.data, remain, o);
           System.arraycopy(all, all.length - remain, bf.data, 0, remain);
           bf.dirty = true;
@@ -403,7 +530,7 @@ public final class TableDiskAccess extends TableAccess {
       freePage();
       nrem += write(all, nrem);
       fpres[page] = fpres[page - 1] + IO.ENTRIES;
-      pages[page] = (int) bm.current().pos;
+      pages[page] = (int) current.pos;
     }
 
     // increment all fpre values after the last modified page
@@ -434,6 +561,24 @@ public final class TableDiskAccess extends TableAccess {
 
   // PRIVATE METHODS ==========================================================
 
+  /**
+   * Writes the page index.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void writeIndex(final DataOutput out) throws IOException {
+    final int sz = size;
+    out.writeNum(sz);
+    out.writeNum(used);
+    // due to legacy issues, number of pages is written several times
+    out.writeNum(sz);
+    for(int s = 0; s < sz; s++) out.writeNum(fpres[s]);
+    out.writeNum(sz);
+    for(int s = 0; s < sz; s++) out.writeNum(pages[s]);
+
+    out.writeLongs(usedPages.toArray());
+  }
+
   /**
    * Searches for the page containing the entry for the specified pre value.
    * Reads the page and returns its offset inside the page.
@@ -441,10 +586,25 @@ public final class TableDiskAccess extends TableAccess {
    * @return offset of the entry in the page
    */
   private synchronized int cursor(final int pre) {
-    int fp = firstPre, np = nextPre;
-    if(pre < fp || pre >= np) {
-      final int last = used - 1;
-      int l = 0, h = last, m = page;
+    if(pre < firstPre || pre >= nextPre) readPage(index(pre));
+    // current buffer may have been reassigned by a read operation
+    else if(current.pos != currentPage) read(currentPage);
+    return pre - firstPre << IO.NODEPOWER;
+  }
+
+  /**
+   * Returns the index of the page containing the entry for the specified pre value.
+   * This method does not change the state of the page cursor.
+   * @param pre pre of the entry to search for
+   * @return page index
+   */
+  private int index(final int pre) {
+    final int last = used - 1;
+    int m = fpres == null ? pre / IO.ENTRIES : hint;
+    if(m < 0 || m > last) m = 0;
+    int fp = fpre(m), np = m == last ? meta.size : fpre(m + 1);
+    if(pre < fp || pre >= np || last < 0) {
+      int l = 0, h = last;
       while(l <= h) {
         if(pre < fp) h = m - 1;
         else if(pre >= np) l = m + 1;
@@ -460,9 +620,9 @@ public final class TableDiskAccess extends TableAccess {
           "\n- first/next pre value: " + fp + '/' + np +
           "\n- #total/used pages: " + size + '/' + used +
           "\n- accessed page: " + m + " (" + l + " > " + h + ']');
-      readPage(m);
     }
-    return pre - firstPre << IO.NODEPOWER;
+    hint = m;
+    return m;
   }
 
   /**
@@ -489,7 +649,7 @@ public final class TableDiskAccess extends TableAccess {
    * @param p index of the page to fetch
    * @return pre value
    */
-  private synchronized int page(final int p) {
+  private int page(final int p) {
     return pages == null ? p : pages[p];
   }
 
@@ -498,30 +658,63 @@ public final class TableDiskAccess extends TableAccess {
    * @param p index of the page to fetch
    * @return pre value
    */
-  private synchronized int fpre(final int p) {
+  private int fpre(final int p) {
     return fpres == null ? p * IO.ENTRIES : fpres[p];
   }
 
+  /**
+   * Releases the memory mapping. Concurrent readers will fall back to the buffers, and the
+   * mapped segments will be released when the last reader has finished.
+   */
+  private void unmap() {
+    final Mapping mp = mapping;
+    if(mp == null) return;
+    mapping = null;
+    mp.close();
+  }
+
   /**
    * Reads a page from disk.
    * @param p page to fetch
    */
   private synchronized void read(final int p) {
-    if(!bm.cursor(p)) return;
+    // updates are performed on buffers: discard mapping
+    unmap();
+    currentPage = p;
+    if(current != null && current.pos == p) return;
+    final Buffers.Stripe stripe = bm.stripe(p);
+    synchronized(stripe) {
+      current = buffer(stripe, p);
+    }
+  }
 
-    final Buffer bf = bm.current();
-    try {
-      if(bf.dirty) write(bf);
-      bf.pos = p;
-      if(p >= size) {
-        size = p + 1;
-      } else {
-        file.seek(bf.pos * IO.BLOCKSIZE);
-        file.readFully(bf.data);
+  /**
+   * Returns the buffer for the specified page. If the page is not cached, it is read from disk.
+   * Must be called while holding the monitor of the specified stripe.
+   * @param stripe stripe
+   * @param p page to fetch
+   * @return buffer
+   */
+  private Buffer buffer(final Buffers.Stripe stripe, final int p) {
+    Buffer bf = stripe.get(p);
+    if(bf == null) {
+      bf = stripe.free();
+      try {
+        if(bf.dirty || bf.pending) write(bf);
+        stripe.assign(bf, p);
+        if(p >= size) {
+          size = p + 1;
+        } else {
+          synchronized(file) {
+            file.seek(bf.pos * IO.BLOCKSIZE);
+            file.readFully(bf.data);
+          }
+        }
+      } catch(final IOException ex) {
+        Util.stack(ex);
       }
-    } catch(final IOException ex) {
-      Util.stack(ex);
     }
+    return bf;
   }
 
   /**
@@ -541,9 +734,14 @@ public final class TableDiskAccess extends TableAccess {
    * @throws IOException I/O exception
    */
   private void write(final Buffer bf) throws IOException {
-    file.seek(bf.pos * IO.BLOCKSIZE);
-    file.write(bf.data);
+    synchronized(file) {
+      // log previous contents of pages with uncommitted changes
+      if(bf.dirty && journal != null) journal.undo(bf.pos, file);
+      file.seek(bf.pos * IO.BLOCKSIZE);
+      file.write(bf.data);
+    }
     bf.dirty = false;
+    bf.pending = false;
   }
 
   /**
@@ -567,7 +765,7 @@ public final class TableDiskAccess extends TableAccess {
    */
   private void copy(final byte[] s, final int sp, final byte[] d, final int dp, final int l) {
     System.arraycopy(s, sp << IO.NODEPOWER, d, dp << IO.NODEPOWER, l << IO.NODEPOWER);
-    bm.current().dirty = true;
+    current.dirty = true;
   }
 
   /**
@@ -578,7 +776,7 @@ public final class TableDiskAccess extends TableAccess {
    * @return number of written bytes
    */
   private int write(final byte[] s, final int o) {
-    final Buffer bf = bm.current();
+    final Buffer bf = current;
     final int len = Math.min(IO.BLOCKSIZE, s.length - o);
     System.arraycopy(s, o, bf.data, 0, len);
     bf.dirty = true;
@@ -119,18 +119,7 @@ abstract class MarkupSerializer extends StandardSerializer {
     if(!standalone) out.print(' ');
     out.print(name);
     out.print(ATT1);
-    final byte[] val = norm(value);
-    final int vl = val.length;
-    for(int k = 0; k < vl; k += cl(val, k)) {
-      final int cp = cp(val, k);
-      if(cp == '"') {
-        out.print(E_QUOT);
-      } else if(cp == 0x9 || cp == 0xA) {
-        printHex(cp);
-      } else {
-        printChar(cp);
-      }
-    }
+    printValue(norm(value), true);
     out.print(ATT2);
   }
 
@@ -141,9 +130,7 @@ abstract class MarkupSerializer extends StandardSerializer {
       final ArrayList<QNm> qnames = cdata();
       final int vl = val.length;
       if(qnames.isEmpty() || elems.isEmpty() || !qnames.contains(elems.peek())) {
-        for(int k = 0; k < vl; k += cl(val, k)) {
-          printChar(cp(val, k));
-        }
+        printValue(val, false);
       } else {
         out.print(CDATA_O);
         int c = 0;
@@ -228,6 +215,39 @@ abstract class MarkupSerializer extends StandardSerializer {
     sep = true;
   }
 
+  /**
+   * Encodes and prints the characters of a text or attribute value.
+   * Runs of characters that need not be encoded are printed in a single call.
+   * @param value value
+   * @param attribute attribute flag
+   * @throws IOException I/O exception
+   */
+  private void printValue(final byte[] value, final boolean attribute) throws IOException {
+    final boolean direct = map == null;
+    final int vl = value.length;
+    int s = 0;
+    for(int v = 0; v < vl;) {
+      final byte b = value[v];
+      if(direct && (b >= ' ' && b < 0x7F && b != '&' && b != '<' && b != '>' &&
+          (!attribute || b != '"') || !attribute && (b == '\n' || b == '\t'))) {
+        v++;
+      } else {
+        if(s < v) out.print(value, s, v);
+        final int cp = cp(value, v);
+        if(attribute && cp == '"') {
+          out.print(E_QUOT);
+        } else if(attribute && (cp == 0x9 || cp == 0xA)) {
+          printHex(cp);
+        } else {
+          printChar(cp);
+        }
+        v += cl(value, v);
+        s = v;
+      }
+    }
+    if(s < vl) out.print(value, s, vl);
+  }
+
   @Override
   protected void printChar(final int cp) throws IOException {
     if(map != null) {
@@ -26,6 +26,10 @@ public final class CompileContext {
   public final QueryContext qc;
   /** Variable scopes. */
   private final ArrayList<VarScope> scopes = new ArrayList<>();
+  /** Copied static declarations (original and copy). */
+  private final IdentityHashMap<StaticDecl, StaticDecl> decls = new IdentityHashMap<>();
+  /** Static contexts of copied expressions (original and copy). */
+  private final IdentityHashMap<StaticContext, StaticContext> statics = new IdentityHashMap<>();
 
   /**
    * Constructor.
@@ -99,6 +103,46 @@ public final class CompileContext {
     return v;
   }
 
+  /**
+   * Registers the copy of a static declaration.
+   * @param decl original declaration
+   * @param copy copy
+   */
+  public void copied(final StaticDecl decl, final StaticDecl copy) {
+    decls.put(decl, copy);
+  }
+
+  /**
+   * Returns the copy of a static declaration.
+   * @param <D> declaration type
+   * @param decl declaration (can be {@code null})
+   * @return copy, or original declaration if it has not been copied
+   */
+  @SuppressWarnings("unchecked")
+  public <D extends StaticDecl> D decl(final D decl) {
+    final StaticDecl copy = decls.get(decl);
+    return copy != null ? (D) copy : decl;
+  }
+
+  /**
+   * Registers the static context that will be assigned to copied expressions.
+   * @param sc original static context
+   * @param copy copy
+   */
+  public void copied(final StaticContext sc, final StaticContext copy) {
+    statics.put(sc, copy);
+  }
+
+  /**
+   * Returns the static context to be assigned to a copied expression.
+   * @param sc static context of the original expression
+   * @return registered copy, or original static context
+   */
+  public StaticContext sc(final StaticContext sc) {
+    final StaticContext copy = statics.get(sc);
+    return copy != null ? copy : sc;
+  }
+
   /**
    * Pre-evaluates the specified expression.
    * @param expr expression
@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.Map.*;
 
 import org.basex.build.json.*;
 import org.basex.build.json.JsonOptions.*;
@@ -239,6 +240,39 @@ public final class QueryContext extends Job implements Closeable {
     }
   }
 
+  /**
+   * Creates an uncompiled copy of the functions, variables and prolog settings of a parsed
+   * library module, which can be assigned a main module and evaluated by another query.
+   * Parsing can be skipped by copying the same context several times. The original context
+   * must not be compiled or evaluated.
+   * @param ctx database context
+   * @return copy, or {@code null} if the parsed declarations cannot be copied
+   */
+  public QueryContext copy(final Context ctx) {
+    // initial context values, full-text options and Java modules are bound to a single query
+    if(root != null || ctxItem != null || ftOpt != null || compiled || resources.javaModules())
+      return null;
+
+    final QueryContext qc = new QueryContext(ctx);
+    qc.info.query = info.query;
+    final CompileContext cc = new CompileContext(qc);
+    final ArrayList<Runnable> bodies = new ArrayList<>();
+    vars.copy(cc, bodies);
+    funcs.copy(cc, bodies);
+    for(final Runnable body : bodies) body.run();
+
+    for(final Option<?> opt : staticOpts.keySet()) qc.staticOpts.put(opt, ctx.options.get(opt));
+    qc.tempOpts.add(tempOpts);
+    if(serParams != null) qc.serParams = new SerializerOptions(serParams);
+    qc.defaultOutput = defaultOutput;
+    qc.readLocks.add(readLocks);
+    qc.writeLocks.add(writeLocks);
+    for(final byte[] path : modParsed) qc.modParsed.put(path, modParsed.get(path));
+    for(final byte[] uri : modDeclared) qc.modDeclared.put(uri, modDeclared.get(uri));
+    qc.updating = updating;
+    return qc;
+  }
+
   /**
    * Sets the main module (root expression).
    * @param rt main module
@@ -248,6 +282,19 @@ public final class QueryContext extends Job implements Closeable {
     updating = rt.expr.has(Flag.UPD);
   }
 
+  /**
+   * Checks if the parsed main module is the only result of parsing the query.
+   * This is not the case if the prolog contains declarations (functions, variables,
+   * options, context value, locks) or if modules have been imported.
+   * @return result of check
+   */
+  boolean standalone() {
+    return root != null && ctxItem == null && funcs.isEmpty() && !vars.iterator().hasNext() &&
+        modParsed.isEmpty() && modDeclared.isEmpty() && staticOpts.isEmpty() &&
+        tempOpts.isEmpty() && serParams == null && ftOpt == null && !readLocks.local() &&
+        !writeLocks.local() && (resources == null || !resources.moduleLoader());
+  }
+
   /**
    * Compiles and optimizes the expression.
    * @throws QueryException query exception
@@ -498,6 +545,22 @@ public final class QueryContext extends Job implements Closeable {
     bindings.put(QNm.resolve(indexOf(n, '$') == 0 ? substring(n, 1) : n, sc), val);
   }
 
+  /**
+   * Binds the external variables and the context value specified by
+   * {@link MainOptions#BINDINGS}.
+   * @param sc static context
+   * @throws QueryException query exception
+   */
+  void bindings(final StaticContext sc) throws QueryException {
+    for(final Entry<String, String> entry : context.options.toMap(MainOptions.BINDINGS).
+        entrySet()) {
+      final String key = entry.getKey();
+      final Atm value = new Atm(entry.getValue());
+      if(key.isEmpty()) context(value, sc);
+      else bind(key, value, sc);
+    }
+  }
+
   /**
    * Adds some evaluation info.
    * @param string evaluation info
@@ -580,7 +643,7 @@ public final class QueryContext extends Job implements Closeable {
     } else {
       // otherwise, adopt update reference (may have been initialized by sub query)
       parent.updates = updates;
-      parent.popJob();
+      parent.popJob(this);
     }
     // reassign original database options (changed by compile step)
     staticOpts.forEach((key, value) -> context.options.put(key, value));
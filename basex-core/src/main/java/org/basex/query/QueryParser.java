@@ -9,9 +9,7 @@ import static org.basex.util.ft.FTFlag.*;
 import java.io.*;
 import java.math.*;
 import java.util.*;
-import java.util.Map.*;
 
-import org.basex.core.*;
 import org.basex.core.locks.*;
 import org.basex.io.*;
 import org.basex.io.serial.*;
@@ -139,16 +137,10 @@ public class QueryParser extends InputParser {
     sc = sctx != null ? sctx : new StaticContext(qctx);
 
     // set path to query file
-    final MainOptions opts = qctx.context.options;
     if(uri != null) sc.baseURI(uri);
 
     // bind external variables
-    for(final Entry<String, String> entry : opts.toMap(MainOptions.BINDINGS).entrySet()) {
-      final String key = entry.getKey();
-      final Atm value = new Atm(entry.getValue());
-      if(key.isEmpty()) qctx.context(value, sc);
-      else qctx.bind(key, value, sc);
-    }
+    qctx.bindings(sc);
   }
 
   /**
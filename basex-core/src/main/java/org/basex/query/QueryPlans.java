@@ -0,0 +1,143 @@
+package org.basex.query;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.users.*;
+import org.basex.query.scope.*;
+
+/**
+ * Bounded cache for parsed query plans, which is shared by all clients of a database context.
+ * Plans are only cached if parsing yields nothing else than a main module
+ * (see {@link QueryContext#standalone()}). A copy of the cached plan is returned for each
+ * request, which will then be compiled and evaluated by the requesting query. The settings of
+ * the static context are adopted by the static context of the request, and the variables and
+ * the context value specified by {@link MainOptions#BINDINGS} are bound again.
+ * As compilation depends on the bound variables, the context value and the current state of
+ * the databases, compiled plans are not cached.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPlans {
+  /** Parsed plans, ordered by their last access. */
+  private final LinkedHashMap<String, Plan> plans = new LinkedHashMap<>(16, 0.75f, true);
+  /** Static options. */
+  private final StaticOptions sopts;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public QueryPlans(final StaticOptions sopts) {
+    this.sopts = sopts;
+  }
+
+  /**
+   * Assigns a copy of a cached plan to the specified query context.
+   * @param query query string
+   * @param sc static context (must not have been modified, except for the base URI)
+   * @param qc query context
+   * @return {@code true} if a plan was found
+   * @throws QueryException query exception
+   */
+  boolean get(final String query, final StaticContext sc, final QueryContext qc)
+      throws QueryException {
+    if(sopts.get(StaticOptions.PLANCACHE) <= 0) return false;
+
+    final Plan plan;
+    synchronized(plans) {
+      plan = plans.get(key(query, sc, qc));
+    }
+    if(plan == null) return false;
+
+    // copying is thread-safe, as the cached plan itself will never be compiled
+    qc.info.query = query;
+    qc.bindings(sc);
+    sc.assign(plan.sc);
+    qc.root = plan.module.copy(qc, sc);
+    qc.updating = plan.updating;
+    return true;
+  }
+
+  /**
+   * Caches a copy of the plan that has been parsed by the specified query context.
+   * @param query query string
+   * @param sc static context (must not have been modified, except for the base URI)
+   * @param qc query context
+   */
+  void put(final String query, final StaticContext sc, final QueryContext qc) {
+    final int max = sopts.get(StaticOptions.PLANCACHE);
+    if(max <= 0 || !qc.standalone()) return;
+
+    final StaticContext psc = new StaticContext(qc);
+    psc.assign(sc);
+    final Plan plan = new Plan(qc.root.copy(qc, psc), psc, qc.updating);
+    synchronized(plans) {
+      plans.put(key(query, sc, qc), plan);
+      for(final Iterator<String> iter = plans.keySet().iterator(); plans.size() > max;) {
+        iter.next();
+        iter.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of cached plans.
+   * @return number of plans
+   */
+  public int size() {
+    synchronized(plans) {
+      return plans.size();
+    }
+  }
+
+  /**
+   * Removes all cached plans.
+   */
+  public void clear() {
+    synchronized(plans) {
+      plans.clear();
+    }
+  }
+
+  /**
+   * Returns the cache key for a query. Apart from the query string, parsing depends on the
+   * base URI, the permissions of the current user, and on the mixing of updates.
+   * @param query query string
+   * @param sc static context
+   * @param qc query context
+   * @return key
+   */
+  private static String key(final String query, final StaticContext sc, final QueryContext qc) {
+    final Context ctx = qc.context;
+    final User user = ctx.user();
+    final StringBuilder sb = new StringBuilder();
+    sb.append(user != null ? user.perm((String) null) : Perm.NONE).append(' ');
+    sb.append(ctx.options.get(MainOptions.MIXUPDATES)).append(' ');
+    sb.append(sc.baseURI()).append('\0').append(query);
+    return sb.toString();
+  }
+
+  /** Cached plan. */
+  private static final class Plan {
+    /** Main module (uncompiled). */
+    private final MainModule module;
+    /** Static context of the main module. */
+    private final StaticContext sc;
+    /** Updating flag. */
+    private final boolean updating;
+
+    /**
+     * Constructor.
+     * @param module main module
+     * @param sc static context of the main module
+     * @param updating updating flag
+     */
+    private Plan(final MainModule module, final StaticContext sc, final boolean updating) {
+      this.module = module;
+      this.sc = sc;
+      this.updating = updating;
+    }
+  }
+}
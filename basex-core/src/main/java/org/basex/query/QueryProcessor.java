@@ -33,6 +33,8 @@ public final class QueryProcessor extends Job implements Closeable {
   private final String query;
   /** Parsed flag. */
   private boolean parsed;
+  /** Plan cache flag. */
+  private boolean cache;
 
   /**
    * Default constructor.
@@ -56,6 +58,16 @@ public final class QueryProcessor extends Job implements Closeable {
     sc.baseURI(uri);
   }
 
+  /**
+   * Enables the plan cache for this query (see {@link StaticOptions#PLANCACHE}).
+   * Must not be called if the static context has been modified, except for the base URI.
+   * @return self reference
+   */
+  public QueryProcessor cache() {
+    cache = true;
+    return this;
+  }
+
   /**
    * Parses the query.
    * @throws QueryException query exception
@@ -63,7 +75,11 @@ public final class QueryProcessor extends Job implements Closeable {
   public void parse() throws QueryException {
     if(parsed) return;
     try {
-      qc.parseMain(query, null, sc);
+      final QueryPlans plans = qc.context.plans;
+      if(!cache || !plans.get(query, sc, qc)) {
+        qc.parseMain(query, null, sc);
+        if(cache) plans.put(query, sc, qc);
+      }
     } finally {
       parsed = true;
       updating = qc.updating;
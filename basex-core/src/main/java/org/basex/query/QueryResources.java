@@ -216,6 +216,22 @@ public final class QueryResources {
     return DBNodeSeq.get(docs, data, true, qi.dbPath.isEmpty());
   }
 
+  /**
+   * Indicates if the module loader has been requested during parsing.
+   * @return result of check
+   */
+  boolean moduleLoader() {
+    return modules != null;
+  }
+
+  /**
+   * Indicates if Java modules or archives have been loaded during parsing.
+   * @return result of check
+   */
+  boolean javaModules() {
+    return modules != null && modules.java();
+  }
+
   /**
    * Returns the module loader. Called during parsing.
    * @return module loader
@@ -377,6 +377,8 @@ public interface QueryText {
   /** Query Info. */ String TEST = "test";
   /** Query Info. */ String MIN = "min";
   /** Query Info. */ String MAX = "max";
+  /** Query Info. */ String MNI = "minInclusive";
+  /** Query Info. */ String MXI = "maxInclusive";
   /** Query Info. */ String INF = "inf";
   /** Query Info. */ String TCL = "tailCall";
   /** Query Info. */ String ENTRIES = "entries";
@@ -403,6 +405,9 @@ public interface QueryText {
   /** Optimization info. */ String OPTINLINE_X = "inline %";
   /** Optimization info. */ String OPTWHERE = "rewrite where clause(s)";
   /** Optimization info. */ String OPTPRED_X = "rewrite % to predicate(s)";
+  /** Optimization info. */ String OPTJOIN_X = "rewrite % to hash join";
+  /** Optimization info. */ String OPTLIMIT_X_X = "%: limit to % tuple(s)";
+  /** Optimization info. */ String OPTPARALLEL_X = "evaluate % in parallel";
   /** Optimization info. */ String OPTVAR_X = "remove variable %";
   /** Optimization info. */ String OPTNAME_X = "remove unknown element/attribute %";
   /** Optimization info. */ String OPTPATH_X = "remove non-existing path %";
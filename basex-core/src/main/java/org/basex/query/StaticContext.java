@@ -64,6 +64,31 @@ public final class StaticContext {
     mixUpdates = qc.context.options.get(MainOptions.MIXUPDATES);
   }
 
+  /**
+   * Adopts the settings of the specified static context, which result from parsing a query.
+   * The dynamic namespaces are not adopted.
+   * @param sctx static context
+   */
+  void assign(final StaticContext sctx) {
+    for(final byte[] name : sctx.decFormats) decFormats.put(name, sctx.decFormats.get(name));
+    final Atts nsp = sctx.ns.ns;
+    final int nl = nsp.size();
+    for(int n = 0; n < nl; n++) ns.ns.add(nsp.name(n), nsp.value(n));
+    collation = sctx.collation;
+    elemNS = sctx.elemNS;
+    funcNS = sctx.funcNS;
+    dynFuncCall = sctx.dynFuncCall;
+    contextType = sctx.contextType;
+    strip = sctx.strip;
+    ordered = sctx.ordered;
+    orderGreatest = sctx.orderGreatest;
+    spaces = sctx.spaces;
+    preserveNS = sctx.preserveNS;
+    inheritNS = sctx.inheritNS;
+    baseURI = sctx.baseURI;
+    resolver = sctx.resolver;
+  }
+
   /**
    * Declares a namespace.
    * A namespace is undeclared if the specified URI is an empty string.
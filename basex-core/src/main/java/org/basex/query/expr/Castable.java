@@ -52,7 +52,7 @@ public final class Castable extends Single {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new Castable(sc, info, expr.copy(cc, vm), type);
+    return new Castable(cc.sc(sc), info, expr.copy(cc, vm), type);
   }
 
   @Override
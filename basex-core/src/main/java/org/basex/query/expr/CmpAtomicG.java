@@ -44,7 +44,7 @@ public final class CmpAtomicG extends CmpG {
 
   @Override
   public CmpG copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CmpAtomicG(exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), op, coll, sc, info);
+    return new CmpAtomicG(exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), op, coll, cc.sc(sc), info);
   }
 
   @Override
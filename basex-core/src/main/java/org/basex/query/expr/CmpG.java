@@ -318,7 +318,7 @@ public class CmpG extends Cmp {
 
   @Override
   public CmpG copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CmpG(exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), op, coll, sc, info);
+    return new CmpG(exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), op, coll, cc.sc(sc), info);
   }
 
   @Override
@@ -152,17 +152,18 @@ public final class CmpR extends Single {
     // sequential main memory scan is usually faster than range index access
     if(data == null ? !ii.enforce() : data.inMemory()) return false;
 
-    if(!mni || !mxi) return false;
     final IndexType type = ii.type(expr, null);
     if(type == null) return false;
 
     final Stats key = key(ii, type);
     if(key == null) return false;
 
-    // estimate costs for range access; all values out of range: no results
-    final NumericRange nr = new NumericRange(type, Math.max(min, key.min), Math.min(max, key.max));
+    // restrict range to minimum and maximum of indexed values
+    final boolean kmn = min < key.min, kmx = max > key.max;
+    final NumericRange nr = new NumericRange(type, kmn ? key.min : min, kmn || mni,
+        kmx ? key.max : max, kmx || mxi);
     // skip queries with no results
-    if(nr.min > nr.max || nr.max < key.min || nr.min > key.max) {
+    if(nr.min > nr.max || nr.min == nr.max && !(nr.mni && nr.mxi)) {
       ii.costs = IndexCosts.get(0);
       return true;
     }
@@ -171,15 +172,6 @@ public final class CmpR extends Single {
     ii.costs = ii.costs(data, nr);
     if(ii.costs == null) return false;
 
-    // skip if numbers are negative, doubles, or of different string length
-    final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
-    final int mxl = max >= 0 && (long) max == max ? token(max).length : -1;
-    if(mnl != mxl || mnl == -1) return false;
-
-    // don't use index if min/max values are infinite
-    if(min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY ||
-        token((int) nr.min).length != token((int) nr.max).length) return false;
-
     final TokenBuilder tb = new TokenBuilder();
     tb.add(mni ? '[' : '(').addExt(min).add(',').addExt(max).add(mxi ? ']' : ')');
     ii.create(new RangeAccess(info, nr, ii.db), true, info, Util.info(OPTINDEX_X_X, "range", tb));
@@ -245,7 +245,7 @@ public final class CmpV extends Cmp {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CmpV(exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), op, coll, sc, info);
+    return new CmpV(exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), op, coll, cc.sc(sc), info);
   }
 
   @Override
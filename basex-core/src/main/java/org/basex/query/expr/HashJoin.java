@@ -0,0 +1,259 @@
+package org.basex.query.expr;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.expr.CmpG.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.util.list.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Hash join: filter expression with a single equality predicate. The predicate compares a key,
+ * computed for the items of the root expression, with a probe expression, which does not
+ * depend on the context.
+ *
+ * If the filter is the bound expression of a for clause, the root and key expressions are
+ * independent of the tuples of the preceding clauses. All items of the root expression are
+ * then indexed by their keys once, and the matching items are looked up for each tuple.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class HashJoin extends Filter {
+  /**
+   * Constructor.
+   * @param info input info
+   * @param root root expression
+   * @param cmp comparison (the first operand is the key, the second one the probe expression)
+   */
+  private HashJoin(final InputInfo info, final Expr root, final Expr... cmp) {
+    super(info, root, cmp);
+  }
+
+  /**
+   * Tries to rewrite a filter or path expression to a hash join. The last predicate of the
+   * expression must be a general equality comparison between a key of the context item and
+   * an expression that depends on the specified variables.
+   * @param expr expression
+   * @param vars variables whose values change between the evaluations of the expression
+   * @return hash join or {@code null}
+   */
+  public static HashJoin get(final Expr expr, final ArrayList<Var> vars) {
+    // choose last predicate and compute remaining input
+    final Expr[] preds;
+    final Expr root;
+    if(expr instanceof HashJoin) return null;
+    if(expr instanceof Filter) {
+      final Filter filter = (Filter) expr;
+      preds = filter.exprs;
+      final int pl = preds.length;
+      root = pl == 1 ? filter.root :
+        Filter.get(filter.info, filter.root, Arrays.copyOf(preds, pl - 1));
+    } else if(expr instanceof AxisPath) {
+      final Path path = (Path) expr;
+      final Expr[] steps = path.steps.clone();
+      final int sl = steps.length - 1;
+      final Step step = (Step) steps[sl];
+      preds = step.exprs;
+      final int pl = preds.length;
+      if(pl == 0) return null;
+      steps[sl] = Step.get(step.info, step.axis, step.test, Arrays.copyOf(preds, pl - 1));
+      root = Path.get(path.info, path.root, steps);
+    } else {
+      return null;
+    }
+
+    final Expr pred = preds[preds.length - 1];
+    if(!(pred instanceof CmpG) || pred.has(Flag.NDT) || pred.has(Flag.POS)) return null;
+    final CmpG cmp = (CmpG) pred;
+    if(cmp.op != OpG.EQ || cmp.coll != null) return null;
+
+    // the key refers to the context item, the probe expression to the variables
+    final Expr e1 = cmp.exprs[0], e2 = cmp.exprs[1];
+    final boolean swap = e2.has(Flag.CTX);
+    final Expr key = swap ? e2 : e1, probe = swap ? e1 : e2;
+    if(!key.has(Flag.CTX) || probe.has(Flag.CTX) || root.has(Flag.NDT)) return null;
+    if(!hashable(key.seqType(), probe.seqType())) return null;
+
+    boolean uses = false;
+    for(final Var var : vars) {
+      if(root.uses(var) || key.uses(var)) return null;
+      uses |= probe.uses(var);
+    }
+    if(!uses) return null;
+
+    return ((ParseExpr) expr).copyType(new HashJoin(((ParseExpr) expr).info, root,
+        new CmpG(key, probe, OpG.EQ, null, cmp.sc, cmp.info)));
+  }
+
+  /**
+   * Checks if the key and the root expression are independent of the specified variables.
+   * @param vars variables
+   * @return result of check
+   */
+  public boolean independent(final ArrayList<Var> vars) {
+    final Expr key = ((Arr) exprs[0]).exprs[0];
+    for(final Var var : vars) {
+      if(root.uses(var) || key.uses(var)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns an equivalent filter expression.
+   * @return filter expression
+   */
+  public Expr filter() {
+    return Filter.get(info, root, exprs);
+  }
+
+  /**
+   * Checks if values of the specified types can be compared via their hash values.
+   * @param st1 first type
+   * @param st2 second type
+   * @return result of check
+   */
+  private static boolean hashable(final SeqType st1, final SeqType st2) {
+    final Type t1 = atomic(st1), t2 = atomic(st2);
+    return t1 != null && t2 != null && (t1.isStringOrUntyped() && t2.isStringOrUntyped() ||
+        t1.instanceOf(AtomType.ITR) && t2.instanceOf(AtomType.ITR));
+  }
+
+  /**
+   * Returns the type of the atomized items of an expression.
+   * @param st sequence type
+   * @return type or {@code null}
+   */
+  private static Type atomic(final SeqType st) {
+    final Type type = st.type;
+    return st.mayBeArray() ? null : type instanceof NodeType ? AtomType.ATM :
+      type instanceof AtomType ? type : null;
+  }
+
+  /**
+   * Creates a new hash table. The table is populated when it is probed for the first time.
+   * It must be discarded if the values of the variables referenced by the root or the key
+   * expression have changed.
+   * @return hash table
+   */
+  public Table table() {
+    return new Table();
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    return table().value(qc);
+  }
+
+  @Override
+  public HashJoin copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new HashJoin(info, root.copy(cc, vm), Arr.copyAll(cc, vm, exprs)));
+  }
+
+  @Override
+  public String description() {
+    return "hash join";
+  }
+
+  /**
+   * Hash table, mapping keys to the positions of the items of the root expression.
+   */
+  public final class Table {
+    /** Keys. */
+    private final HashItemSet keys = new HashItemSet(true);
+    /** Positions of the items with a specific key (indexed by the key ids). */
+    private final ArrayList<IntList> positions = new ArrayList<>();
+    /** Items of the root expression ({@code null} if the table has not been populated yet). */
+    private Value value;
+
+    /**
+     * Private constructor.
+     */
+    private Table() { }
+
+    /**
+     * Returns all items whose keys are equal to one of the items of the probe expression.
+     * @param qc query context
+     * @return items, in the order of the root expression
+     * @throws QueryException query exception
+     */
+    public Value value(final QueryContext qc) throws QueryException {
+      if(value == null) {
+        final Value val = qc.value(root);
+        // positions are stored as integers: evaluate huge inputs as filter
+        if(val.size() > Integer.MAX_VALUE) return filter().value(qc);
+        populate(val, qc);
+      }
+
+      IntList list = null;
+      boolean merge = false;
+      final Iter iter = ((Arr) exprs[0]).exprs[1].atomIter(qc, info);
+      for(Item it; (it = iter.next()) != null;) {
+        final int id = keys.id(it, info);
+        if(id == 0) continue;
+        final IntList pos = positions.get(id - 1);
+        if(list == null) {
+          list = pos;
+        } else {
+          // multiple keys: merge positions
+          if(!merge) list = new IntList(list.size() + pos.size()).add(list.toArray());
+          list.add(pos.toArray());
+          merge = true;
+        }
+      }
+      if(list == null) return Empty.SEQ;
+      if(merge) list.sort().distinct();
+
+      final int ls = list.size();
+      final ItemList items = new ItemList(ls);
+      for(int l = 0; l < ls; l++) items.add(value.itemAt(list.get(l)));
+      return items.value();
+    }
+
+    /**
+     * Indexes the items of the root expression by their keys.
+     * @param val items of the root expression
+     * @param qc query context
+     * @throws QueryException query exception
+     */
+    private void populate(final Value val, final QueryContext qc) throws QueryException {
+      final Expr key = ((Arr) exprs[0]).exprs[0];
+      final QueryFocus qf = qc.focus, focus = new QueryFocus();
+      qc.focus = focus;
+      try {
+        final int vs = (int) val.size();
+        focus.size = vs;
+        for(int v = 0; v < vs; v++) {
+          qc.checkStop();
+          focus.value = val.itemAt(v);
+          focus.pos = v + 1;
+          final Iter iter = key.atomIter(qc, info);
+          for(Item it; (it = iter.next()) != null;) {
+            final int id = keys.put(it, info);
+            if(id > positions.size()) positions.add(new IntList(1));
+            final IntList pos = positions.get(id - 1);
+            if(pos.isEmpty() || pos.peek() != v) pos.add(v);
+          }
+        }
+      } finally {
+        qc.focus = qf;
+      }
+      value = val;
+    }
+  }
+}
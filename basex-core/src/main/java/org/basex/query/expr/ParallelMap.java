@@ -0,0 +1,75 @@
+package org.basex.query.expr;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Simple map operator, evaluating the operands for the items of the first operand in parallel.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class ParallelMap extends SimpleMap {
+  /**
+   * Constructor.
+   * @param info input info
+   * @param exprs expressions
+   */
+  ParallelMap(final InputInfo info, final Expr... exprs) {
+    super(info, exprs);
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Value value = qc.value(exprs[0]);
+    final Expr expr = SimpleMap.get(info, Arrays.copyOfRange(exprs, 1, exprs.length));
+    final long size = value.size();
+    return ParallelTask.value(size, (qctx, start, end) -> {
+      final QueryFocus qf = qctx.focus, focus = new QueryFocus();
+      qctx.focus = focus;
+      try {
+        focus.size = size;
+        final ValueBuilder vb = new ValueBuilder();
+        for(long s = start; s < end; s++) {
+          qctx.checkStop();
+          focus.pos = s + 1;
+          focus.value = value.itemAt(s);
+          vb.add(qctx.value(expr));
+        }
+        return vb.value();
+      } finally {
+        qctx.focus = qf;
+      }
+    }, qc);
+  }
+
+  @Override
+  public SimpleMap copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new ParallelMap(info, Arr.copyAll(cc, vm, exprs)));
+  }
+
+  /**
+   * Checks if the operands of a map can be evaluated in parallel.
+   * @param exprs expressions
+   * @return result of check
+   */
+  static boolean parallel(final Expr... exprs) {
+    final int el = exprs.length;
+    for(int e = 1; e < el; e++) {
+      if(exprs[e].has(Flag.NDT) || exprs[e].has(Flag.UPD)) return false;
+    }
+    return true;
+  }
+}
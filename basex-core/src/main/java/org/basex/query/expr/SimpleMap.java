@@ -1,5 +1,6 @@
 package org.basex.query.expr;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
@@ -84,6 +85,13 @@ public abstract class SimpleMap extends Arr {
       size = s == -1 ? -1 : size * s;
     }
     seqType = exprs[el - 1].seqType().withOcc(Occ.ZERO_MORE);
+
+    // evaluate operands in parallel
+    if(!(this instanceof ParallelMap) && size != 1 && cc.qc.context.options.get(
+        MainOptions.PARALLELQUERY) && ParallelMap.parallel(exprs)) {
+      cc.info(QueryText.OPTPARALLEL_X, this);
+      return copyType(new ParallelMap(info, exprs));
+    }
     return this;
   }
 
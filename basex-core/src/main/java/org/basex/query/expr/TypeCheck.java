@@ -161,7 +161,7 @@ public final class TypeCheck extends Single {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new TypeCheck(sc, info, expr.copy(cc, vm), seqType, promote);
+    return new TypeCheck(cc.sc(sc), info, expr.copy(cc, vm), seqType, promote);
   }
 
   @Override
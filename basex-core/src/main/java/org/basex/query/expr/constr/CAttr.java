@@ -71,6 +71,6 @@ public final class CAttr extends CName {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CAttr(sc, info, comp, name.copy(cc, vm), copyAll(cc, vm, exprs));
+    return new CAttr(cc.sc(sc), info, comp, name.copy(cc, vm), copyAll(cc, vm, exprs));
   }
 }
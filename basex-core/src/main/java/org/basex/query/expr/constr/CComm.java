@@ -47,7 +47,7 @@ public final class CComm extends CNode {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CComm(sc, info, exprs[0].copy(cc, vm));
+    return new CComm(cc.sc(sc), info, exprs[0].copy(cc, vm));
   }
 
   @Override
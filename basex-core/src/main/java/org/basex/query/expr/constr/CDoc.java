@@ -44,7 +44,7 @@ public final class CDoc extends CNode {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CDoc(sc, info, exprs[0].copy(cc, vm));
+    return new CDoc(cc.sc(sc), info, exprs[0].copy(cc, vm));
   }
 
   @Override
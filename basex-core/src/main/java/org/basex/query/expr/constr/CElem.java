@@ -137,7 +137,7 @@ public final class CElem extends CName {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CElem(sc, info, name.copy(cc, vm), comp ? null : nspaces.copy(),
+    return new CElem(cc.sc(sc), info, name.copy(cc, vm), comp ? null : nspaces.copy(),
         copyAll(cc, vm, exprs));
   }
 
@@ -51,6 +51,6 @@ public final class CNSpace extends CName {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CNSpace(sc, info, name.copy(cc, vm), exprs[0].copy(cc, vm));
+    return new CNSpace(cc.sc(sc), info, name.copy(cc, vm), exprs[0].copy(cc, vm));
   }
 }
@@ -64,6 +64,6 @@ public final class CPI extends CName {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CPI(sc, info, name.copy(cc, vm), exprs[0].copy(cc, vm));
+    return new CPI(cc.sc(sc), info, name.copy(cc, vm), exprs[0].copy(cc, vm));
   }
 }
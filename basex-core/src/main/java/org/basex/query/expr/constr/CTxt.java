@@ -56,7 +56,7 @@ public final class CTxt extends CNode {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new CTxt(sc, info, exprs[0].copy(cc, vm));
+    return new CTxt(cc.sc(sc), info, exprs[0].copy(cc, vm));
   }
 
   @Override
@@ -57,6 +57,9 @@ public final class For extends ForLet {
     return new Eval() {
       /** Expression iterator. */
       private Iter iter;
+      /** Hash table (can be {@code null}). */
+      private final HashJoin.Table table = expr instanceof HashJoin ?
+        ((HashJoin) expr).table() : null;
       /** Current position. */
       private long p;
 
@@ -107,7 +110,7 @@ public final class For extends ForLet {
               qc.scoring = s;
             }
           } else {
-            iter = qc.iter(expr);
+            iter = table != null ? table.value(qc).iter() : qc.iter(expr);
           }
           p = 0;
         }
@@ -2,6 +2,7 @@ package org.basex.query.expr.gflwor;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.path.*;
@@ -28,6 +29,8 @@ public final class GFLWOR extends ParseExpr {
   private final LinkedList<Clause> clauses;
   /** Return expression. */
   public Expr ret;
+  /** Indicates if tuples are evaluated in parallel ({@link MainOptions#PARALLELQUERY}). */
+  private boolean parallel;
 
   /**
    * Constructor.
@@ -66,6 +69,11 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    if(parallel) {
+      final int split = split();
+      if(split != -1) return parallel(split, qc);
+    }
+
     final Eval eval = newEval();
     if(!eval.next(qc)) return Empty.SEQ;
     final Value v1 = qc.value(ret);
@@ -79,7 +87,9 @@ public final class GFLWOR extends ParseExpr {
   }
 
   @Override
-  public Iter iter(final QueryContext qc) {
+  public Iter iter(final QueryContext qc) throws QueryException {
+    if(parallel && split() != -1) return value(qc).iter();
+
     return new Iter() {
       /** Clause evaluator. */
       private final Eval ev = newEval();
@@ -161,7 +171,8 @@ public final class GFLWOR extends ParseExpr {
       if(clauses.getLast() instanceof For && ret instanceof VarRef) {
         final For last = (For) clauses.getLast();
         // for $x in E return $x  ==>  return E
-        if(!last.var.checksType() && last.var.is(((VarRef) ret).var)) {
+        if(!last.var.checksType() && last.var.is(((VarRef) ret).var) &&
+            !(last.expr instanceof HashJoin)) {
           clauses.removeLast();
           ret = last.expr;
           changed = true;
@@ -238,6 +249,7 @@ public final class GFLWOR extends ParseExpr {
     } while(changed);
 
     mergeWheres();
+    hashJoins(cc);
 
     size = calcSize();
     if(size == 0 && !has(Flag.NDT) && !has(Flag.UPD)) return cc.emptySeq(this);
@@ -249,9 +261,79 @@ public final class GFLWOR extends ParseExpr {
     }
 
     seqType = ret.seqType().withSize(size);
+
+    if(!parallel && cc.qc.context.options.get(MainOptions.PARALLELQUERY) && split() != -1) {
+      cc.info(QueryText.OPTPARALLEL_X, clauses.get(split()));
+      parallel = true;
+    }
     return this;
   }
 
+  /**
+   * Returns the position of a for clause whose tuples can be evaluated in parallel. The clause
+   * must only be followed by for, let and where clauses, and these clauses and the return
+   * expression must be deterministic and non-updating.
+   * @return position or {@code -1}
+   */
+  private int split() {
+    int split = -1, c = 0;
+    for(final Clause clause : clauses) {
+      if(clause instanceof For) {
+        final For fr = (For) clause;
+        if(split == -1 && !fr.empty && !fr.scoring && fr.score == null) split = c;
+      } else if(!(clause instanceof Let || clause instanceof Where)) {
+        split = -1;
+      }
+      c++;
+    }
+    if(split == -1 || ret.has(Flag.NDT) || ret.has(Flag.UPD)) return -1;
+    for(final Clause clause : clauses.subList(split + 1, clauses.size())) {
+      if(clause.has(Flag.NDT) || clause.has(Flag.UPD)) return -1;
+    }
+    return split;
+  }
+
+  /**
+   * Evaluates the tuples of the specified for clause in parallel.
+   * @param split position of the for clause
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value parallel(final int split, final QueryContext qc) throws QueryException {
+    Eval eval = new StartEval();
+    for(final Clause clause : clauses.subList(0, split)) eval = clause.eval(eval);
+    final For fr = (For) clauses.get(split);
+    final Clause[] rest = clauses.subList(split + 1, clauses.size()).toArray(new Clause[0]);
+
+    final ValueBuilder vb = new ValueBuilder();
+    while(eval.next(qc)) {
+      final Value value = qc.value(fr.expr);
+      vb.add(ParallelTask.value(value.size(), (qctx, start, end) -> {
+        // bind the items of the partition, evaluate the remaining clauses
+        Eval ev = new Eval() {
+          private long s = start;
+          @Override
+          boolean next(final QueryContext q) throws QueryException {
+            if(s == end) return false;
+            q.set(fr.var, value.itemAt(s));
+            if(fr.pos != null) q.set(fr.pos, Int.get(s + 1));
+            s++;
+            return true;
+          }
+        };
+        for(final Clause clause : rest) ev = clause.eval(ev);
+        final ValueBuilder results = new ValueBuilder();
+        while(ev.next(qctx)) {
+          qctx.checkStop();
+          results.add(qctx.value(ret));
+        }
+        return results.value();
+      }, qc));
+    }
+    return vb.value();
+  }
+
   /**
    * Pre-calculates the number of results of this FLWOR expression.
    * @return result size if statically computable, {@code -1} otherwise
@@ -600,6 +682,68 @@ public final class GFLWOR extends ParseExpr {
     return changed;
   }
 
+  /**
+   * Rewrites for clauses with equality predicates to hash joins. The bound expression and the
+   * compared key must be independent of the variables of the preceding clauses (leading let
+   * clauses are only evaluated once), and the compared expression must depend on them.
+   * Joins that have become dependent, e.g. after nested FLWOR expressions have been flattened,
+   * are rewritten back to filters.
+   * @param cc compilation context
+   * @throws QueryException query exception
+   */
+  private void hashJoins(final CompileContext cc) throws QueryException {
+    final ArrayList<Var> vars = new ArrayList<>();
+    for(final Clause clause : clauses) {
+      if(clause instanceof For) {
+        final For fr = (For) clause;
+        if(fr.expr instanceof HashJoin) {
+          final HashJoin join = (HashJoin) fr.expr;
+          if(!join.independent(vars)) fr.expr = join.filter();
+        } else if(!vars.isEmpty() && !fr.scoring) {
+          final HashJoin join = HashJoin.get(fr.expr, vars);
+          if(join != null) {
+            cc.info(QueryText.OPTJOIN_X, fr.expr);
+            fr.expr = join;
+          }
+        }
+      }
+      if(!vars.isEmpty() || !(clause instanceof Let)) Collections.addAll(vars, clause.vars);
+    }
+
+    // for $a in A return B[K = $a]  ==>  for $a in A for $b in join(B, K, $a) return $b
+    final HashJoin join = vars.isEmpty() ? null : HashJoin.get(ret, vars);
+    if(join != null) {
+      cc.info(QueryText.OPTJOIN_X, ret);
+      final Var var = cc.vs().addNew(new QNm("item"), null, false, cc.qc, info);
+      clauses.add(new For(var, null, null, join, false).optimize(cc));
+      ret = new VarRef(info, var).optimize(cc);
+    }
+  }
+
+  /**
+   * Limits the number of tuples returned by the last order by clause if only the first results
+   * of this expression will be requested. The order by clause may only be followed by let and
+   * count clauses, and the return expression must yield at least one item per tuple.
+   * @param max maximum number of requested results
+   * @param cc compilation context
+   */
+  public void limit(final long max, final CompileContext cc) {
+    if(max < 1 || !ret.seqType().oneOrMore()) return;
+    final ListIterator<Clause> iter = clauses.listIterator(clauses.size());
+    while(iter.hasPrevious()) {
+      final Clause clause = iter.previous();
+      if(clause instanceof OrderBy) {
+        final OrderBy order = (OrderBy) clause;
+        if(max < order.limit) {
+          cc.info(QueryText.OPTLIMIT_X_X, order, max);
+          order.limit = max;
+        }
+        return;
+      }
+      if(!(clause instanceof Let || clause instanceof Count)) return;
+    }
+  }
+
   /** Merges consecutive {@code where} clauses. */
   private void mergeWheres() {
     Where before = null;
@@ -745,7 +889,9 @@ public final class GFLWOR extends ParseExpr {
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final LinkedList<Clause> cls = new LinkedList<>();
     for(final Clause clause : clauses) cls.add(clause.copy(cc, vm));
-    return copyType(new GFLWOR(info, cls, ret.copy(cc, vm)));
+    final GFLWOR flwor = new GFLWOR(info, cls, ret.copy(cc, vm));
+    flwor.parallel = parallel;
+    return copyType(flwor);
   }
 
   /**
@@ -4,8 +4,8 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
 import java.util.*;
-import java.util.List;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.gflwor.GFLWOR.Clause;
@@ -15,6 +15,7 @@ import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -30,6 +31,8 @@ public final class OrderBy extends Clause {
   private VarRef[] refs;
   /** Sort keys. */
   private final Key[] keys;
+  /** Maximum number of tuples to be returned. */
+  long limit = Long.MAX_VALUE;
 
   /**
    * Constructor.
@@ -46,22 +49,16 @@ public final class OrderBy extends Clause {
   @Override
   Eval eval(final Eval sub) {
     return new Eval() {
-      /** Sorted output tuples. */
-      private Value[][] tpls;
-      /** Permutation of the values. */
-      private Integer[] perm;
-      /** Current position. */
-      int pos;
+      /** Sorted tuples. */
+      private ExternalSort tuples;
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
-        final int p = perm[pos++];
-        final Value[] tuple = tpls[p];
-        // free the space occupied by the tuple
-        tpls[p] = null;
-        final int rl = refs.length;
-        for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[r]);
+        if(tuples == null) sort(qc);
+        final Value[] tuple = tuples.next();
+        if(tuple == null) return false;
+        // keys are stored before the values
+        final int rl = refs.length, kl = keys.length;
+        for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[kl + r]);
         return true;
       }
 
@@ -71,57 +68,95 @@ public final class OrderBy extends Clause {
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
-        while(sub.next(qc)) {
-          final int kl = keys.length;
-          final Item[] key = new Item[kl];
-          for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info);
-          tuples.add(key);
-
-          final int rl = refs.length;
-          final Value[] vals = new Value[rl];
-          for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
-          tuples.add(vals);
+        tuples = new ExternalSort(comparator(), qc);
+        final long sortSize = qc.context.options.get(MainOptions.SORTSIZE);
+        try {
+          if(limit <= Integer.MAX_VALUE && (sortSize == 0 || limit <= sortSize)) {
+            for(final Value[] tuple : top(qc)) tuples.add(tuple);
+          } else {
+            while(sub.next(qc)) tuples.add(tuple(qc, 0));
+          }
+        } catch(final QueryException ex) {
+          tuples.close();
+          throw ex;
         }
+      }
 
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
-        }
-        // be nice to the garbage collector
-        tuples = null;
+      /**
+       * Returns the first tuples in sort order, using a bounded heap.
+       * @param qc query context
+       * @return sorted tuples
+       * @throws QueryException evaluation exception
+       */
+      private Value[][] top(final QueryContext qc) throws QueryException {
+        // the largest tuple is removed first; equal tuples are ordered by their input position
+        final Comparator<Value[]> cmp = comparator();
+        final MinHeap<Value[], Value[]> heap = new MinHeap<>((a, b) -> {
+          final int c = cmp.compare(b, a);
+          return c != 0 ? c : Long.compare(((Int) b[b.length - 1]).itr(),
+              ((Int) a[a.length - 1]).itr());
+        });
         try {
-          Arrays.sort(perm, (x, y) -> {
-            try {
-              final Item[] a = ks[x], b = ks[y];
-              final int kl = keys.length;
-              for(int k = 0; k < kl; k++) {
-                final Key key = keys[k];
-                Item m = a[k], n = b[k];
-                if(m == Dbl.NAN || m == Flt.NAN) m = null;
-                if(n == Dbl.NAN || n == Flt.NAN) n = null;
-                if(m != null && n != null && !m.comparable(n))
-                  throw castError(n, m.type, key.info);
-
-                final int c = m == null
-                    ? n == null ? 0                 : key.least ? -1 : 1
-                    : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
-                if(c != 0) return key.desc ? -c : c;
-              }
-              return 0;
-            } catch(final QueryException ex) {
-              throw new QueryRTException(ex);
-            }
-          });
+          for(long c = 0; sub.next(qc); c++) {
+            // append input position
+            final Value[] tuple = tuple(qc, 1);
+            tuple[tuple.length - 1] = Int.get(c);
+            heap.insert(tuple, tuple);
+            if(heap.size() > limit) heap.removeMin();
+          }
         } catch(final QueryRTException ex) {
           throw ex.getCause();
         }
+        final Value[][] top = new Value[heap.size()][];
+        for(int t = top.length; --t >= 0;) top[t] = heap.removeMin();
+        return top;
+      }
+
+      /**
+       * Creates a tuple with the sort keys and the values of the variables.
+       * @param qc query context
+       * @param extra number of additional entries
+       * @return tuple
+       * @throws QueryException evaluation exception
+       */
+      private Value[] tuple(final QueryContext qc, final int extra) throws QueryException {
+        final int kl = keys.length, rl = refs.length;
+        final Value[] tuple = new Value[kl + rl + extra];
+        for(int k = 0; k < kl; k++) {
+          final Item key = keys[k].expr.atomItem(qc, keys[k].info);
+          tuple[k] = key == null ? Empty.SEQ : key;
+        }
+        for(int r = 0; r < rl; r++) tuple[kl + r] = refs[r].value(qc);
+        return tuple;
+      }
+    };
+  }
+
+  /**
+   * Returns a comparator for tuples whose first values are the sort keys.
+   * @return comparator (may throw {@link QueryRTException})
+   */
+  private Comparator<Value[]> comparator() {
+    return (a, b) -> {
+      try {
+        final int kl = keys.length;
+        for(int k = 0; k < kl; k++) {
+          final Key key = keys[k];
+          Item m = a[k] == Empty.SEQ ? null : (Item) a[k];
+          Item n = b[k] == Empty.SEQ ? null : (Item) b[k];
+          if(m == Dbl.NAN || m == Flt.NAN) m = null;
+          if(n == Dbl.NAN || n == Flt.NAN) n = null;
+          if(m != null && n != null && !m.comparable(n))
+            throw castError(n, m.type, key.info);
+
+          final int c = m == null
+              ? n == null ? 0                 : key.least ? -1 : 1
+              : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
+          if(c != 0) return key.desc ? -c : c;
+        }
+        return 0;
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
       }
     };
   }
@@ -165,7 +200,9 @@ public final class OrderBy extends Clause {
 
   @Override
   public OrderBy copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info);
+    final OrderBy order = new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info);
+    order.limit = limit;
+    return order;
   }
 
   @Override
@@ -217,12 +254,12 @@ public final class OrderBy extends Clause {
     if(this == obj) return true;
     if(!(obj instanceof OrderBy)) return false;
     final OrderBy o = (OrderBy) obj;
-    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys);
+    return limit == o.limit && Array.equals(refs, o.refs) && Array.equals(keys, o.keys);
   }
 
   @Override
   public void plan(final FElem plan) {
-    final FElem e = planElem();
+    final FElem e = limit == Long.MAX_VALUE ? planElem() : planElem(MAX, limit);
     for(final Key key : keys) key.plan(e);
     plan.add(e);
   }
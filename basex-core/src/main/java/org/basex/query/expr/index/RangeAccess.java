@@ -63,13 +63,16 @@ public final class RangeAccess extends IndexAccess {
 
   @Override
   public void plan(final FElem plan) {
-    addPlan(plan, planElem(INDEX, index.type(), MIN, index.min, MAX, index.max), db);
+    addPlan(plan, planElem(INDEX, index.type(), MIN, index.min, MNI, index.mni, MAX, index.max,
+        MXI, index.mxi), db);
   }
 
   @Override
   public String toString() {
-    final Function func = index.type() == IndexType.TEXT ? Function._DB_TEXT_RANGE :
-      Function._DB_ATTRIBUTE_RANGE;
-    return func.toString(db, Dbl.get(index.min), Dbl.get(index.max));
+    final TokenBuilder tb = new TokenBuilder(Function._DB_OPEN.toString(db));
+    tb.add(index.type() == IndexType.TEXT ? "//text()" : "//@*").add("[number() ");
+    tb.add(index.mni ? ">= " : "> ").add(Dbl.get(index.min).toString()).add(' ').add(AND);
+    tb.add(" number() ").add(index.mxi ? "<= " : "< ").add(Dbl.get(index.max).toString());
+    return tb.add(']').toString();
   }
 }
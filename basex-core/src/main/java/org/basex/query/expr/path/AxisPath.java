@@ -31,13 +31,36 @@ public abstract class AxisPath extends Path {
 
   @Override
   public final Iter iter(final QueryContext qc) throws QueryException {
+    return iter(qc, true);
+  }
+
+  /**
+   * Returns an iterator that is only used for checking or counting the results.
+   * Database nodes may be reused by the iterator, and they must not be referenced after the
+   * next call.
+   * @param qc query context
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  public final Iter cursor(final QueryContext qc) throws QueryException {
+    return iter(qc, qc.scoring);
+  }
+
+  /**
+   * Returns an iterator.
+   * @param qc query context
+   * @param copy copy database nodes
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  private Iter iter(final QueryContext qc, final boolean copy) throws QueryException {
     final PathCache cache = caches.get();
     switch(cache.state) {
       case INIT:
         // first invocation: initialize caching flag
         cache.state = !hasFreeVars() && !has(Flag.NDT) && !has(Flag.UPD)
             ? State.ENABLED : State.DISABLED;
-        return iter(qc);
+        return iter(qc, copy);
       case ENABLED:
         // second invocation, caching is enabled: cache context value (copy light-weight db nodes)
         final Value value = qc.focus.value;
@@ -47,7 +70,7 @@ public abstract class AxisPath extends Path {
       case READY:
         // third invocation, ready for caching: cache result if context has not changed
         if(cache.sameContext(qc.focus.value, root)) {
-          cache.result = nodeIter(qc).value(qc);
+          cache.result = nodeIter(qc, true).value(qc);
           cache.state = State.CACHED;
         } else {
           // disable caching if context has changed
@@ -66,16 +89,17 @@ public abstract class AxisPath extends Path {
 
     // iterate or return cached values
     final Value result = cache.result;
-    return result == null ? nodeIter(qc) : result.iter();
+    return result == null ? nodeIter(qc, copy) : result.iter();
   }
 
   /**
    * Returns a node iterator.
    * @param qc query context
+   * @param copy copy database nodes (if {@code false}, nodes may be reused by the iterator)
    * @return iterator
    * @throws QueryException query exception
    */
-  protected abstract NodeIter nodeIter(QueryContext qc) throws QueryException;
+  protected abstract NodeIter nodeIter(QueryContext qc, boolean copy) throws QueryException;
 
   /**
    * Inverts a location path.
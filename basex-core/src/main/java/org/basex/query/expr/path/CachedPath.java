@@ -31,7 +31,7 @@ final class CachedPath extends AxisPath {
   }
 
   @Override
-  protected NodeIter nodeIter(final QueryContext qc) throws QueryException {
+  protected NodeIter nodeIter(final QueryContext qc, final boolean copy) throws QueryException {
     final QueryFocus qf = qc.focus, focus = new QueryFocus();
     final Value r = root != null ? qc.value(root) : qf.value;
     qc.focus = focus;
@@ -2,6 +2,7 @@ package org.basex.query.expr.path;
 
 import static org.basex.query.QueryError.*;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
@@ -30,13 +31,15 @@ final class IterPath extends AxisPath {
   }
 
   @Override
-  protected NodeIter nodeIter(final QueryContext qc) {
+  protected NodeIter nodeIter(final QueryContext qc, final boolean copy) {
     return new NodeIter() {
       Expr[] exprs;
       Iter[] iter;
+      boolean[] cursors;
       QueryFocus focus;
       ANode last;
-      int pos, sz;
+      Data data;
+      int pos, sz, pre;
       boolean r;
 
       @Override
@@ -55,14 +58,11 @@ final class IterPath extends AxisPath {
               if(pos++ == 0 && r && !(it instanceof ANode))
                 throw PATHNODE_X_X_X.get(info, steps[0], it.type, it);
               focus.value = it;
-              iter[pos] = qc.iter(exprs[pos]);
+              iter[pos] = iter(pos);
             } else {
               // cast is safe (axis steps will always yield nodes); skip identical nodes
               final ANode n = (ANode) it;
-              if(last == null || !last.is(n)) {
-                last = n;
-                return n;
-              }
+              if(!last(n)) return n;
             }
             qc.checkStop();
           } while(true);
@@ -71,12 +71,52 @@ final class IterPath extends AxisPath {
         }
       }
 
+      /**
+       * Checks if the specified node is identical to the last returned node.
+       * Database nodes are compared by their pre values, as they may be reused by the iterator.
+       * @param n node
+       * @return result of check
+       */
+      private boolean last(final ANode n) {
+        if(n instanceof DBNode) {
+          final DBNode dn = (DBNode) n;
+          if(dn.data() == data && dn.pre() == pre) return true;
+          data = dn.data();
+          pre = dn.pre();
+          last = null;
+        } else {
+          if(last != null && last.is(n)) return true;
+          last = n;
+          data = null;
+        }
+        return false;
+      }
+
+      /**
+       * Returns an iterator for the specified expression.
+       * @param p index of expression
+       * @return iterator
+       * @throws QueryException query exception
+       */
+      private Iter iter(final int p) throws QueryException {
+        return cursors[p] ? ((IterStep) exprs[p]).iter(qc, false) : qc.iter(exprs[p]);
+      }
+
       private void init(final QueryFocus qf) throws QueryException {
         r = root != null;
         sz = steps.length + (r ? 1 : 0);
         exprs = r ? new ExprList(sz).add(root).add(steps).finish() : steps;
+        // nodes need not be copied if they are only used as context of a subsequent step,
+        // or if they are returned to a caller that does not reference them
+        cursors = new boolean[sz];
+        if(!qc.scoring) {
+          for(int e = 0; e < sz; e++) {
+            cursors[e] = exprs[e] instanceof IterStep &&
+                (e < sz - 1 ? exprs[e + 1] instanceof IterStep : !copy);
+          }
+        }
         iter = new Iter[sz];
-        iter[0] = qc.iter(exprs[0]);
+        iter[0] = iter(0);
         focus = new QueryFocus();
         focus.value = qf.value;
       }
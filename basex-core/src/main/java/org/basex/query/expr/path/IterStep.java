@@ -29,6 +29,17 @@ final class IterStep extends Step {
 
   @Override
   public NodeIter iter(final QueryContext qc) {
+    return iter(qc, true);
+  }
+
+  /**
+   * Returns a node iterator.
+   * @param qc query context
+   * @param copy copy nodes (if {@code false}, database nodes will be reused by the iterator,
+   *   and they must not be referenced after the next call)
+   * @return iterator
+   */
+  NodeIter iter(final QueryContext qc, final boolean copy) {
     return new NodeIter() {
       BasicNodeIter iter;
 
@@ -37,7 +48,7 @@ final class IterStep extends Step {
         if(iter == null) iter = axis.iter(checkNode(qc));
         for(final ANode node : iter) {
           qc.checkStop();
-          if(test.eq(node) && preds(node, qc)) return node.finish();
+          if(test.eq(node) && preds(node, qc)) return copy ? node.finish() : node;
         }
         return null;
       }
@@ -0,0 +1,111 @@
+package org.basex.query.expr.path;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Step expression: parallel evaluation of the descendant and descendant-or-self axes
+ * ({@link MainOptions#PARALLELQUERY}). If the context node is a database node with a large
+ * subtree, the first nodes of its pre range are iterated lazily, so that consumers that only
+ * request the first results can stop early. If more results are requested, the remaining range
+ * is scanned in parallel, in partitions of growing size. The results are returned in document
+ * order.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class ParallelStep extends Step {
+  /** Minimum number of nodes of a subtree to be scanned in parallel. */
+  private static final int MINSIZE = 1 << 16;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param axis axis
+   * @param test node test
+   * @param preds predicates
+   */
+  ParallelStep(final InputInfo info, final Axis axis, final Test test, final Expr[] preds) {
+    super(info, axis, test, preds);
+  }
+
+  @Override
+  public NodeIter iter(final QueryContext qc) throws QueryException {
+    final ANode root = checkNode(qc);
+    if(root instanceof DBNode && !qc.scoring &&
+        qc.context.jobs.forkJoin().getParallelism() > 1) {
+      final DBNode node = (DBNode) root;
+      final Data data = node.data();
+      final int pre = node.pre(), kind = data.kind(pre), size = data.size(pre, kind);
+      if(size >= MINSIZE) {
+        final int start = axis == Axis.DESC ? pre + data.attSize(pre, kind) : pre;
+        return new NodeIter() {
+          final DBNodeIter first = node.range(start, Math.min(start + MINSIZE, pre + size));
+          Iter iter;
+          int curr = Math.min(start + MINSIZE, pre + size);
+          long next = MINSIZE;
+
+          @Override
+          public ANode next() throws QueryException {
+            if(iter == null) {
+              for(DBNode nd; (nd = first.next()) != null;) {
+                qc.checkStop();
+                if(test.eq(nd) && preds(nd, qc)) return nd.finish();
+              }
+              iter = Empty.ITER;
+            }
+            while(true) {
+              final Item item = iter.next();
+              if(item != null) return (ANode) item;
+              final int end = pre + size;
+              if(curr == end) return null;
+              // further results are requested: scan partitions of growing size in parallel
+              next <<= 1;
+              final int s = curr, e = (int) Math.min(end, s + next);
+              iter = ParallelTask.value(e - s, (qctx, ps, pe) -> {
+                final IntList pres = new IntList();
+                final DBNodeIter nodes = node.range((int) (s + ps), (int) (s + pe));
+                for(DBNode nd; (nd = nodes.next()) != null;) {
+                  qctx.checkStop();
+                  if(test.eq(nd) && preds(nd, qctx)) pres.add(nd.pre());
+                }
+                return DBNodeSeq.get(pres, data, false, false);
+              }, qc).iter();
+              curr = e;
+            }
+          }
+        };
+      }
+    }
+
+    // small subtree: iterative evaluation
+    return new NodeIter() {
+      final BasicNodeIter iter = axis.iter(root);
+
+      @Override
+      public ANode next() throws QueryException {
+        for(final ANode node : iter) {
+          qc.checkStop();
+          if(test.eq(node) && preds(node, qc)) return node.finish();
+        }
+        return null;
+      }
+    };
+  }
+
+  @Override
+  public ParallelStep copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new ParallelStep(info, axis, test.copy(), Arr.copyAll(cc, vm, exprs)));
+  }
+}
@@ -176,6 +176,12 @@ public abstract class Path extends ParseExpr {
     e = children(cc, rt);
     if(e != this) return e.optimize(cc);
 
+    // scan large subtrees in parallel
+    final int st = steps.length;
+    for(int s = 0; s < st; s++) {
+      if(steps[s] instanceof Step) steps[s] = ((Step) steps[s]).parallel(cc);
+    }
+
     // choose best path implementation and set type information
     final Path path = get(info, root, steps);
     final int sl = path.steps.length;
@@ -618,13 +624,14 @@ public abstract class Path extends ParseExpr {
       final int el = step.exprs.length;
       if(el > 0) {
         // check if path is iterable (i.e., will be duplicate-free)
-        final boolean iter = pathNodes(data, s) != null;
+        final ArrayList<PathNode> nodes = pathNodes(data, s);
+        final boolean iter = nodes != null;
         final IndexDb db = data != null ? new IndexStaticDb(data, iter, info) :
           new IndexDynDb(info, iter, root == null ? new ContextValue(info) : root);
 
         // choose cheapest index access
         for(int e = 0; e < el; e++) {
-          final IndexInfo ii = new IndexInfo(db, cc.qc, step);
+          final IndexInfo ii = new IndexInfo(db, cc.qc, step, nodes);
           if(!step.exprs[e].indexAccessible(ii)) continue;
 
           if(ii.costs.results() == 0) {
@@ -5,6 +5,7 @@ import static org.basex.query.QueryText.*;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.name.*;
 import org.basex.index.path.*;
@@ -100,6 +101,20 @@ public abstract class Step extends Preds {
     return copyType(get(info, axis, test, exprs));
   }
 
+  /**
+   * Returns a step that scans large subtrees in parallel ({@link MainOptions#PARALLELQUERY}).
+   * @param cc compilation context
+   * @return new or original step
+   */
+  final Step parallel(final CompileContext cc) {
+    if(this instanceof IterStep && (axis == Axis.DESC || axis == Axis.DESCORSELF) &&
+        cc.qc.context.options.get(MainOptions.PARALLELQUERY) && !has(Flag.NDT)) {
+      cc.info(OPTPARALLEL_X, this);
+      return copyType(new ParallelStep(info, axis, test, exprs));
+    }
+    return this;
+  }
+
   @Override
   public Expr inline(final Var var, final Expr ex, final CompileContext cc) throws QueryException {
     return inlineAll(exprs, var, ex, cc) ? optimize(cc) : null;
@@ -90,7 +90,7 @@ public final class FuncLit extends Single implements Scope {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    final VarScope scp = new VarScope(vs.sc);
+    final VarScope scp = new VarScope(cc.sc(vs.sc));
     cc.pushScope(scp);
     try {
       final int al = args.length;
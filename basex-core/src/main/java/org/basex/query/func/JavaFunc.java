@@ -63,7 +63,7 @@ final class JavaFunc extends JavaFunction {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new JavaFunc(sc, info, clazz, method, types, copyAll(cc, vm, exprs));
+    return new JavaFunc(cc.sc(sc), info, clazz, method, types, copyAll(cc, vm, exprs));
   }
 
   /**
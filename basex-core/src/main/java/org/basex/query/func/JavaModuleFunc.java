@@ -90,7 +90,7 @@ final class JavaModuleFunc extends JavaFunction {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new JavaModuleFunc(sc, info, module, method, copyAll(cc, vm, exprs), perm);
+    return new JavaModuleFunc(cc.sc(sc), info, module, method, copyAll(cc, vm, exprs), perm);
   }
 
   @Override
@@ -114,7 +114,7 @@ public final class PartFunc extends Arr {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new PartFunc(sc, info, body().copy(cc, vm),
+    return new PartFunc(cc.sc(sc), info, body().copy(cc, vm),
         copyAll(cc, vm, Arrays.copyOf(exprs, exprs.length - 1)), holes.clone());
   }
 
@@ -8,6 +8,7 @@ import java.io.*;
 import java.net.*;
 import java.nio.charset.*;
 import java.nio.file.*;
+import java.nio.file.Path;
 import java.util.*;
 
 import org.basex.core.*;
@@ -19,6 +20,7 @@ import org.basex.io.serial.*;
 import org.basex.query.*;
 import org.basex.query.ann.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
@@ -95,7 +97,7 @@ public abstract class StandardFunc extends Arr {
     final int es = exprs.length;
     final Expr[] arg = new Expr[es];
     for(int e = 0; e < es; e++) arg[e] = exprs[e].copy(cc, vm);
-    return copyType(sig.get(sc, info, arg));
+    return copyType(sig.get(cc.sc(sc), info, arg));
   }
 
   /**
@@ -170,6 +172,22 @@ public abstract class StandardFunc extends Arr {
     return exprs.length == i ? ctxValue(qc) : exprs[i];
   }
 
+  /**
+   * Returns an iterator for the specified argument, which is only used for checking or counting
+   * the results. Returned database nodes may be reused, and they must not be referenced after the
+   * next call.
+   * @param i index of argument
+   * @param qc query context
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  protected final Iter cursor(final int i, final QueryContext qc) throws QueryException {
+    final Expr expr = exprs[i];
+    if(!(expr instanceof AxisPath)) return qc.iter(expr);
+    qc.checkStop();
+    return ((AxisPath) expr).cursor(qc);
+  }
+
   /**
    * Checks if the specified expression is a database node.
    * Returns the node or an exception.
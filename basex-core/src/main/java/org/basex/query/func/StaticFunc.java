@@ -59,6 +59,54 @@ public final class StaticFunc extends StaticDecl implements XQFunction {
     updating = anns.contains(Annotation.UPDATING);
   }
 
+  /**
+   * Copy constructor.
+   * @param sf function to copy
+   * @param args arguments
+   * @param vs variable scope
+   */
+  private StaticFunc(final StaticFunc sf, final Var[] args, final VarScope vs) {
+    super(sf, vs);
+    this.args = args;
+    updating = sf.updating;
+  }
+
+  /**
+   * Creates an uncompiled copy of this function and registers it in the compilation context.
+   * The function body is copied by a task that is added to the specified list, as it may
+   * reference declarations that have not been copied yet.
+   * @param cc compilation context
+   * @param bodies tasks for copying the function bodies
+   * @return copy
+   */
+  StaticFunc copy(final CompileContext cc, final ArrayList<Runnable> bodies) {
+    final VarScope scope = new VarScope(cc.sc(sc));
+    final IntObjMap<Var> vm = new IntObjMap<>();
+    cc.pushScope(scope);
+    final StaticFunc sf;
+    try {
+      vs.copy(cc, vm);
+      final int al = args.length;
+      final Var[] vars = new Var[al];
+      for(int a = 0; a < al; a++) vars[a] = vm.get(args[a].id);
+      sf = new StaticFunc(this, vars, scope);
+    } finally {
+      cc.removeScope();
+    }
+    cc.copied(this, sf);
+    if(expr != null) {
+      bodies.add(() -> {
+        cc.pushScope(scope);
+        try {
+          sf.expr = expr.copy(cc, vm);
+        } finally {
+          cc.removeScope();
+        }
+      });
+    }
+    return sf;
+  }
+
   @Override
   public void comp(final CompileContext cc) {
     if(compiled || expr == null) return;
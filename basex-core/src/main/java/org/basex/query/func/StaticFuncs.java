@@ -107,6 +107,14 @@ public final class StaticFuncs extends ExprInfo {
     return getRef(name, args, sc, ii);
   }
 
+  /**
+   * Checks if no functions have been declared or referenced.
+   * @return result of check
+   */
+  public boolean isEmpty() {
+    return funcs.isEmpty();
+  }
+
   /**
    * Registers a literal for a function that was not yet encountered during parsing.
    * @param lit the literal
@@ -154,6 +162,19 @@ public final class StaticFuncs extends ExprInfo {
     }
   }
 
+  /**
+   * Copies all declared functions to the function container of the compilation context.
+   * Function calls are not registered: the copies must be evaluated via a main module.
+   * @param cc compilation context
+   * @param bodies tasks for copying the function bodies
+   */
+  public void copy(final CompileContext cc, final ArrayList<Runnable> bodies) {
+    for(final byte[] sig : funcs) {
+      final StaticFunc sf = funcs.get(sig).func;
+      cc.qc.funcs.funcs.put(sig, new FuncCache(sf.copy(cc, bodies)));
+    }
+  }
+
   /**
    * Checks if the updating semantics are satisfied.
    * @throws QueryException query exception
@@ -6,8 +6,8 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.func.fn.*;
+import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
-import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.array.*;
 import org.basex.query.value.array.Array;
@@ -31,17 +31,16 @@ public final class ArraySort extends StandardFunc {
       if(tok != null) coll = Collation.get(tok, qc, sc, info, WHICHCOLL_X);
     }
 
-    final long sz = array.arraySize();
-    final ValueList vl = new ValueList((int) Math.min(Integer.MAX_VALUE, sz));
-    if(exprs.length > 2) {
-      final FItem key = checkArity(exprs[2], 1, qc);
-      for(final Value value : array.members()) vl.add(key.invokeValue(qc, info, value));
-    } else {
-      for(final Value value : array.members()) vl.add(value.atomValue(info));
+    final FItem key = exprs.length > 2 ? checkArity(exprs[2], 1, qc) : null;
+    final ExternalSort sort = new ExternalSort(FnSort.comparator(this, coll), qc);
+    for(final Value value : array.members()) {
+      qc.checkStop();
+      sort.add(new Value[] { key != null ? key.invokeValue(qc, info, value) :
+        value.atomValue(info), value });
     }
 
     final ArrayBuilder builder = new ArrayBuilder();
-    for(final int order : FnSort.sort(vl, this, coll)) builder.append(array.get(order));
+    for(Value[] record; (record = sort.next()) != null;) builder.append(record[1]);
     return builder.freeze();
   }
 
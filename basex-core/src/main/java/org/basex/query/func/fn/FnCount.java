@@ -18,7 +18,7 @@ import org.basex.util.*;
 public final class FnCount extends StandardFunc {
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
-    final Iter iter = qc.iter(exprs[0]);
+    final Iter iter = cursor(0, qc);
     long c = iter.size();
     if(c == -1) {
       do {
@@ -16,7 +16,7 @@ import org.basex.util.*;
 public final class FnExists extends StandardFunc {
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
-    return Bln.get(qc.iter(exprs[0]).next() != null);
+    return Bln.get(cursor(0, qc).next() != null);
   }
 
   @Override
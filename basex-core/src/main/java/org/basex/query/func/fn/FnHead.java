@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
@@ -27,6 +28,7 @@ public final class FnHead extends StandardFunc {
     final SeqType st = e.seqType();
     if(st.zeroOrOne()) return e;
     seqType = st.withOcc(Occ.ZERO_ONE);
+    if(e instanceof GFLWOR) ((GFLWOR) e).limit(1, cc);
     return this;
   }
 }
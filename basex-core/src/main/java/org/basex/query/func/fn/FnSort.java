@@ -8,8 +8,8 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
-import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
@@ -23,27 +23,25 @@ import org.basex.query.value.type.*;
 public final class FnSort extends StandardFunc {
   @Override
   public Iter iter(final QueryContext qc) throws QueryException {
-    final Value value = qc.value(exprs[0]);
     Collation coll = sc.collation;
     if(exprs.length > 1) {
       final byte[] tok = toTokenOrNull(exprs[1], qc);
       if(tok != null) coll = Collation.get(tok, qc, sc, info, WHICHCOLL_X);
     }
+    final FItem key = exprs.length > 2 ? checkArity(exprs[2], 1, qc) : null;
 
-    final long sz = value.size();
-    final ValueList vl = new ValueList((int) Math.min(Integer.MAX_VALUE, sz));
-    if(exprs.length > 2) {
-      final FItem key = checkArity(exprs[2], 1, qc);
-      for(final Item it : value) vl.add(key.invokeValue(qc, info, it));
-    } else {
-      for(final Item it : value) vl.add(it.atomValue(info));
+    // sort records with keys and items
+    final ExternalSort sort = new ExternalSort(comparator(this, coll), qc);
+    final Iter iter = qc.iter(exprs[0]);
+    for(Item it; (it = iter.next()) != null;) {
+      qc.checkStop();
+      sort.add(new Value[] { key != null ? key.invokeValue(qc, info, it) : it.atomValue(info), it });
     }
-
-    final Integer[] order = sort(vl, this, coll);
-    return new BasicIter<Item>(sz) {
+    return new Iter() {
       @Override
-      public Item get(final long i) {
-        return value.itemAt(order[(int) i]);
+      public Item next() throws QueryException {
+        final Value[] record = sort.next();
+        return record != null ? (Item) record[1] : null;
       }
     };
   }
@@ -54,46 +52,34 @@ public final class FnSort extends StandardFunc {
   }
 
   /**
-   * Sort the input data.
-   * @param vl value list.
+   * Returns a comparator for records whose first values are sort keys.
    * @param sf calling function
    * @param coll collation
-   * @return item order
-   * @throws QueryException query exception
+   * @return comparator (may throw {@link QueryRTException})
    */
-  public static Integer[] sort(final ValueList vl, final StandardFunc sf, final Collation coll)
-      throws QueryException {
-
-    final int al = vl.size();
-    final Integer[] order = new Integer[al];
-    for(int o = 0; o < al; o++) order[o] = o;
-    try {
-      Arrays.sort(order, (i1, i2) -> {
-        try {
-          final Value v1 = vl.get(i1), v2 = vl.get(i2);
-          final long s1 = v1.size(), s2 = v2.size(), sl = Math.min(s1, s2);
-          for(int v = 0; v < sl; v++) {
-            Item m = v1.itemAt(v), n = v2.itemAt(v);
-            if(m == Dbl.NAN || m == Flt.NAN) m = null;
-            if(n == Dbl.NAN || n == Flt.NAN) n = null;
-            if(m != null && n != null && !m.comparable(n)) {
-              throw m instanceof FItem ? FIEQ_X.get(sf.info, m.type) :
-                    n instanceof FItem ? FIEQ_X.get(sf.info, n.type) :
-                    diffError(m, n, sf.info);
-            }
-            final int d = m == null ? n == null ? 0 : -1 : n == null ? 1 :
-              m.diff(n, coll, sf.info);
-            if(d != 0 && d != Item.UNDEF) return d;
+  public static Comparator<Value[]> comparator(final StandardFunc sf, final Collation coll) {
+    return (r1, r2) -> {
+      try {
+        final Value v1 = r1[0], v2 = r2[0];
+        final long s1 = v1.size(), s2 = v2.size(), sl = Math.min(s1, s2);
+        for(int v = 0; v < sl; v++) {
+          Item m = v1.itemAt(v), n = v2.itemAt(v);
+          if(m == Dbl.NAN || m == Flt.NAN) m = null;
+          if(n == Dbl.NAN || n == Flt.NAN) n = null;
+          if(m != null && n != null && !m.comparable(n)) {
+            throw m instanceof FItem ? FIEQ_X.get(sf.info, m.type) :
+                  n instanceof FItem ? FIEQ_X.get(sf.info, n.type) :
+                  diffError(m, n, sf.info);
           }
-          return (int) (s1 - s2);
-        } catch(final QueryException ex) {
-          throw new QueryRTException(ex);
+          final int d = m == null ? n == null ? 0 : -1 : n == null ? 1 :
+            m.diff(n, coll, sf.info);
+          if(d != 0 && d != Item.UNDEF) return d;
         }
-      });
-    } catch(final QueryRTException ex) {
-      throw ex.getCause();
-    }
-    return order;
+        return (int) (s1 - s2);
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    };
   }
 
   @Override
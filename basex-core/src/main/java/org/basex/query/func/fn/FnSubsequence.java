@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
@@ -180,10 +181,19 @@ public class FnSubsequence extends StandardFunc {
   }
 
   @Override
-  protected Expr opt(final CompileContext cc) {
+  protected Expr opt(final CompileContext cc) throws QueryException {
     final SeqType st = exprs[0].seqType();
     if(st.zero()) return exprs[0];
     seqType = st.withOcc(st.occ.union(Occ.ZERO));
+
+    // static range: limit number of sorted tuples of an ordered FLWOR expression
+    if(exprs[0] instanceof GFLWOR && exprs[1] instanceof ANum &&
+        (exprs.length < 3 || exprs[2] instanceof ANum)) {
+      final long[] range = range(cc.qc);
+      if(range != null && range != ALL && range[1] != Long.MAX_VALUE) {
+        ((GFLWOR) exprs[0]).limit(range[0] + range[1] - 1, cc);
+      }
+    }
     return this;
   }
 }
@@ -2,10 +2,11 @@ package org.basex.query.func.hof;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
-import org.basex.query.util.list.*;
+import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
@@ -24,16 +25,23 @@ public final class HofSortWith extends HofFn {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
-    final Value v = qc.value(exprs[0]);
     final Comparator<Item> cmp = getComp(1, qc);
-    if(v.size() < 2) return v;
-    final ItemList items = v.cache();
-    try {
-      Arrays.sort(items.list, 0, items.size(), cmp);
-    } catch(final QueryRTException ex) {
-      throw ex.getCause();
+    // spilled runs are merged: report equal items as such to retain their order
+    final Comparator<Value[]> rc = qc.context.options.get(MainOptions.SORTSIZE) > 0 ?
+      (r1, r2) -> {
+        final Item i1 = (Item) r1[0], i2 = (Item) r2[0];
+        return cmp.compare(i1, i2) < 0 ? -1 : cmp.compare(i2, i1) < 0 ? 1 : 0;
+      } :
+      (r1, r2) -> cmp.compare((Item) r1[0], (Item) r2[0]);
+    final ExternalSort sort = new ExternalSort(rc, qc);
+    final Iter iter = qc.iter(exprs[0]);
+    for(Item it; (it = iter.next()) != null;) {
+      qc.checkStop();
+      sort.add(new Value[] { it });
     }
-    return items.value();
+    final ValueBuilder vb = new ValueBuilder();
+    for(Value[] record; (record = sort.next()) != null;) vb.add(record[0]);
+    return vb.value();
   }
 
   @Override
@@ -2,6 +2,7 @@ package org.basex.query.func.util;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.item.*;
@@ -42,6 +43,10 @@ public final class UtilItemAt extends StandardFunc {
     final SeqType st = e.seqType();
     if(st.zero()) return e;
     seqType = st.withOcc(Occ.ZERO_ONE);
+    if(e instanceof GFLWOR && exprs[1] instanceof ANum) {
+      final ANum pos = (ANum) exprs[1];
+      if(pos.dbl() == pos.itr()) ((GFLWOR) e).limit(pos.itr(), cc);
+    }
     return this;
   }
 }
@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
 
 import org.basex.core.jobs.*;
 import org.basex.core.users.*;
@@ -83,35 +84,27 @@ public class XQueryEval extends StandardFunc {
 
     final User user = qc.context.user();
     final Perm tmp = user.perm("");
-    Timer to = null;
+    ScheduledFuture<?> mem = null, to = null;
 
     final Perm perm = Perm.get(opts.get(XQueryOptions.PERMISSION).toString());
     if(!user.has(perm)) throw BXXQ_PERM2_X.get(info, perm);
     user.perm(perm);
 
+    // timers are run by the shared timer of the job pool
+    final JobPool jobs = qc.context.jobs;
     try(QueryContext qctx = new QueryContext(qc)) {
       // limit memory consumption: enforce garbage collection and calculate usage
       final long mb = opts.get(XQueryOptions.MEMORY);
       if(mb != 0) {
         Performance.gc(2);
         final long limit = Performance.memory() + (mb << 20);
-        to = new Timer(true);
-        to.schedule(new TimerTask() {
-          @Override
-          // limit reached: stop query
-          public void run() { if(Performance.memory() > limit) qctx.memory(); }
-        }, 500, 500);
+        // limit reached: stop query
+        mem = jobs.schedule(() -> { if(Performance.memory() > limit) qctx.memory(); }, 500, 500);
       }
 
       // timeout
       final long ms = opts.get(XQueryOptions.TIMEOUT) * 1000L;
-      if(ms != 0) {
-        if(to == null) to = new Timer(true);
-        to.schedule(new TimerTask() {
-          @Override
-          public void run() { qctx.timeout(); }
-        }, ms);
-      }
+      if(ms != 0) to = jobs.schedule(qctx::timeout, ms);
 
       // base-uri: adopt specified uri, passed on uri, or uri from parent query
       final String bu = opts.get(XQueryOptions.BASE_URI);
@@ -154,7 +147,8 @@ public class XQueryEval extends StandardFunc {
         throw ex;
       }
     } finally {
-      if(to != null) to.cancel();
+      if(mem != null) mem.cancel(false);
+      if(to != null) to.cancel(false);
       user.perm(tmp, "");
     }
   }
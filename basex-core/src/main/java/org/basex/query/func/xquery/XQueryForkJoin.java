@@ -12,6 +12,7 @@ import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
+import org.basex.util.options.*;
 
 /**
  * Function implementation.
@@ -19,6 +20,12 @@ import org.basex.util.*;
  * @author James Wright
  */
 public final class XQueryForkJoin extends StandardFunc {
+  /** Fork-join options. */
+  public static final class ForkJoinOptions extends Options {
+    /** Maximum number of functions evaluated in parallel (0: no limit). */
+    public static final NumberOption PARALLEL = new NumberOption("parallel", 0);
+  }
+
   @Override
   public Value value(final QueryContext qc) throws QueryException {
     final Value funcs = qc.value(exprs[0]);
@@ -26,24 +33,35 @@ public final class XQueryForkJoin extends StandardFunc {
       if(!(func instanceof FItem) || ((FItem) func).arity() != 0)
         throw ZEROFUNCS_X_X.get(info, func.type, func);
     }
+    final ForkJoinOptions opts = new ForkJoinOptions();
+    if(exprs.length > 1) toOptions(1, opts, qc);
+
     // no functions specified: return empty sequence
-    if(funcs.isEmpty()) return Empty.SEQ;
+    final int size = (int) funcs.size();
+    if(size == 0) return Empty.SEQ;
     // single function: invoke directly
-    if(funcs.size() == 1) return ((FItem) funcs.itemAt(0)).invokeValue(qc, info);
+    final int parallel = opts.get(ForkJoinOptions.PARALLEL);
+    if(size == 1 || parallel == 1) {
+      final ValueBuilder vb = new ValueBuilder();
+      for(final Item func : funcs) vb.add(((FItem) func).invokeValue(qc, info));
+      return vb.value();
+    }
 
-    final ForkJoinPool pool = new ForkJoinPool();
-    final XQueryTask task = new XQueryTask(funcs, qc, info);
+    // evaluate functions in the shared pool; limit number of tasks to the requested parallelism
+    final int chunk = parallel > 1 ? (size + parallel - 1) / parallel : 1;
+    final XQueryTask task = new XQueryTask(funcs, chunk, qc, info);
     try {
-      return pool.invoke(task);
+      return qc.context.jobs.forkJoin().invoke(task);
     } catch(final Exception ex) {
-      // pass on query and job exceptions
-      final Throwable e = Util.rootException(ex);
+      // pass on query and job exceptions (prefer first error)
+      final Throwable error = task.error();
+      final Throwable e = Util.rootException(error != null ? error : ex);
       if(e instanceof QueryException) throw (QueryException) e;
       if(e instanceof JobException) throw (JobException) e;
       throw BXXQ_UNEXPECTED_X.get(info, e);
     } finally {
-      // required?
-      pool.shutdown();
+      // stop tasks that may still be running
+      task.stop();
     }
   }
 
@@ -1,6 +1,8 @@
 package org.basex.query.func.xquery;
 
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.query.*;
 import org.basex.query.value.*;
@@ -15,6 +17,8 @@ import org.basex.util.*;
 final class XQueryTask extends RecursiveTask<Value> {
   /** Functions to evaluate in parallel. */
   private final Value funcs;
+  /** Maximum number of functions evaluated by a single task. */
+  private final int chunk;
   /** Query context. */
   private final QueryContext qc;
   /** Input info. */
@@ -23,54 +27,104 @@ final class XQueryTask extends RecursiveTask<Value> {
   private final int start;
   /** Last function to evaluate. */
   private final int end;
+  /** Query contexts of running tasks (shared by all tasks). */
+  private final Set<QueryContext> running;
+  /** First error (shared by all tasks). */
+  private final AtomicReference<Throwable> error;
 
   /**
    * Constructor.
    * @param funcs functions to evaluate
+   * @param chunk maximum number of functions evaluated by a single task
    * @param qc query context
    * @param ii input info
    */
-  XQueryTask(final Value funcs, final QueryContext qc, final InputInfo ii) {
-    this(funcs, qc, ii, 0, (int) funcs.size());
+  XQueryTask(final Value funcs, final int chunk, final QueryContext qc, final InputInfo ii) {
+    this(funcs, chunk, qc, ii, 0, (int) funcs.size(),
+        Collections.newSetFromMap(new ConcurrentHashMap<>()), new AtomicReference<>());
   }
 
   /**
    * Private constructor.
    * @param funcs functions to evaluate
+   * @param chunk maximum number of functions evaluated by a single task
    * @param qc query context
    * @param ii input info
    * @param start first function to evaluate
    * @param end last function to evaluate
+   * @param running query contexts of running tasks
+   * @param error first error
    */
-  private XQueryTask(final Value funcs, final QueryContext qc, final InputInfo ii,
-      final int start, final int end) {
+  private XQueryTask(final Value funcs, final int chunk, final QueryContext qc,
+      final InputInfo ii, final int start, final int end, final Set<QueryContext> running,
+      final AtomicReference<Throwable> error) {
     this.funcs = funcs;
-    this.qc = new QueryContext(qc);
+    this.chunk = chunk;
+    this.qc = qc;
     this.ii = ii;
     this.start = start;
     this.end = end;
+    this.running = running;
+    this.error = error;
+  }
+
+  /**
+   * Stops all tasks that are currently running.
+   */
+  void stop() {
+    for(final QueryContext qctx : running) qctx.stop();
+  }
+
+  /**
+   * Returns the first error that occurred while evaluating the tasks.
+   * Subsequent errors may have been caused by stopping the remaining tasks.
+   * @return error or {@code null}
+   */
+  Throwable error() {
+    return error.get();
+  }
+
+  /**
+   * Registers an error and stops all other tasks.
+   * @param ex error
+   */
+  private void error(final Throwable ex) {
+    error.compareAndSet(null, ex);
+    stop();
   }
 
   @Override
   protected Value compute() {
     final ValueBuilder vb = new ValueBuilder();
     final int s = start, e = end, l = e - s;
-    if(l == 1) {
-      // perform the work
+    if(l <= chunk) {
+      // perform the work (skip it if the parent query has been stopped)
+      qc.checkStop();
+      final QueryContext qctx = new QueryContext(qc);
+      running.add(qctx);
+      // another task has failed: skip evaluation
+      if(error.get() != null) qctx.stop();
       try {
-        vb.add(((FItem) funcs.itemAt(s)).invokeValue(qc, ii));
+        for(int f = s; f < e; f++) {
+          qctx.checkStop();
+          vb.add(((FItem) funcs.itemAt(f)).invokeValue(qctx, ii));
+        }
       } catch(final QueryException ex) {
+        error(ex);
         completeExceptionally(ex);
-        cancel(true);
+      } catch(final RuntimeException ex) {
+        error(ex);
+        throw ex;
       } finally {
-        qc.close();
+        running.remove(qctx);
+        qctx.close();
       }
-    } else if(l > 1) {
+    } else {
       // split the work and join the results in the correct order
-      final int m = s + l / 2;
-      final XQueryTask task2 = new XQueryTask(funcs, qc, ii, m, e);
+      final int m = s + (l + chunk - 1) / chunk / 2 * chunk;
+      final XQueryTask task2 = new XQueryTask(funcs, chunk, qc, ii, m, e, running, error);
       task2.fork();
-      final XQueryTask task1  = new XQueryTask(funcs, qc, ii, s, m);
+      final XQueryTask task1 = new XQueryTask(funcs, chunk, qc, ii, s, m, running, error);
       vb.add(task1.invoke()).add(task2.join());
     }
     return vb.value();
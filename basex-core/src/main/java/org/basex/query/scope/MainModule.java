@@ -73,6 +73,28 @@ public final class MainModule extends Module {
     this.declType = declType;
   }
 
+  /**
+   * Creates a copy of this module, which can be compiled and evaluated by another query.
+   * The module must not have been compiled yet, and it must not reference any global
+   * functions or variables.
+   * @param qc query context
+   * @param sctx static context of the copy
+   * @return copy
+   */
+  public MainModule copy(final QueryContext qc, final StaticContext sctx) {
+    final CompileContext cc = new CompileContext(qc);
+    cc.copied(sc, sctx);
+    final VarScope scope = new VarScope(sctx);
+    cc.pushScope(scope);
+    try {
+      final IntObjMap<Var> vm = new IntObjMap<>();
+      vs.copy(cc, vm);
+      return new MainModule(scope, expr.copy(cc, vm), declType, null, info, null, null, null);
+    } finally {
+      cc.removeScope();
+    }
+  }
+
   @Override
   public void comp(final CompileContext cc) throws QueryException {
     if(compiled) return;
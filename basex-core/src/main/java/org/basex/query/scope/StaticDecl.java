@@ -40,6 +40,19 @@ public abstract class StaticDecl extends StaticScope {
     this.type = type;
   }
 
+  /**
+   * Copy constructor.
+   * The root expression of the declaration is not copied.
+   * @param decl declaration to copy
+   * @param vs variable scope of the copy
+   */
+  protected StaticDecl(final StaticDecl decl, final VarScope vs) {
+    super(decl, vs);
+    anns = decl.anns;
+    name = decl.name;
+    type = decl.type;
+  }
+
   /**
    * Returns a unique identifier for this declaration.
    * @return a byte sequence that uniquely identifies this declaration
@@ -47,6 +47,18 @@ public abstract class StaticScope extends ExprInfo implements Scope {
     this.info = info;
   }
 
+  /**
+   * Copy constructor.
+   * @param scope scope to copy
+   * @param vs variable scope of the copy
+   */
+  StaticScope(final StaticScope scope, final VarScope vs) {
+    sc = scope.sc;
+    this.vs = vs;
+    doc = scope.doc;
+    info = scope.info;
+  }
+
   @Override
   public final boolean compiled() {
     return compiled;
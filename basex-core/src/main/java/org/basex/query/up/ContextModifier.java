@@ -123,9 +123,16 @@ public abstract class ContextModifier {
       throw BXDB_LOCK_X.get(null, ex);
     } finally {
       // remove locks: in case of a crash, remove only already acquired write locks
+      IOException error = null;
       for(final Data data : datas) {
-        data.finishUpdate(ctx.options);
+        try {
+          data.finishUpdate(ctx.options);
+        } catch(final IOException ex) {
+          if(error == null) error = ex;
+          else Util.debug(ex);
+        }
       }
+      if(error != null) throw IOERR_X.get(null, error);
     }
 
     // apply remaining updates based on database names
@@ -49,7 +49,7 @@ public final class Delete extends Update {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new Delete(sc, info, exprs[0].copy(cc, vm));
+    return new Delete(cc.sc(sc), info, exprs[0].copy(cc, vm));
   }
 
   @Override
@@ -75,6 +75,9 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfAbsent(MainOptions.SPLITSIZE, meta.splitsize);
     options.assignIfAbsent(MainOptions.UPDINDEX, meta.updindex);
     options.assignIfAbsent(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
+    options.assignIfAbsent(MainOptions.MMAP, meta.mmap);
+    options.assignIfAbsent(MainOptions.COMPRESS, meta.compress);
+    options.assignIfAbsent(MainOptions.DICTIONARY, meta.dictionary);
     options.assignTo(opts);
 
     // adopt options to database meta data
@@ -85,6 +88,7 @@ public final class DBOptimize extends DBUpdate {
 
     meta.updindex = opts.get(MainOptions.UPDINDEX);
     meta.autooptimize = opts.get(MainOptions.AUTOOPTIMIZE);
+    meta.mmap = opts.get(MainOptions.MMAP);
     meta.splitsize = opts.get(MainOptions.SPLITSIZE);
 
     // check if other indexing options have changed
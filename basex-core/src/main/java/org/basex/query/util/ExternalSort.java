@@ -0,0 +1,455 @@
+package org.basex.query.util;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.math.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Sorts records, consisting of values, in a stable order.
+ *
+ * Records are sorted in main memory. If a sort size has been specified, and if the number of
+ * records exceeds {@link MainOptions#SORTSIZE}, the records are sorted and written to temporary
+ * files. The sorted runs are merged when the records are requested.
+ * Only records with database nodes and atomic items of selected types are written to disk; if a
+ * record with other items is added, all remaining records will be kept in main memory.
+ * Temporary files are deleted when all records have been returned, or when the query is closed.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ExternalSort {
+  /** Item type: database node. */
+  private static final int NODE = 0;
+  /** Item type: string. */
+  private static final int STR = 1;
+  /** Item type: untyped atomic. */
+  private static final int ATM = 2;
+  /** Item type: integer. */
+  private static final int ITR = 3;
+  /** Item type: double. */
+  private static final int DBL = 4;
+  /** Item type: float. */
+  private static final int FLT = 5;
+  /** Item type: decimal. */
+  private static final int DEC = 6;
+  /** Item type: boolean. */
+  private static final int BLN = 7;
+  /** Maximum number of runs that are merged at the same time. */
+  private static final int MAXRUNS = 1 << 7;
+
+  /** Comparator (may throw {@link QueryRTException}, may report equal records as greater). */
+  private final Comparator<Value[]> cmp;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Number of records to be sorted in main memory ({@code 0}: no limit). */
+  private final long sortSize;
+
+  /** Records in main memory. */
+  private ArrayList<Value[]> records = new ArrayList<>();
+  /** Temporary files with sorted runs. */
+  private final ArrayList<IOFile> files = new ArrayList<>();
+  /** Opened runs of temporary files. */
+  private final ArrayList<FileRun> runs = new ArrayList<>();
+  /** Databases referenced by the written records. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+  /** Indicates if records can be written to disk. */
+  private boolean spill;
+  /** Merged runs ({@code null} if the records have not been sorted yet). */
+  private MinHeap<Run, Run> heap;
+
+  /**
+   * Constructor.
+   * @param cmp comparator (may throw {@link QueryRTException}, may report equal records
+   *   as greater)
+   * @param qc query context
+   */
+  public ExternalSort(final Comparator<Value[]> cmp, final QueryContext qc) {
+    this.cmp = cmp;
+    this.qc = qc;
+    sortSize = qc.context.options.get(MainOptions.SORTSIZE);
+    spill = sortSize > 0;
+  }
+
+  /**
+   * Adds a record.
+   * @param record record
+   * @throws QueryException query exception
+   */
+  public void add(final Value[] record) throws QueryException {
+    records.add(record);
+    if(!spill) return;
+
+    for(final Value value : record) {
+      for(final Item item : value) {
+        if(type(item) == -1) {
+          spill = false;
+          return;
+        }
+      }
+    }
+    if(records.size() >= sortSize) write();
+  }
+
+  /**
+   * Returns the next record in sort order.
+   * @return record or {@code null}
+   * @throws QueryException query exception
+   */
+  public Value[] next() throws QueryException {
+    if(heap == null) merge();
+    if(heap.isEmpty()) return null;
+
+    try {
+      final Run run = heap.removeMin();
+      final Value[] record = run.record;
+      if(run.next()) heap.insert(run, run);
+      if(heap.isEmpty()) close();
+      return record;
+    } catch(final QueryRTException ex) {
+      close();
+      throw ex.getCause();
+    } catch(final IOException ex) {
+      close();
+      throw QueryError.IOERR_X.get(null, ex);
+    }
+  }
+
+  /**
+   * Closes all opened runs and deletes all temporary files.
+   */
+  public void close() {
+    for(final FileRun run : new ArrayList<>(runs)) run.close();
+    if(files.isEmpty()) return;
+    for(final IOFile file : files) file.delete();
+    files.clear();
+    qc.resources.index(ExternalSorts.class).remove(this);
+  }
+
+  /**
+   * Sorts the records in main memory.
+   * @throws QueryException query exception
+   */
+  private void sort() throws QueryException {
+    try {
+      records.sort(cmp);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Sorts the records in main memory and writes them to a temporary file.
+   * @throws QueryException query exception
+   */
+  private void write() throws QueryException {
+    sort();
+    try {
+      final IOFile file = file();
+      files.add(file);
+      try(DataOutput out = new DataOutput(file)) {
+        out.writeNum(records.size());
+        for(final Value[] record : records) write(record, out);
+      }
+    } catch(final IOException ex) {
+      close();
+      throw QueryError.IOERR_X.get(null, ex);
+    }
+    records = new ArrayList<>();
+  }
+
+  /**
+   * Merges the runs of the first temporary files into a single file.
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private void compact() throws QueryException, IOException {
+    final MinHeap<Run, Run> merged = heap();
+    int size = 0, id = 0;
+    for(final IOFile file : files.subList(0, MAXRUNS)) {
+      final FileRun run = new FileRun(file, id++);
+      size += run.remaining;
+      if(run.next()) merged.insert(run, run);
+    }
+    final IOFile file = file();
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeNum(size);
+      while(!merged.isEmpty()) {
+        final Run run = merged.removeMin();
+        write(run.record, out);
+        if(run.next()) merged.insert(run, run);
+      }
+    }
+    for(final IOFile f : files.subList(0, MAXRUNS)) f.delete();
+    files.subList(0, MAXRUNS).clear();
+    // the merged records precede the records of all later runs
+    files.add(0, file);
+  }
+
+  /**
+   * Sorts the remaining records and prepares the merge of all runs.
+   * @throws QueryException query exception
+   */
+  private void merge() throws QueryException {
+    sort();
+    heap = heap();
+    try {
+      // limit the number of simultaneously opened files
+      while(files.size() > MAXRUNS) compact();
+      int id = 0;
+      for(final IOFile file : files) {
+        final Run run = new FileRun(file, id++);
+        if(run.next()) heap.insert(run, run);
+      }
+      final Run run = new Run(id);
+      if(run.next()) heap.insert(run, run);
+    } catch(final QueryRTException ex) {
+      close();
+      throw ex.getCause();
+    } catch(final IOException ex) {
+      close();
+      throw QueryError.IOERR_X.get(null, ex);
+    }
+  }
+
+  /**
+   * Creates a heap for merging runs. Earlier runs precede later ones if records are equal:
+   * the record of the later run is only returned first if it is smaller.
+   * @return heap
+   */
+  private MinHeap<Run, Run> heap() {
+    return new MinHeap<>((r1, r2) -> r1.id < r2.id ?
+      cmp.compare(r2.record, r1.record) < 0 ? 1 : -1 :
+      cmp.compare(r1.record, r2.record) < 0 ? -1 : 1);
+  }
+
+  /**
+   * Creates a temporary file. The sorter is registered as query resource when the first
+   * file is created, so that all files will be deleted when the query is closed.
+   * @return file
+   * @throws IOException I/O exception
+   */
+  private IOFile file() throws IOException {
+    if(files.isEmpty()) qc.resources.index(ExternalSorts.class).add(this);
+    final IOFile file = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+    file.file().deleteOnExit();
+    return file;
+  }
+
+  /**
+   * Writes a record.
+   * @param record record
+   * @param out output
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final Value[] record, final DataOutput out)
+      throws IOException, QueryException {
+    qc.checkStop();
+    out.writeNum(record.length);
+    for(final Value value : record) {
+      out.writeNum((int) value.size());
+      for(final Item item : value) write(item, out);
+    }
+  }
+
+  /**
+   * Returns the type of an item that can be written to disk.
+   * @param item item
+   * @return type or {@code -1}
+   */
+  private static int type(final Item item) {
+    final Type type = item.type;
+    return item instanceof DBNode ? NODE :
+      item instanceof Str && type == AtomType.STR ? STR :
+      item instanceof Atm ? ATM :
+      item instanceof Int && type == AtomType.ITR ? ITR :
+      item instanceof Dbl ? DBL :
+      item instanceof Flt ? FLT :
+      item instanceof Dec && type == AtomType.DEC ? DEC :
+      item instanceof Bln ? BLN : -1;
+  }
+
+  /**
+   * Writes an item.
+   * @param item item
+   * @param out output
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final Item item, final DataOutput out) throws IOException, QueryException {
+    final int type = type(item);
+    out.write1(type);
+    switch(type) {
+      case NODE:
+        final DBNode node = (DBNode) item;
+        int d = datas.indexOf(node.data());
+        if(d == -1) {
+          d = datas.size();
+          datas.add(node.data());
+        }
+        out.writeNum(d);
+        out.writeNum(node.pre());
+        break;
+      case STR:
+      case ATM:
+        out.writeToken(item.string(null));
+        break;
+      case ITR:
+        out.write8(item.itr(null));
+        break;
+      case DBL:
+        out.write8(Double.doubleToRawLongBits(item.dbl(null)));
+        break;
+      case FLT:
+        out.write8(Float.floatToRawIntBits(item.flt(null)));
+        break;
+      case DEC:
+        out.writeToken(token(item.dec(null).toString()));
+        break;
+      default:
+        out.writeBool(item.bool(null));
+    }
+  }
+
+  /**
+   * Reads an item.
+   * @param in input
+   * @return item
+   * @throws IOException I/O exception
+   */
+  private Item read(final DataInput in) throws IOException {
+    final int type = in.read();
+    switch(type) {
+      case NODE:
+        final Data data = datas.get(in.readNum());
+        return new DBNode(data, in.readNum());
+      case STR:
+        return Str.get(in.readToken());
+      case ATM:
+        return new Atm(in.readToken());
+      case ITR:
+        return Int.get(in.read8());
+      case DBL:
+        return Dbl.get(Double.longBitsToDouble(in.read8()));
+      case FLT:
+        return Flt.get(Float.intBitsToFloat((int) in.read8()));
+      case DEC:
+        return Dec.get(new BigDecimal(string(in.readToken())));
+      default:
+        return Bln.get(in.readBool());
+    }
+  }
+
+  /**
+   * Sorted run in main memory.
+   */
+  private class Run {
+    /** Id (defines the order of equal records). */
+    final int id;
+    /** Current record. */
+    Value[] record;
+    /** Index of the next record. */
+    private int index;
+
+    /**
+     * Constructor.
+     * @param id id
+     */
+    Run(final int id) {
+      this.id = id;
+    }
+
+    /**
+     * Proceeds to the next record.
+     * @return {@code true} if a record was found
+     * @throws IOException I/O exception
+     */
+    boolean next() throws IOException {
+      if(index == records.size()) {
+        record = null;
+        records = new ArrayList<>();
+        return false;
+      }
+      record = records.get(index);
+      // free the space occupied by the record
+      records.set(index++, null);
+      return true;
+    }
+  }
+
+  /**
+   * Sorted run in a temporary file.
+   */
+  private final class FileRun extends Run {
+    /** Input. */
+    private final DataInput in;
+    /** Number of remaining records. */
+    private int remaining;
+
+    /**
+     * Constructor.
+     * @param file file
+     * @param id id
+     * @throws IOException I/O exception
+     */
+    FileRun(final IOFile file, final int id) throws IOException {
+      super(id);
+      in = new DataInput(file);
+      runs.add(this);
+      remaining = in.readNum();
+    }
+
+    @Override
+    boolean next() throws IOException {
+      if(remaining == 0) {
+        record = null;
+        close();
+        return false;
+      }
+      remaining--;
+      final int rl = in.readNum();
+      final Value[] rec = new Value[rl];
+      for(int r = 0; r < rl; r++) {
+        final int vs = in.readNum();
+        if(vs == 0) {
+          rec[r] = Empty.SEQ;
+        } else if(vs == 1) {
+          rec[r] = read(in);
+        } else {
+          final ValueBuilder vb = new ValueBuilder();
+          for(int v = 0; v < vs; v++) vb.add(read(in));
+          rec[r] = vb.value();
+        }
+      }
+      record = rec;
+      return true;
+    }
+
+    /**
+     * Closes the input and removes the run from the list of opened runs.
+     */
+    void close() {
+      if(!runs.remove(this)) return;
+      try {
+        in.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+  }
+}
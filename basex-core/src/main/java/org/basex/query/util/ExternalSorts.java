@@ -0,0 +1,38 @@
+package org.basex.query.util;
+
+import java.util.*;
+
+import org.basex.query.*;
+
+/**
+ * External sorters with temporary files.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ExternalSorts implements QueryResource {
+  /** Registered sorters. */
+  private final ArrayList<ExternalSort> sorts = new ArrayList<>();
+
+  /**
+   * Adds a sorter.
+   * @param sort sorter
+   */
+  synchronized void add(final ExternalSort sort) {
+    sorts.add(sort);
+  }
+
+  /**
+   * Removes a sorter.
+   * @param sort sorter
+   */
+  synchronized void remove(final ExternalSort sort) {
+    sorts.remove(sort);
+  }
+
+  @Override
+  public synchronized void close() {
+    for(final ExternalSort sort : new ArrayList<>(sorts)) sort.close();
+    sorts.clear();
+  }
+}
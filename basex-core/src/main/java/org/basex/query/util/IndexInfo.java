@@ -7,6 +7,7 @@ import java.util.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.path.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
@@ -46,6 +47,8 @@ public final class IndexInfo {
   /** Costs of index access ({@code null}) if no index access is possible). */
   public IndexCosts costs;
 
+  /** Path nodes of the step ({@code null} if unknown). */
+  private final ArrayList<PathNode> nodes;
   /** Predicate expression. */
   private Expr pred;
   /** Indicates if the last step refers to a text step. */
@@ -56,11 +59,14 @@ public final class IndexInfo {
    * @param db index database
    * @param qc query context
    * @param step step containing the rewritable predicate
+   * @param nodes path nodes of the step (can be {@code null})
    */
-  public IndexInfo(final IndexDb db, final QueryContext qc, final Step step) {
+  public IndexInfo(final IndexDb db, final QueryContext qc, final Step step,
+      final ArrayList<PathNode> nodes) {
     this.qc = qc;
     this.db = db;
     this.step = step;
+    this.nodes = nodes;
   }
 
   /**
@@ -93,8 +99,12 @@ public final class IndexInfo {
 
     // check if the index contains result for the specified elements or attributes
     final IndexType it = type != null ? type : text ? IndexType.TEXT : IndexType.ATTRIBUTE;
-    return data == null ||
-        new IndexNames(it, data).contains(qname()) && check(it, last) ? it : null;
+    if(data == null) return it;
+
+    // names can be qualified by paths: check if all addressed nodes are indexed
+    final IndexNames names = new IndexNames(it, data);
+    return (names.contains(qname()) || names.paths() && names.contains(pathNodes(data))) &&
+        check(it, last) ? it : null;
   }
 
   /**
@@ -259,6 +269,57 @@ public final class IndexInfo {
     return new byte[][] { nt.local, nt.name == null ? null : nt.name.uri() };
   }
 
+  /**
+   * Returns the path nodes of the elements or attributes whose values will be compared.
+   * <ul>
+   *   <li> //x[y/z = 'TEXT'] -> z nodes below x nodes </li>
+   *   <li> //x[@y = 'TEXT']  -> y attributes of x nodes </li>
+   *   <li> //@x[. = 'TEXT']  -> all x attributes </li>
+   * </ul>
+   * @param data data reference
+   * @return path nodes, or {@code null} if they cannot be determined
+   */
+  private ArrayList<PathNode> pathNodes(final Data data) {
+    final byte[][] qname = qname();
+    if(qname == null || qname[0] == null || !data.meta.uptodate || !data.nspaces.isEmpty())
+      return null;
+
+    // follow child and attribute steps of the predicate, starting from the path nodes of the step
+    ArrayList<PathNode> pn = nodes;
+    if(pn != null && pred instanceof AxisPath) {
+      final AxisPath path = (AxisPath) pred;
+      int pl = path.steps.length;
+      if(text && path.step(pl - 1).test == KindTest.TXT) pl--;
+      for(int p = 0; p < pl && pn != null; p++) {
+        final Step s = path.step(p);
+        if(s.axis != Axis.CHILD && s.axis != Axis.ATTR || !(s.test instanceof NameTest) ||
+            ((NameTest) s.test).local == null) {
+          pn = null;
+        } else {
+          final boolean attr = s.axis == Axis.ATTR;
+          final int id = (attr ? data.attrNames : data.elemNames).id(((NameTest) s.test).local);
+          final ArrayList<PathNode> tmp = new ArrayList<>();
+          for(final PathNode node : PathIndex.desc(pn, false)) {
+            if(node.kind == (attr ? Data.ATTR : Data.ELEM) && node.name == id) tmp.add(node);
+          }
+          pn = tmp;
+        }
+      }
+    } else if(!(pred instanceof ContextValue) || !text) {
+      pn = null;
+    }
+    if(pn != null) return pn;
+
+    // fallback: all elements or attributes with the compared name
+    final int id = (text ? data.elemNames : data.attrNames).id(qname[0]);
+    final byte kind = text ? Data.ELEM : Data.ATTR;
+    pn = new ArrayList<>();
+    for(final PathNode node : PathIndex.desc(data.paths.root(), true)) {
+      if(node.kind == kind && node.name == id) pn.add(node);
+    }
+    return pn;
+  }
+
   /**
    * Rewrites the expression for index access.
    * @param root new root expression
@@ -0,0 +1,164 @@
+package org.basex.query.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.core.*;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.util.*;
+
+/**
+ * Evaluates partitions of an input sequence in parallel ({@link MainOptions#PARALLELQUERY}).
+ * The results are joined in the order of the input. Each partition is evaluated with a new
+ * query context, which adopts the variables of the current stack frame and the focus of the
+ * original context.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelTask extends RecursiveTask<Value> {
+  /**
+   * Evaluation of a partition.
+   */
+  @FunctionalInterface
+  public interface Partition {
+    /**
+     * Evaluates the items in the specified range.
+     * @param qc query context
+     * @param start position of the first item
+     * @param end position after the last item
+     * @return result
+     * @throws QueryException query exception
+     */
+    Value value(QueryContext qc, long start, long end) throws QueryException;
+  }
+
+  /** Number of partitions created per thread. */
+  private static final int PARTITIONS = 4;
+
+  /** Evaluation of a partition. */
+  private final Partition partition;
+  /** Maximum number of items evaluated by a single task. */
+  private final long chunk;
+  /** Query context. */
+  private final QueryContext qc;
+  /** First item to evaluate. */
+  private final long start;
+  /** Last item to evaluate. */
+  private final long end;
+  /** Query contexts of running tasks (shared by all tasks). */
+  private final Set<QueryContext> running;
+  /** First error (shared by all tasks). */
+  private final AtomicReference<Throwable> error;
+
+  /**
+   * Private constructor.
+   * @param partition evaluation of a partition
+   * @param chunk maximum number of items evaluated by a single task
+   * @param qc query context
+   * @param start first item to evaluate
+   * @param end last item to evaluate
+   * @param running query contexts of running tasks
+   * @param error first error
+   */
+  private ParallelTask(final Partition partition, final long chunk, final QueryContext qc,
+      final long start, final long end, final Set<QueryContext> running,
+      final AtomicReference<Throwable> error) {
+    this.partition = partition;
+    this.chunk = chunk;
+    this.qc = qc;
+    this.start = start;
+    this.end = end;
+    this.running = running;
+    this.error = error;
+  }
+
+  /**
+   * Evaluates a sequence in parallel. Small sequences are evaluated by the calling thread.
+   * @param size number of items
+   * @param partition evaluation of a partition
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  public static Value value(final long size, final Partition partition, final QueryContext qc)
+      throws QueryException {
+
+    final ForkJoinPool pool = qc.context.jobs.forkJoin();
+    final int parallelism = pool.getParallelism();
+    if(size < 2 || parallelism < 2) return partition.value(qc, 0, size);
+
+    final long tasks = (long) parallelism * PARTITIONS, chunk = (size + tasks - 1) / tasks;
+    final ParallelTask task = new ParallelTask(partition, chunk, qc, 0, size,
+        Collections.newSetFromMap(new ConcurrentHashMap<>()), new AtomicReference<>());
+    try {
+      return pool.invoke(task);
+    } catch(final RuntimeException ex) {
+      // pass on query and runtime exceptions (prefer first error)
+      final Throwable err = task.error.get();
+      final Throwable e = Util.rootException(err != null ? err : ex);
+      if(e instanceof QueryException) throw (QueryException) e;
+      if(e instanceof RuntimeException) throw (RuntimeException) e;
+      throw ex;
+    } finally {
+      // stop tasks that may still be running
+      task.stop();
+    }
+  }
+
+  /**
+   * Stops all tasks that are currently running.
+   */
+  private void stop() {
+    for(final QueryContext qctx : running) qctx.stop();
+  }
+
+  /**
+   * Registers an error and stops all other tasks.
+   * @param ex error
+   */
+  private void error(final Throwable ex) {
+    error.compareAndSet(null, ex);
+    stop();
+  }
+
+  @Override
+  protected Value compute() {
+    final long s = start, e = end, l = e - s;
+    if(l <= chunk) {
+      // perform the work (skip it if the parent query has been stopped)
+      qc.checkStop();
+      final QueryContext qctx = new QueryContext(qc);
+      running.add(qctx);
+      // another task has failed: skip evaluation
+      if(error.get() != null) qctx.stop();
+      try {
+        qctx.stack.copyFrame(qc.stack);
+        final QueryFocus focus = qctx.focus, qf = qc.focus;
+        focus.value = qf.value;
+        focus.pos = qf.pos;
+        focus.size = qf.size;
+        return partition.value(qctx, s, e);
+      } catch(final QueryException ex) {
+        error(ex);
+        completeExceptionally(ex);
+        return null;
+      } catch(final RuntimeException | Error ex) {
+        error(ex);
+        throw ex;
+      } finally {
+        running.remove(qctx);
+        qctx.close();
+      }
+    }
+
+    // split the work and join the results in the correct order
+    final long m = s + (l + chunk - 1) / chunk / 2 * chunk;
+    final ParallelTask task2 = new ParallelTask(partition, chunk, qc, m, e, running, error);
+    task2.fork();
+    final ParallelTask task1 = new ParallelTask(partition, chunk, qc, s, m, running, error);
+    return new ValueBuilder().add(task1.invoke()).add(task2.join()).value();
+  }
+}
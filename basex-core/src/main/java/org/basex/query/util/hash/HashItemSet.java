@@ -33,7 +33,18 @@ public class HashItemSet extends ASet implements ItemSet {
 
   @Override
   public final boolean add(final Item item, final InputInfo ii) throws QueryException {
-    return !check(item, ii, true);
+    return index(item, ii, true) > 0;
+  }
+
+  /**
+   * Stores the specified item and returns its id.
+   * @param item item to be added
+   * @param ii input info
+   * @return id
+   * @throws QueryException query exception
+   */
+  public final int put(final Item item, final InputInfo ii) throws QueryException {
+    return Math.abs(index(item, ii, true));
   }
 
   /**
@@ -44,34 +55,46 @@ public class HashItemSet extends ASet implements ItemSet {
    * @throws QueryException query exception
    */
   public final boolean contains(final Item item, final InputInfo ii) throws QueryException {
-    return check(item, ii, false);
+    return index(item, ii, false) < 0;
   }
 
   /**
-   * Checks if an item exists in the index.
+   * Returns the id of the specified item.
+   * @param item item to look up
+   * @param ii input info
+   * @return id, or {@code 0} if the item does not exist
+   * @throws QueryException query exception
+   */
+  public final int id(final Item item, final InputInfo ii) throws QueryException {
+    return -index(item, ii, false);
+  }
+
+  /**
+   * Returns the id of an item in the index.
    * @param item item to look up
    * @param ii input info
    * @param add add entry
-   * @return id, or negative id if key has already been stored
+   * @return id of a new entry, negative id if the item has already been stored,
+   *   or {@code 0} if the item does not exist and was not added
    * @throws QueryException query exception
    */
-  private boolean check(final Item item, final InputInfo ii, final boolean add)
+  private int index(final Item item, final InputInfo ii, final boolean add)
       throws QueryException {
 
     checkSize();
     final int h = item.hash(ii), b = h & buckets.length - 1;
     for(int id = buckets[b]; id != 0; id = next[id]) {
-      if(eq ? items[id].eq(item, null, null, ii) : items[id].equiv(item, null, ii)) return true;
-    }
-    if(add) {
-      final int s = size;
-      next[s] = buckets[b];
-      items[s] = item;
-      hash[s] = h;
-      buckets[b] = s;
-      size = s + 1;
+      if(eq ? items[id].eq(item, null, null, ii) : items[id].equiv(item, null, ii)) return -id;
     }
-    return false;
+    if(!add) return 0;
+
+    final int s = size;
+    next[s] = buckets[b];
+    items[s] = item;
+    hash[s] = h;
+    buckets[b] = s;
+    size = s + 1;
+    return s;
   }
 
   @Override
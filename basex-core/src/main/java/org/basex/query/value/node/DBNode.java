@@ -356,6 +356,35 @@ public class DBNode extends ANode {
     };
   }
 
+  /**
+   * Returns an iterator for all non-attribute nodes in the specified pre range of the database.
+   * If the range starts with attributes, they are skipped.
+   * @param start first pre value
+   * @param end pre value after the last node
+   * @return iterator
+   */
+  public final DBNodeIter range(final int start, final int end) {
+    return new DBNodeIter(data) {
+      final DBNode node = finish();
+      int curr = start;
+
+      @Override
+      public DBNode next() {
+        while(curr < end) {
+          final int k = data.kind(curr);
+          if(k == Data.ATTR) {
+            curr++;
+          } else {
+            node.set(curr, k);
+            curr += data.attSize(curr, k);
+            return node;
+          }
+        }
+        return null;
+      }
+    };
+  }
+
   @Override
   public final DBNodeIter descendantOrSelf() {
     return new DBNodeIter(data) {
@@ -36,6 +36,18 @@ public final class QueryStack {
     return s;
   }
 
+  /**
+   * Enters a new stack frame and assigns the values of the current frame of another stack.
+   * @param qs stack to copy the values from
+   * @return stack pointer of the old frame
+   */
+  public int copyFrame(final QueryStack qs) {
+    final int size = qs.end - qs.start, frame = enterFrame(size);
+    System.arraycopy(qs.stack, qs.start, stack, start, size);
+    System.arraycopy(qs.vars, qs.start, vars, start, size);
+    return frame;
+  }
+
   /**
    * Prepares the current stack frame to be reused.
    * @param size new frame size
@@ -3,6 +3,8 @@ package org.basex.query.var;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
+import java.util.*;
+
 import org.basex.query.*;
 import org.basex.query.ann.*;
 import org.basex.query.expr.*;
@@ -13,6 +15,7 @@ import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.node.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Static variable to which an expression can be assigned.
@@ -46,6 +49,48 @@ public final class StaticVar extends StaticDecl {
     lazy = anns.contains(Annotation._BASEX_LAZY);
   }
 
+  /**
+   * Copy constructor.
+   * @param sv variable to copy
+   * @param vs variable scope
+   */
+  private StaticVar(final StaticVar sv, final VarScope vs) {
+    super(sv, vs);
+    external = sv.external;
+    lazy = sv.lazy;
+  }
+
+  /**
+   * Creates an uncompiled copy of this variable and registers it in the compilation context.
+   * The bound expression is copied by a task that is added to the specified list.
+   * @param cc compilation context
+   * @param bodies tasks for copying the bound expressions
+   * @return copy
+   */
+  StaticVar copy(final CompileContext cc, final ArrayList<Runnable> bodies) {
+    final VarScope scope = new VarScope(cc.sc(sc));
+    final IntObjMap<Var> vm = new IntObjMap<>();
+    cc.pushScope(scope);
+    try {
+      vs.copy(cc, vm);
+    } finally {
+      cc.removeScope();
+    }
+    final StaticVar sv = new StaticVar(this, scope);
+    cc.copied(this, sv);
+    if(expr != null) {
+      bodies.add(() -> {
+        cc.pushScope(scope);
+        try {
+          sv.expr = expr.copy(cc, vm);
+        } finally {
+          cc.removeScope();
+        }
+      });
+    }
+    return sv;
+  }
+
   @Override
   public void comp(final CompileContext cc) throws QueryException {
     if(expr == null) throw VAREMPTY_X.get(info, name());
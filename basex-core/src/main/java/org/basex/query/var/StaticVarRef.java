@@ -72,8 +72,8 @@ final class StaticVarRef extends ParseExpr {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    final StaticVarRef ref = new StaticVarRef(info, name, sc);
-    ref.var = var;
+    final StaticVarRef ref = new StaticVarRef(info, name, cc.sc(sc));
+    ref.var = cc.decl(var);
     return ref;
   }
 
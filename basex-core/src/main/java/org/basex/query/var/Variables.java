@@ -64,6 +64,17 @@ public final class Variables extends ExprInfo implements Iterable<StaticVar> {
     }
   }
 
+  /**
+   * Copies all declared variables to the variable container of the compilation context.
+   * @param cc compilation context
+   * @param bodies tasks for copying the bound expressions
+   */
+  public void copy(final CompileContext cc, final ArrayList<Runnable> bodies) {
+    for(final Entry<QNm, VarEntry> entry : vars.entrySet()) {
+      cc.qc.vars.vars.put(entry.getKey(), new VarEntry(entry.getValue().var.copy(cc, bodies)));
+    }
+  }
+
   /**
    * Returns a new reference to the (possibly not yet declared) variable with the given name.
    * @param ii input info
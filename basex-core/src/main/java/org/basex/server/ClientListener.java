@@ -4,7 +4,9 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.*;
 import org.basex.core.*;
@@ -25,9 +27,9 @@ import org.basex.util.list.*;
  * @author Andreas Weiler
  * @author Christian Gruen
  */
-public final class ClientListener extends Thread implements ClientInfo {
-  /** Timer for authentication time out. */
-  public final Timer timeout = new Timer();
+public final class ClientListener implements Runnable, ClientInfo {
+  /** Timer for authentication time out (can be {@code null}). */
+  public ScheduledFuture<?> timeout;
   /** Timestamp of last interaction. */
   public long last;
 
@@ -41,11 +43,15 @@ public final class ClientListener extends Thread implements ClientInfo {
   private final BaseXServer server;
   /** Socket reference. */
   private final Socket socket;
+  /** Selector for idle sessions ({@code null} if every session is run in its own thread). */
+  private final ServerSelector selector;
 
   /** Input stream. */
   private BufferInput in;
   /** Output stream. */
   private PrintOutput out;
+  /** Socket output stream. */
+  private ClientOutput cout;
   /** Current command. */
   private Command command;
   /** Query id counter. */
@@ -60,21 +66,29 @@ public final class ClientListener extends Thread implements ClientInfo {
    * @param socket socket
    * @param context database context
    * @param server server reference
+   * @param selector selector for idle sessions (can be {@code null})
    */
-  public ClientListener(final Socket socket, final Context context, final BaseXServer server) {
+  public ClientListener(final Socket socket, final Context context, final BaseXServer server,
+      final ServerSelector selector) {
     this.context = new Context(context, this);
     this.socket = socket;
     this.server = server;
+    this.selector = selector;
     last = System.currentTimeMillis();
-    setDaemon(true);
   }
 
   @Override
   public void run() {
-    if(!authenticate()) return;
+    // sessions that are resumed by the selector have already been authenticated
+    if(!authenticated && !authenticate()) return;
 
     try {
       while(authenticated) {
+        // selector: release thread until the next request arrives
+        if(selector != null && in.available() == 0) {
+          selector.park(this);
+          break;
+        }
         command = null;
         String cmd;
         final ServerCmd sc;
@@ -175,7 +189,8 @@ public final class ClientListener extends Thread implements ClientInfo {
       final byte[] address = socket.getInetAddress().getAddress();
 
       // send {REALM:TIMESTAMP}0
-      out = PrintOutput.get(socket.getOutputStream());
+      cout = new ClientOutput(socket.getOutputStream());
+      out = PrintOutput.get(cout);
       out.print(Prop.NAME + ':' + nonce);
       send(true);
 
@@ -237,6 +252,14 @@ public final class ClientListener extends Thread implements ClientInfo {
     }
   }
 
+  /**
+   * Returns the channel of this session.
+   * @return channel
+   */
+  SocketChannel channel() {
+    return socket.getChannel();
+  }
+
   /**
    * Returns the context of this session.
    * @return user reference
@@ -391,11 +414,11 @@ public final class ClientListener extends Thread implements ClientInfo {
           info.append(val);
           if(!typ.isEmpty()) info.append(" as ").append(typ);
         } else if(sc == ServerCmd.RESULTS) {
-          qp.execute(out, true, true, false);
+          execute(qp, true, false);
         } else if(sc == ServerCmd.EXEC) {
-          qp.execute(out, false, true, false);
+          execute(qp, false, false);
         } else if(sc == ServerCmd.FULL) {
-          qp.execute(out, true, true, true);
+          execute(qp, true, true);
         } else if(sc == ServerCmd.INFO) {
           out.print(qp.info());
         } else if(sc == ServerCmd.OPTIONS) {
@@ -432,6 +455,39 @@ public final class ClientListener extends Thread implements ClientInfo {
     out.flush();
   }
 
+  /**
+   * Executes a query and sends the results to the client.
+   * Clients may read the results while they are iterated, and the query keeps its locks until
+   * all results have been sent. If a non-admin client does not read any data for longer than the
+   * query timeout, the query will be stopped and the session will be closed.
+   * @param qp query
+   * @param iter iterative evaluation
+   * @param full return full type information
+   * @throws IOException I/O exception
+   */
+  private void execute(final ServerQuery qp, final boolean iter, final boolean full)
+      throws IOException {
+
+    // non-admin users: stop query after timeout (see Job#register)
+    final long ms = context.user().has(Perm.ADMIN) ? 0 :
+      context.soptions.get(StaticOptions.TIMEOUT) * 1000L;
+    final ScheduledFuture<?> watch = ms <= 0 ? null : context.jobs.schedule(() -> {
+      if(cout.blocked() < ms) return;
+      qp.timeout();
+      try {
+        // unblock the pending write operation
+        socket.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }, ms, Math.min(ms, 1000));
+    try {
+      qp.execute(out, iter, true, full);
+    } finally {
+      if(watch != null) watch.cancel(false);
+    }
+  }
+
   /**
    * Sends a success flag to the client (0: true, 1: false).
    * @param ok success flag
@@ -0,0 +1,70 @@
+package org.basex.server;
+
+import java.io.*;
+
+/**
+ * This server-side class wraps the output stream of a client socket.
+ * It registers how long the current write operation has been blocked, which happens
+ * if the client does not read the data that has been sent to it.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class ClientOutput extends OutputStream {
+  /** Output stream. */
+  private final OutputStream os;
+  /** Start time of the current write operation ({@code 0}: no pending operation). */
+  private volatile long since;
+
+  /**
+   * Constructor.
+   * @param os output stream to be wrapped
+   */
+  ClientOutput(final OutputStream os) {
+    this.os = os;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    since = System.currentTimeMillis();
+    try {
+      os.write(b);
+    } finally {
+      since = 0;
+    }
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    since = System.currentTimeMillis();
+    try {
+      os.write(b, off, len);
+    } finally {
+      since = 0;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    since = System.currentTimeMillis();
+    try {
+      os.flush();
+    } finally {
+      since = 0;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    os.close();
+  }
+
+  /**
+   * Returns the time for which the current write operation has been blocked.
+   * @return time in milliseconds ({@code 0}: no pending operation)
+   */
+  long blocked() {
+    final long s = since;
+    return s == 0 ? 0 : System.currentTimeMillis() - s;
+  }
+}
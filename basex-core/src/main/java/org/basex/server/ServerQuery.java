@@ -191,7 +191,7 @@ public final class ServerQuery extends Job {
    */
   private QueryProcessor qp() {
     if(parsed || qp == null) {
-      qp = pushJob(new QueryProcessor(query, ctx));
+      qp = pushJob(new QueryProcessor(query, ctx).cache());
       parsed = false;
     }
     return qp;
@@ -0,0 +1,149 @@
+package org.basex.server;
+
+import java.io.*;
+import java.net.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.jobs.*;
+import org.basex.util.*;
+
+/**
+ * Selector for client connections. New connections are accepted via a single selector, and
+ * idle sessions are parked in the same selector instead of blocking a thread. As soon as a new
+ * request arrives, the session is resumed by a thread of a shared pool. As a result, the number
+ * of threads is decoupled from the number of open connections.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ServerSelector {
+  /** Sessions to be parked. */
+  private final Queue<ClientListener> parked = new ConcurrentLinkedQueue<>();
+  /** Thread pool for processing requests. */
+  private final ExecutorService executor = Executors.newCachedThreadPool(
+      JobPool.factory("Session"));
+  /** Server channel. */
+  private final ServerSocketChannel channel;
+  /** Selector. */
+  private final Selector selector;
+
+  /**
+   * Constructor.
+   * @param channel server channel (must be bound)
+   * @throws IOException I/O exception
+   */
+  public ServerSelector(final ServerSocketChannel channel) throws IOException {
+    this.channel = channel;
+    selector = Selector.open();
+    channel.configureBlocking(false);
+    channel.register(selector, SelectionKey.OP_ACCEPT);
+  }
+
+  /**
+   * Waits for a new connection. In the meantime, sessions with pending requests are resumed.
+   * @return socket of the new connection
+   * @throws IOException I/O exception
+   */
+  public Socket accept() throws IOException {
+    try {
+      while(true) {
+        // register parked sessions; keys may still be selected from the last iteration
+        register();
+        final Set<SelectionKey> keys = selector.selectedKeys();
+        if(keys.isEmpty()) selector.select();
+
+        SocketChannel accepted = null;
+        final ArrayList<ClientListener> ready = new ArrayList<>();
+        for(final Iterator<SelectionKey> iter = keys.iterator(); iter.hasNext();) {
+          final SelectionKey key = iter.next();
+          iter.remove();
+          if(!key.isValid()) continue;
+          if(key.isAcceptable()) {
+            if(accepted == null) accepted = channel.accept();
+          } else if(key.isReadable()) {
+            key.cancel();
+            ready.add((ClientListener) key.attachment());
+          }
+        }
+        if(!ready.isEmpty()) {
+          // flush cancelled keys, so that the channels can be switched back to blocking mode
+          selector.selectNow();
+          for(final ClientListener cl : ready) resume(cl);
+        }
+        if(accepted != null) {
+          accepted.configureBlocking(true);
+          return accepted.socket();
+        }
+      }
+    } catch(final ClosedSelectorException ex) {
+      throw new SocketException(ex.toString());
+    }
+  }
+
+  /**
+   * Processes the requests of the specified session in the thread pool.
+   * @param cl client listener
+   */
+  public void execute(final ClientListener cl) {
+    try {
+      executor.execute(cl);
+    } catch(final RejectedExecutionException ex) {
+      Util.debug(ex);
+      cl.close();
+    }
+  }
+
+  /**
+   * Parks a session until new input is available.
+   * @param cl client listener
+   */
+  void park(final ClientListener cl) {
+    parked.add(cl);
+    selector.wakeup();
+  }
+
+  /**
+   * Closes the selector and stops the thread pool.
+   */
+  public void close() {
+    executor.shutdown();
+    try {
+      selector.close();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Registers parked sessions.
+   */
+  private void register() {
+    for(ClientListener cl; (cl = parked.poll()) != null;) {
+      try {
+        final SocketChannel sc = cl.channel();
+        sc.configureBlocking(false);
+        sc.register(selector, SelectionKey.OP_READ, cl);
+      } catch(final IOException ex) {
+        // channel has been closed in the meantime
+        Util.debug(ex);
+        cl.close();
+      }
+    }
+  }
+
+  /**
+   * Resumes a session.
+   * @param cl client listener
+   */
+  private void resume(final ClientListener cl) {
+    try {
+      cl.channel().configureBlocking(true);
+      execute(cl);
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      cl.close();
+    }
+  }
+}
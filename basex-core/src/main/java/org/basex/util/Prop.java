@@ -108,6 +108,8 @@ public final class Prop {
   public static boolean langright;
   /** Debug mode. */
   public static boolean debug;
+  /** Maximum size of all database buffers, assigned to files in the order of access (MB). */
+  public static int bufferlimit = 64;
   /** GUI mode. */
   public static boolean gui;
 
@@ -247,6 +247,40 @@ public final class AddDeleteTest extends SandboxTest {
     } catch(final BaseXException ignored) { }
   }
 
+  /**
+   * Adds folders and archives with several parser threads.
+   */
+  @Test
+  public void parserThreads() {
+    execute(new Add("seq", FLDR));
+    execute(new Add("seq", ZIPFILE));
+    final IOFile dir = new IOFile(Prop.TMP + NAME + '/');
+    write(new IOFile(dir, "a.xml"), "<a/>");
+    write(new IOFile(dir, "b.xml"), "<b");
+    write(new IOFile(dir, "c.xml"), "<c/>");
+    try {
+      set(MainOptions.PARSERTHREADS, 4);
+      execute(new Add("par", FLDR));
+      execute(new Add("par", ZIPFILE));
+      final String docs = "for $d in db:open('" + NAME + "', '%') return "
+          + "(substring-after(db:path($d), '%'), serialize($d))";
+      assertEquals(query(docs.replace("%", "seq")), query(docs.replace("%", "par")));
+
+      try {
+        new Add("", dir.path()).execute(context);
+        fail("Broken file was added to the database.");
+      } catch(final BaseXException ignored) { }
+      set(MainOptions.SKIPCORRUPT, true);
+      execute(new Add("corrupt", dir.path()));
+      assertEquals("corrupt/a.xml corrupt/c.xml",
+          query("string-join(sort(db:list('" + NAME + "', 'corrupt')), ' ')"));
+    } finally {
+      set(MainOptions.PARSERTHREADS, 1);
+      set(MainOptions.SKIPCORRUPT, false);
+      dir.delete();
+    }
+  }
+
   /**
    * Returns the number of documents in the current database.
    * @return number of documents
@@ -329,7 +329,7 @@ public class CommandTest extends SandboxTest {
   /** Command test. */
   @Test
   public final void info() {
-    ok(new Info());
+    assertTrue(ok(new Info()).contains(Text.PENDING_TIMERS));
   }
 
   /** Command test. */
@@ -3,8 +3,13 @@ package org.basex.core.locks;
 import static org.basex.query.func.Function.*;
 import static org.junit.Assert.*;
 
+import java.io.*;
+import java.util.concurrent.*;
+
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.util.*;
 import org.junit.Test;
 
 /**
@@ -45,6 +50,84 @@ public final class NonLockingTest extends SandboxTest {
     }
   }
 
+  /**
+   * Parses the input of the add command before locks are acquired.
+   * @throws Exception exception
+   */
+  @Test public void addBeforeLocking() throws Exception {
+    execute(new CreateDB(NAME));
+    try {
+      // start slow query, read lock on the database
+      new Thread(() -> query(_DB_OPEN.args(NAME) + "[1]," + SLEEP_10_SECONDS)).start();
+
+      String id;
+      do id = query(LIST_JOBS); while(id.isEmpty());
+
+      // add document, wait until input has been parsed
+      final CountDownLatch parsed = new CountDownLatch(1);
+      final Add add = new Add("a.xml");
+      add.setInput(new ByteArrayInputStream("<a/>".getBytes()) {
+        @Override
+        public synchronized int read(final byte[] b, final int off, final int len) {
+          final int r = super.read(b, off, len);
+          if(r == -1) parsed.countDown();
+          return r;
+        }
+      });
+      final Thread thread = new Thread(() -> execute(add));
+      thread.start();
+      assertTrue(parsed.await(5, TimeUnit.SECONDS));
+      assertTrue(thread.isAlive());
+
+      // stop sleeping process, wait for completion of add command
+      query(_JOBS_STOP.args(id));
+      thread.join();
+      assertEquals("1", query(COUNT.args(_DB_OPEN.args(NAME))));
+    } finally {
+      execute(new DropDB(NAME));
+    }
+  }
+
+  /**
+   * Drops input of the add command that has been parsed before the command was stopped.
+   * @throws Exception exception
+   */
+  @Test public void addStopped() throws Exception {
+    set(MainOptions.ADDCACHE, true);
+    execute(new CreateDB(NAME));
+    try {
+      // start slow query, read lock on the database
+      new Thread(() -> query(_DB_OPEN.args(NAME) + "[1]," + SLEEP_10_SECONDS)).start();
+
+      String id;
+      do id = query(LIST_JOBS); while(id.isEmpty());
+
+      // add document, wait until input has been parsed
+      final Add add = new Add("a.xml", "<a/>");
+      final Thread thread = new Thread(() -> {
+        try {
+          add.execute(context);
+          fail("Command was not stopped.");
+        } catch(final BaseXException ex) {
+          Util.debug(ex);
+        }
+      });
+      thread.start();
+      while(context.soptions.dbPath().children(NAME + "_.*").length == 0) Performance.sleep(10);
+
+      // stop add command and sleeping process
+      add.stop();
+      query(_JOBS_STOP.args(id));
+      thread.join();
+      assertEquals("0", query(COUNT.args(_DB_OPEN.args(NAME))));
+      // temporary database has been dropped
+      assertEquals(0, context.soptions.dbPath().children(NAME + "_.*").length);
+    } finally {
+      execute(new DropDB(NAME));
+      set(MainOptions.ADDCACHE, false);
+    }
+  }
+
   /** Test. */
   @Test public void nonLockingAfterLocalWrite() {
     nonLockingAfterWrite(_DB_CREATE.args(NAME));
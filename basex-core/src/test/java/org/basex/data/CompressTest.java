@@ -0,0 +1,111 @@
+package org.basex.data;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.query.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests databases with compressed heap files ({@link MainOptions#COMPRESS}).
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressTest extends AdvancedQueryTest {
+  /** Document with repetitive texts and attribute values. */
+  private static final String DOC;
+
+  static {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 1; i <= 10000; i++) {
+      sb.append("<a b='value ").append(i % 10).append("'>text ").append(i).append("</a>");
+    }
+    DOC = sb.append("</x>").toString();
+  }
+
+  /**
+   * Initializes a test.
+   */
+  @Before
+  public void before() {
+    set(MainOptions.COMPRESS, true);
+  }
+
+  /**
+   * Finalizes a test.
+   */
+  @After
+  public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.COMPRESS, false);
+  }
+
+  /**
+   * Creates a database with compressed heap files.
+   */
+  @Test
+  public void create() {
+    final long compressed = size();
+    set(MainOptions.COMPRESS, false);
+    assertTrue(compressed < size() / 2);
+
+    set(MainOptions.COMPRESS, true);
+    size();
+    query(_DB_PROPERTY.args(NAME, "compress"), true);
+    execute(new Close());
+    query("sum(" + _DB_OPEN.args(NAME) + "//a ! string-length())", 88894);
+    query(_DB_OPEN.args(NAME) + "//a[. = 'text 5000']/@b/string()", "value 0");
+  }
+
+  /**
+   * Updates a database with compressed heap files.
+   */
+  @Test
+  public void update() {
+    size();
+    query("replace value of node /x/a[1] with 'A'");
+    query("replace value of node /x/a[1]/@b with 'B'");
+    query("delete node /x/a[2]");
+    query("insert node <a b='new'>new</a> into /x");
+    query("replace value of node /x/a[3] with string-join((1 to 100) ! 'abc')");
+    execute(new Close());
+
+    execute(new Open(NAME));
+    query("count(/x/a)", 10000);
+    query("/x/a[1] ! (string(), string(@b))", "A\nB");
+    query("/x/a[2]/string()", "text 3");
+    query("/x/a[last()] ! (string(), string(@b))", "new\nnew");
+    query("/x/a[last() - 1]/string()", "text 10000");
+    query("/x/a[3] ! (string-length(), string() = string-join((1 to 100) ! 'abc'))", "300\ntrue");
+  }
+
+  /**
+   * Compresses an existing database.
+   */
+  @Test
+  public void optimize() {
+    set(MainOptions.COMPRESS, false);
+    size();
+    execute(new DropIndex(CmdIndex.TEXT));
+    execute(new DropIndex(CmdIndex.ATTRIBUTE));
+    execute(new Close());
+    query(_DB_OPTIMIZE.args(NAME, true, " map { 'compress': true() }"));
+    query(_DB_PROPERTY.args(NAME, "compress"), true);
+    query("count(" + _DB_OPEN.args(NAME) + "//a[. = 'text 5000'])", 1);
+  }
+
+  /**
+   * Creates the test database and returns the size of the text and attribute value files.
+   * @return size
+   */
+  private static long size() {
+    execute(new CreateDB(NAME, DOC));
+    final MetaData meta = context.data().meta;
+    return meta.dbfile(DataText.DATATXT).length() + meta.dbfile(DataText.DATAATV).length();
+  }
+}
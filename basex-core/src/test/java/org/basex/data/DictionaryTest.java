@@ -0,0 +1,103 @@
+package org.basex.data;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.query.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the dictionaries of texts and attribute values
+ * ({@link MainOptions#DICTIONARY}).
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class DictionaryTest extends AdvancedQueryTest {
+  /** Document with repeated texts and attribute values. */
+  private static final String DOC;
+
+  static {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 1; i <= 1000; i++) {
+      sb.append("<a type='type").append(i % 5).append("' id='id").append(i).append("'>");
+      sb.append("status").append(i % 3).append("</a>");
+    }
+    DOC = sb.append("</x>").toString();
+  }
+
+  /**
+   * Initializes a test.
+   */
+  @Before
+  public void before() {
+    set(MainOptions.DICTIONARY, 100);
+  }
+
+  /**
+   * Finalizes a test.
+   */
+  @After
+  public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.DICTIONARY, 0);
+  }
+
+  /**
+   * Creates a database with dictionaries.
+   */
+  @Test
+  public void create() {
+    final long size = size();
+    set(MainOptions.DICTIONARY, 0);
+    assertTrue(size < size() / 2);
+
+    set(MainOptions.DICTIONARY, 100);
+    size();
+    execute(new DropIndex(CmdIndex.TEXT));
+    execute(new DropIndex(CmdIndex.ATTRIBUTE));
+    execute(new Close());
+    query(_DB_PROPERTY.args(NAME, "dictionary"), 100);
+    query("count(" + _DB_OPEN.args(NAME) + "//a[@type = 'type1'])", 200);
+    query("count(" + _DB_OPEN.args(NAME) + "//a[. = 'status2'])", 333);
+    query(_DB_OPEN.args(NAME) + "//a[@id = 'id1000'] ! (string(), string-length(@type))",
+        "status1\n5");
+  }
+
+  /**
+   * Updates a database with dictionaries.
+   */
+  @Test
+  public void update() {
+    size();
+    query("replace value of node /x/a[1] with 'status2'");
+    query("replace value of node /x/a[1]/@type with 'new'");
+    query("replace value of node /x/a[2] with 'new'");
+    query("replace value of node /x/a[2]/@type with 'type4'");
+    query("delete node /x/a[3]");
+    query("insert node <a type='type0'>status0</a> into /x");
+    execute(new Close());
+
+    execute(new Open(NAME));
+    query("count(/x/a)", 1000);
+    query("/x/a[1] ! (string(), string(@type))", "status2\nnew");
+    query("/x/a[2] ! (string(), string(@type))", "new\ntype4");
+    query("/x/a[3] ! (string(), string(@type))", "status1\ntype4");
+    query("/x/a[last()] ! (string(), string(@type))", "status0\ntype0");
+    query("count(/x/a[@type = 'type1'])", 199);
+  }
+
+  /**
+   * Creates the test database and returns the size of the text and attribute value files.
+   * @return size
+   */
+  private static long size() {
+    execute(new CreateDB(NAME, DOC));
+    final MetaData meta = context.data().meta;
+    return meta.dbfile(DataText.DATATXT).length() + meta.dbfile(DataText.DATAATV).length();
+  }
+}
@@ -328,6 +328,37 @@ public final class DiskTableTest extends SandboxTest {
     assertEntrysEqual(nodes, 2 * nodes, size - nodes);
   }
 
+  /**
+   * Reads entries in parallel.
+   * @throws Exception exception
+   */
+  @Test
+  public void parallelRead() throws Exception {
+    tda.delete(nodes - 1, nodes + 2);
+    final int sz = size - 2 - nodes;
+    final Thread[] threads = new Thread[8];
+    final Throwable[] errors = new Throwable[threads.length];
+    for(int t = 0; t < threads.length; t++) {
+      final int n = t;
+      threads[t] = new Thread(() -> {
+        try {
+          for(int i = 0; i < sz; i++) {
+            final int pre = (i * (n + 1) * 31) % sz;
+            final int old = pre < nodes - 1 ? pre : pre + nodes + 2;
+            for(int j = 0; j < 1 << IO.NODEPOWER; j++) {
+              assertEquals(storage[(old << IO.NODEPOWER) + j], (byte) tda.read1(pre, j));
+            }
+          }
+        } catch(final Throwable ex) {
+          errors[n] = ex;
+        }
+      });
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    for(final Throwable error : errors) if(error != null) throw new AssertionError(error);
+  }
+
   /**
    * Asserts that the chosen entries are inserted by a test case.
    * @param startNum first entry
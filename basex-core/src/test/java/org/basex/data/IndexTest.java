@@ -1,12 +1,16 @@
 package org.basex.data;
 
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
 
+import java.io.*;
 import java.util.*;
 import java.util.List;
 
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.io.*;
 import org.basex.query.*;
 import org.junit.*;
 import org.junit.Test;
@@ -15,7 +19,8 @@ import org.junit.runners.*;
 import org.junit.runners.Parameterized.*;
 
 /**
- * This class tests the {@link MainOptions#UPDINDEX} and {@link MainOptions#AUTOOPTIMIZE} options.
+ * This class tests the {@link MainOptions#UPDINDEX}, {@link MainOptions#AUTOOPTIMIZE},
+ * {@link MainOptions#MMAP} and {@link MainOptions#PARALLELINDEX} options.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
@@ -53,8 +58,12 @@ public final class IndexTest extends AdvancedQueryTest {
   public void after() {
     execute(new DropDB(NAME));
     set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
     set(MainOptions.UPDINDEX, false);
     set(MainOptions.AUTOOPTIMIZE, false);
+    set(MainOptions.MMAP, false);
+    set(MainOptions.PARALLELINDEX, false);
+    set(MainOptions.SPLITSIZE, 0);
     set(MainOptions.MAINMEM, false);
   }
 
@@ -203,6 +212,126 @@ public final class IndexTest extends AdvancedQueryTest {
     execute(new Delete("A"));
   }
 
+  /**
+   * Rebuilds updatable indexes after node ids have been reassigned (GH-676).
+   */
+  @Test
+  public void updindexOptimizeIds() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.TOKENINDEX, true);
+    execute(new CreateDB(NAME, "<x><a b='X Y'>A</a><a b='Y'>B</a><a>C</a></x>"));
+    query("delete node //a[. = 'C']");
+    // simulate an overflow of node ids
+    context.data().meta.lastid = -1;
+    query("delete node //a[. = 'B']");
+    query(_DB_TEXT.args(NAME, "A"), "A");
+    query("count(" + _DB_TEXT.args(NAME, "B") + ')', 0);
+    query("count(" + _DB_TOKEN.args(NAME, "Y") + ')', 1);
+    execute(new Optimize());
+    query(_DB_TEXT.args(NAME, "A"), "A");
+    query("data(" + _DB_ATTRIBUTE.args(NAME, "X Y") + ')', "X Y");
+  }
+
+  /**
+   * Test.
+   */
+  @Test
+  public void updindexFulltext() {
+    // main-memory databases have no full-text index
+    if(mainmem.equals(Boolean.TRUE)) return;
+
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>quick brown fox</a><a>lazy dog</a></x>"));
+    final String search = "string-join(" + _FT_SEARCH.args(NAME, "%") + ", '|')";
+
+    for(int i = 0; i < 3; i++) {
+      query("replace value of node /x/a[2] with 'quick dog'");
+      query("insert node <a>fast fox</a> into /x");
+      query("delete node /x/a[last()]");
+    }
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", "true");
+    query(search.replace("%", "quick"), "quick brown fox|quick dog");
+    query(search.replace("%", "lazy"), "");
+    query(search.replace("%", "fast"), "");
+    query("string-join(//a[text() contains text 'd.*' using wildcards], '|')", "quick dog");
+    query("string-join(//a[text() contains text 'dogs' using fuzzy], '|')", "quick dog");
+
+    // pending updates are persistent
+    execute(new Close());
+    execute(new Open(NAME));
+    query(search.replace("%", "dog"), "quick dog");
+
+    // merge updates into the index files
+    execute(new Optimize());
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", "true");
+    query(search.replace("%", "fox"), "quick brown fox");
+    query(search.replace("%", "dog"), "quick dog");
+    query(search.replace("%", "lazy"), "");
+    query("insert node <a>lazy dog</a> into /x");
+    query(search.replace("%", "dog"), "quick dog|lazy dog");
+  }
+
+  /**
+   * Test.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void bloomFilter() throws IOException {
+    // filters are only created for disk-based indexes
+    if(mainmem.equals(Boolean.TRUE)) return;
+
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.SPLITSIZE, 1);
+    final StringBuilder xml = new StringBuilder("<x>");
+    for(int i = 0; i < 1000; i++) {
+      xml.append("<a b='b").append(i).append("'>").append(i).append("</a>");
+    }
+    execute(new CreateDB(NAME, xml.append("</x>").toString()));
+    final IOFile filter = new IOFile(context.soptions.dbPath(NAME), DataText.DATATXT + "f" + IO.BASEXSUFFIX);
+    assertTrue(filter.exists());
+
+    query("count(" + _DB_TEXT.args(NAME, "999") + ')', 1);
+    query("count(" + _DB_TEXT.args(NAME, "1000") + ')', 0);
+    query("count(" + _DB_ATTRIBUTE.args(NAME, "b999") + ')', 1);
+    query("count(" + _DB_ATTRIBUTE.args(NAME, "b1000") + ')', 0);
+
+    // new keys are added to the filter
+    query("insert node <a b='b1000'>1000</a> into /x");
+    query("count(" + _DB_TEXT.args(NAME, "1000") + ')', 1);
+    execute(new Close());
+    execute(new Open(NAME));
+    query("count(" + _DB_TEXT.args(NAME, "1000") + ')', 1);
+    query("count(" + _DB_ATTRIBUTE.args(NAME, "b1000") + ')', 1);
+    query("count(" + _DB_TEXT.args(NAME, "1001") + ')', 0);
+
+    // filter is kept if keys are deleted
+    query("delete node /x/a[. = '1000']");
+    execute(new Close());
+    final byte[] header = filter.read();
+    assertEquals(1000, (header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16 |
+        (header[2] & 0xFF) << 8 | header[3] & 0xFF);
+    execute(new Open(NAME));
+    assertEquals(1000, context.data().textIndex.size());
+    query("count(" + _DB_TEXT.args(NAME, "1000") + ')', 0);
+    query("count(" + _DB_TEXT.args(NAME, "999") + ')', 1);
+
+    // filter is resized if the number of keys grows
+    final long length = filter.length();
+    query("for $i in 1000 to 2999 return insert node <a>{ $i }</a> into /x");
+    execute(new Close());
+    assertTrue(filter.length() > length);
+    execute(new Open(NAME));
+    query("count(" + _DB_TEXT.args(NAME, "2999") + ')', 1);
+    query("count(" + _DB_TEXT.args(NAME, "3000") + ')', 0);
+
+    // filter is rebuilt with the index
+    execute(new DropIndex(CmdIndex.TEXT));
+    execute(new CreateIndex(CmdIndex.TEXT));
+    query("count(" + _DB_TEXT.args(NAME, "999") + ')', 1);
+    query("count(" + _DB_TEXT.args(NAME, "1000") + ')', 0);
+  }
+
   /**
    * Test.
    */
@@ -226,4 +355,82 @@ public final class IndexTest extends AdvancedQueryTest {
     query(_DB_REPLACE.args(NAME, "x.xml", "<a>D</a>"));
     query(_DB_INFO.args(NAME) + "//textindex/text()", "false");
   }
+
+  /**
+   * Test.
+   */
+  @Test
+  public void mmap() {
+    set(MainOptions.MMAP, true);
+    execute(new CreateDB(NAME, "<x><a>A</a><a b='B'>C</a></x>"));
+    query(_DB_PROPERTY.args(NAME, "mmap"), "true");
+    query("count(" + _DB_OPEN.args(NAME) + "//a)", 2);
+    query("string(" + _DB_OPEN.args(NAME) + "//@b)", "B");
+
+    // updates discard the mapping
+    query("replace value of node " + _DB_OPEN.args(NAME) + "//a[1] with 'D'");
+    query("insert node <a>E</a> into " + _DB_OPEN.args(NAME) + "/x");
+    query("string-join(" + _DB_OPEN.args(NAME) + "//a)", "DCE");
+
+    // reopen database
+    if(mainmem.equals(Boolean.FALSE)) {
+      execute(new Close());
+      execute(new Open(NAME));
+      query("string-join(" + _DB_OPEN.args(NAME) + "//a)", "DCE");
+      set(MainOptions.MMAP, false);
+      execute(new Optimize());
+      query(_DB_PROPERTY.args(NAME, "mmap"), "false");
+    }
+  }
+
+  /**
+   * Test.
+   */
+  @Test
+  public void mmapDrop() {
+    set(MainOptions.MMAP, true);
+    execute(new CreateDB(NAME, "<x><a>A</a><a b='B'>C</a></x>"));
+    query("string-join(" + _DB_OPEN.args(NAME) + "//a)", "AC");
+    // mapped files are released when the database is closed
+    execute(new DropDB(NAME));
+    assertFalse(context.soptions.dbPath(NAME).exists());
+
+    // mapping is released before the files are rewritten
+    execute(new CreateDB(NAME, "<x><a>A</a><a b='B'>C</a></x>"));
+    query("string-join(" + _DB_OPEN.args(NAME) + "//a)", "AC");
+    execute(new OptimizeAll());
+    query("string-join(" + _DB_OPEN.args(NAME) + "//a)", "AC");
+  }
+
+  /**
+   * Test.
+   */
+  @Test
+  public void parallelindex() {
+    final boolean ft = mainmem.equals(Boolean.FALSE);
+    set(MainOptions.PARALLELINDEX, true);
+    set(MainOptions.SPLITSIZE, 1);
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, ft);
+    final StringBuilder xml = new StringBuilder("<x>");
+    for(int i = 1; i <= 100000; i++) {
+      xml.append("<a b='").append(i % 7).append(" c'>").append(i % 5).append("</a>");
+    }
+    execute(new CreateDB(NAME, xml.append("</x>").toString()));
+    final String info = _DB_INFO.args(NAME) + "//(textindex, attrindex, tokenindex";
+    query(info + ")/text()", "true\ntrue\ntrue");
+    query("count(" + _DB_TEXT.args(NAME, "1") + ')', 20000);
+    query("count(" + _DB_ATTRIBUTE.args(NAME, "3 c") + ')', 14286);
+    query("count(" + _DB_TOKEN.args(NAME, "c") + ')', 100000);
+    if(ft) query("count(" + _FT_SEARCH.args(NAME, "4") + ')', 20000);
+
+    // rebuild indexes after updates
+    query("delete node /x/a[. = '1']");
+    execute(new Optimize());
+    query(info + ")/text()", "true\ntrue\ntrue");
+    query("count(" + _DB_TEXT.args(NAME, "1") + ')', 0);
+    query("count(" + _DB_TEXT.args(NAME, "2") + ')', 20000);
+    query("count(" + _DB_TOKEN.args(NAME, "c") + ')', 80000);
+    if(ft) query("count(" + _FT_SEARCH.args(NAME, "4") + ')', 20000);
+  }
 }
@@ -0,0 +1,159 @@
+package org.basex.data;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the write-ahead log of the database table ({@link MainOptions#JOURNAL}).
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class JournalTest extends AdvancedQueryTest {
+  /** Name of the recovered database. */
+  private static final String COPY = NAME + "Copy";
+
+  /**
+   * Initializes a test.
+   */
+  @Before
+  public void before() {
+    set(MainOptions.JOURNAL, true);
+  }
+
+  /**
+   * Finalizes a test.
+   */
+  @After
+  public void after() {
+    execute(new DropDB(NAME));
+    execute(new DropDB(COPY));
+    set(MainOptions.JOURNAL, false);
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Logs updates and writes them to the database files when the database is closed.
+   */
+  @Test
+  public void close() {
+    execute(new CreateDB(NAME, "<x/>"));
+    for(int i = 0; i < 50; i++) query("insert node <a>{ " + i + " }</a> into /x");
+    query("replace value of node /x/a[1] with 'A'");
+    assertTrue(log(NAME).exists());
+
+    execute(new Close());
+    assertFalse(log(NAME).exists());
+    execute(new Open(NAME));
+    query("count(/x/a)", 50);
+    query("/x/a[1]/text()", "A");
+  }
+
+  /**
+   * Recovers a database from the log.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void recover() throws IOException {
+    execute(new CreateDB(NAME, "<x/>"));
+    for(int i = 0; i < 50; i++) query("insert node <a>{ " + i + " }</a> into /x");
+    query("rename node /x as 'y'");
+
+    // simulate crash: copy database files before the logged updates have been written
+    copy();
+    query("count(" + _DB_OPEN.args(COPY) + "/y/a)", 50);
+    query("string(" + _DB_OPEN.args(COPY) + "/y/a[last()])", 49);
+    assertFalse(log(COPY).exists());
+  }
+
+  /**
+   * Recovers a database after a crash while a text was being replaced.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void replace() throws IOException {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>AAAA</a><a>BBBB</a></x>"));
+    query("insert node <a>CCCC</a> into /x");
+    final int size = (int) log(NAME).length();
+    query("replace value of node /x/a[1] with 'DDDD'");
+
+    // simulate crash: heaps and indexes have been updated, but the update was not committed
+    copy();
+    final IOFile log = log(COPY);
+    log.write(Arrays.copyOf(log.read(), size));
+    final IOFile upd = new IOFile(context.soptions.dbPath(COPY), DataText.DATAUPD + IO.BASEXSUFFIX);
+    assertTrue(upd.touch());
+
+    query("string-join(" + _DB_OPEN.args(COPY) + "/x/a, ' ')", "AAAA BBBB CCCC");
+    query(_DB_INFO.args(COPY) + "//textindex/text()", "false");
+    assertFalse(log.exists());
+    assertFalse(upd.exists());
+  }
+
+  /**
+   * Discards incomplete log entries.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void incomplete() throws IOException {
+    execute(new CreateDB(NAME, "<x/>"));
+    query("insert node <a/> into /x");
+    copy();
+    // append truncated page record
+    final IOFile log = log(COPY);
+    final byte[] data = log.read(), bytes = new byte[data.length + 100];
+    System.arraycopy(data, 0, bytes, 0, data.length);
+    bytes[data.length] = 1;
+    log.write(bytes);
+
+    query("count(" + _DB_OPEN.args(COPY) + "/x/a)", 1);
+    assertFalse(log.exists());
+  }
+
+  /**
+   * Disables the log.
+   */
+  @Test
+  public void disable() {
+    execute(new CreateDB(NAME, "<x/>"));
+    query("insert node <a/> into /x");
+    assertTrue(log(NAME).exists());
+    set(MainOptions.JOURNAL, false);
+    query("insert node <b/> into /x");
+    assertFalse(log(NAME).exists());
+    execute(new Close());
+    query("count(" + _DB_OPEN.args(NAME) + "/x/*)", 2);
+  }
+
+  /**
+   * Copies the files of the test database.
+   * @throws IOException I/O exception
+   */
+  private static void copy() throws IOException {
+    final IOFile target = context.soptions.dbPath(COPY);
+    target.md();
+    for(final IOFile file : context.soptions.dbPath(NAME).children()) {
+      new IOFile(target, file.name()).write(file.read());
+    }
+  }
+
+  /**
+   * Returns the log file of a database.
+   * @param db database
+   * @return log file
+   */
+  private static IOFile log(final String db) {
+    return new IOFile(context.soptions.dbPath(db), DataText.DATALOG + IO.BASEXSUFFIX);
+  }
+}
@@ -49,6 +49,31 @@ public final class SelectiveIndexTest extends AdvancedQueryTest {
     }
   }
 
+  /**
+   * Tests path-qualified names.
+   */
+  @Test
+  public void paths() {
+    try {
+      final String[][] tests = {
+        { "xml/a", "1", "0" }, { "/xml/b", "1", "0" }, { "a/a", "0", "1" },
+        { "/xml/@a", "0", "0" }, { "xml/a, b/@b", "1", "1" }, { "x/a", "0", "0" },
+      };
+      for(final String[] test : tests) {
+        set(MainOptions.TEXTINCLUDE, test[0]);
+        set(MainOptions.ATTRINCLUDE, test[0]);
+        execute(new CreateDB(NAME, FILE));
+        assertEquals("TextIndex: \"" + test[0] + "\": ", Integer.parseInt(test[1]),
+            context.data().textIndex.size());
+        assertEquals("AttrIndex: \"" + test[0] + "\": ", Integer.parseInt(test[2]),
+            context.data().attrIndex.size());
+      }
+    } finally {
+      set(MainOptions.TEXTINCLUDE, "");
+      set(MainOptions.ATTRINCLUDE, "");
+    }
+  }
+
   /**
    * Tests the token index.
    */
@@ -78,7 +78,17 @@ public class DataAccessTest {
     try(RandomAccessFile f = new RandomAccessFile(file.file(), "rw")) {
       initialContent(f);
     }
-    da = new DataAccess(file);
+    da = open(file);
+  }
+
+  /**
+   * Opens the file to be tested.
+   * @param io file
+   * @return data access
+   * @throws IOException I/O exception
+   */
+  protected DataAccess open(final IOFile io) throws IOException {
+    return new DataAccess(io);
   }
 
   /**
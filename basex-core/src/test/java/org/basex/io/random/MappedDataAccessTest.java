@@ -0,0 +1,18 @@
+package org.basex.io.random;
+
+import java.io.*;
+
+import org.basex.io.*;
+
+/**
+ * Tests for class {@link DataAccess}, using memory-mapped files.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedDataAccessTest extends DataAccessTest {
+  @Override
+  protected DataAccess open(final IOFile io) throws IOException {
+    return new DataAccess(io, true);
+  }
+}
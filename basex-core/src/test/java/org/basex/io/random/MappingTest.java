@@ -0,0 +1,56 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.*;
+import org.basex.io.*;
+import org.junit.*;
+
+/**
+ * Tests for class {@link Mapping}.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class MappingTest extends SandboxTest {
+  /** File size. */
+  private static final int SIZE = 1 << 16;
+
+  /**
+   * Closes a mapping while it is read by other threads.
+   * @throws Exception exception
+   */
+  @Test
+  public void closeWhileReading() throws Exception {
+    final IOFile file = new IOFile(sandbox(), "mapping");
+    file.write(new byte[SIZE]);
+    final AtomicInteger errors = new AtomicInteger();
+    for(int r = 0; r < 20; r++) {
+      try(RandomAccessFile raf = new RandomAccessFile(file.file(), "r")) {
+        final Mapping mapping = new Mapping(raf.getChannel(), SIZE);
+        final Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++) {
+          threads[t] = new Thread(() -> {
+            for(int i = 0; i < 10000; i++) {
+              if(!mapping.pin()) continue;
+              try {
+                if(mapping.getInt((i << 2) % SIZE) != 0) errors.incrementAndGet();
+              } finally {
+                mapping.unpin();
+              }
+            }
+          });
+          threads[t].start();
+        }
+        mapping.close();
+        // closed mappings cannot be pinned anymore
+        assertFalse(mapping.pin());
+        for(final Thread thread : threads) thread.join();
+      }
+    }
+    assertEquals(0, errors.get());
+  }
+}
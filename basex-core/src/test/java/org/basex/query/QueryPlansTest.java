@@ -0,0 +1,94 @@
+package org.basex.query;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for cached query plans.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPlansTest extends SandboxTest {
+  /** Enables the plan cache. */
+  @Before
+  public void init() {
+    context.soptions.set(StaticOptions.PLANCACHE, 2);
+    context.plans.clear();
+  }
+
+  /** Disables the plan cache. */
+  @After
+  public void finish() {
+    context.soptions.set(StaticOptions.PLANCACHE, 0);
+    context.plans.clear();
+  }
+
+  /** Repeated queries. */
+  @Test
+  public void repeated() {
+    final String query = "for $i in 1 to 3 let $f := function($x) { $x * $i } return $f(2)";
+    for(int i = 0; i < 3; i++) {
+      assertEquals("2\n4\n6", execute(new XQuery(query)));
+      assertEquals(1, context.plans.size());
+    }
+  }
+
+  /** Compilation is repeated for each query. */
+  @Test
+  public void databases() {
+    final String query = COUNT.args(_DB_OPEN.args(NAME) + "//a");
+    execute(new CreateDB(NAME, "<x><a/></x>"));
+    assertEquals("1", execute(new XQuery(query)));
+    execute(new XQuery("insert node <a/> into " + _DB_OPEN.args(NAME) + "/x"));
+    assertEquals("2", execute(new XQuery(query)));
+    execute(new DropDB(NAME));
+    assertEquals(2, context.plans.size());
+  }
+
+  /** Bindings are applied to cached plans. */
+  @Test
+  public void bindings() {
+    final String query = "string(.)";
+    execute(new CreateDB(NAME, "<x>X</x>"));
+    assertEquals("X", execute(new XQuery(query)));
+    set(MainOptions.BINDINGS, "=A");
+    assertEquals("A", execute(new XQuery(query)));
+    set(MainOptions.BINDINGS, "=B");
+    assertEquals("B", execute(new XQuery(query)));
+    set(MainOptions.BINDINGS, "");
+    assertEquals("X", execute(new XQuery(query)));
+    execute(new DropDB(NAME));
+    assertEquals(1, context.plans.size());
+  }
+
+  /** Namespace declarations are adopted by cached plans. */
+  @Test
+  public void namespaces() {
+    final String query = "declare namespace p = 'U'; <p:a>{ element { 'p:b' } {} }</p:a>/p:b";
+    for(int i = 0; i < 2; i++) assertEquals("<p:b xmlns:p=\"U\"/>", execute(new XQuery(query)));
+    assertEquals(1, context.plans.size());
+  }
+
+  /** Queries with prolog declarations are not cached. */
+  @Test
+  public void prolog() {
+    execute(new XQuery("declare function local:f() { 1 }; local:f()"));
+    execute(new XQuery("declare variable $x := 1; $x"));
+    execute(new XQuery("declare option output:method 'text'; 1"));
+    assertEquals(0, context.plans.size());
+  }
+
+  /** Least recently used plans are discarded. */
+  @Test
+  public void bounded() {
+    for(int i = 0; i < 5; i++) execute(new XQuery(Integer.toString(i)));
+    assertEquals(2, context.plans.size());
+  }
+}
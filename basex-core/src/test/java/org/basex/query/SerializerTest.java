@@ -106,4 +106,13 @@ public final class SerializerTest extends AdvancedQueryTest {
     query(option + "<a xml:space='default'>T<b/></a>", "<a xml:space=\"default\">T<b/></a>");
     query(option + "<a xml:space='x'>T<b/></a>", "<a xml:space=\"x\">T<b/></a>");
   }
+
+  /** Test: encoding of texts and attribute values. */
+  @Test
+  public void encode() {
+    query("<a b='x\"y&#9;&#10;z&lt;&#xE9;'>a&amp;b&lt;c&gt;d&#x7F;&#xE9;&#x2028;&#13;\ne</a>",
+        "<a b=\"x&quot;y&#x9;&#xA;z&lt;\u00e9\">a&amp;b&lt;c&gt;d&#x7F;\u00e9&#x2028;&#xD;\ne</a>");
+    query(SerializerOptions.USE_CHARACTER_MAPS.arg("x=[X]") + "<a b='yxy'>x&amp;x&#xE9;</a>",
+        "<a b=\"y[X]y\">[X]&amp;[X]\u00e9</a>");
+  }
 }
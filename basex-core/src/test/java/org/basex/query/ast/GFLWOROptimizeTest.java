@@ -300,4 +300,82 @@ public final class GFLWOROptimizeTest extends QueryPlanTest {
         "count(//VarRef) = 1"
     );
   }
+
+  /** Tests the rewriting of joins to hash joins. */
+  @Test public void hashJoin() {
+    check("let $b := (1 to 6) ! <b k='{ . mod 3 }'>{ . }</b> " +
+        "for $a in ('2', '0', '5') " +
+        "for $c in $b where $c/@k = $a " +
+        "return string($c)",
+        "2\n5\n3\n6",
+        "exists(//HashJoin)"
+    );
+    check("for $a in ('x', 'y', 'z') " +
+        "for $b in (<b><k>y</k><k>x</k></b>, <b><k>z</k></b>) " +
+        "where $a = $b/k " +
+        "return count($b/k)",
+        "2\n2\n1",
+        "exists(//HashJoin)"
+    );
+    // multiple probe values, results in input order
+    check("for $a in (<a><k>b</k><k>a</k></a>, <a/>) " +
+        "return ('a', 'b', 'c')[. = $a/k]",
+        "a\nb",
+        "exists(//HashJoin)"
+    );
+  }
+
+  /** Tests join predicates that cannot be rewritten to hash joins. */
+  @Test public void noHashJoin() {
+    // input depends on the variable of the preceding clause
+    check("for $a in 1 to 3 " +
+        "for $b in ($a to 3) where $b = $a + 1 " +
+        "return $b",
+        "2\n3",
+        "empty(//HashJoin)"
+    );
+    // no hashable types
+    check("for $a in (1, 2.0) " +
+        "for $b in (1.0, 2) where $b = $a " +
+        "return $b",
+        "1\n2",
+        "empty(//HashJoin)"
+    );
+  }
+
+  /** Tests the limitation of sorted tuples. */
+  @Test public void topK() {
+    final String flwor = "for $i in (1 to 100) ! (. mod 7) order by $i descending ";
+    check("(" + flwor + "return $i)[position() <= 3]",
+        "6\n6\n6",
+        "//OrderBy/@max = 3"
+    );
+    check("subsequence(" + flwor + "return $i, 14, 3)",
+        "6\n5\n5",
+        "//OrderBy/@max = 16"
+    );
+    check("head(" + flwor + "count $c return $c || '.' || $i)",
+        "1.6",
+        "//OrderBy/@max = 1"
+    );
+    check("(" + flwor + "let $j := string($i) return $j)[2]",
+        "6",
+        "//OrderBy/@max = 2"
+    );
+    // stable order of equal keys
+    check("(for $i in 1 to 100 order by $i mod 7 return $i)[position() <= 4]",
+        "7\n14\n21\n28",
+        "//OrderBy/@max = 4"
+    );
+    // return expression may yield no items
+    check("(" + flwor + "return $i[. > 5])[position() <= 3]",
+        "6\n6\n6",
+        "empty(//OrderBy/@max)"
+    );
+    // tuples may be filtered after sorting
+    check("(" + flwor + "count $c where $c > 20 return $i)[1]",
+        "5",
+        "empty(//OrderBy/@max)"
+    );
+  }
 }
@@ -0,0 +1,147 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.jobs.*;
+import org.basex.query.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the parallel evaluation of FLWOR, map and path expressions
+ * ({@link MainOptions#PARALLELQUERY}).
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelTest extends AdvancedQueryTest {
+  /** Queries to be compared with and without parallel evaluation. */
+  private static final String[] QUERIES = {
+    "(1 to 1000) ! (. * 2)",
+    "(1 to 100) ! (. + position() * 1000 + last())",
+    "(1 to 100) ! string() ! (. || '!')",
+    "let $x := 3 return (1 to 100) ! (. mod $x)",
+    "for $i at $p in 1 to 100 return $i * $p",
+    "for $i in 1 to 30 let $j := $i * 2 where $j mod 3 = 0 for $k in 1 to 3 return $j + $k",
+    "let $n := 10 for $i in 1 to 100 return $i idiv $n",
+    "for $i in 1 to 5 for $j in 1 to 50 return $i * $j",
+    "<x>a</x> ! (for $i in 1 to 100 return . || $i)",
+    "for $a in //a return $a/text() + 1",
+    "//a ! name()",
+    "declare function local:f($n) { if($n < 2) then $n else local:f($n - 1) + local:f($n - 2) };" +
+      "(1 to 20) ! local:f(.)",
+    "for $i in 1 to 100 return <a>{ $i }</a>",
+    "for $i in 1 to 100 order by -$i return $i",
+  };
+
+  /** Path queries to be compared with and without parallel evaluation. */
+  private static final String[] PATHS = {
+    "count(//a)",
+    "//b/@x ! string()",
+    "//a[. mod 1000 = 7] ! string()",
+    "count(/descendant-or-self::node())",
+    "count(//text()[ends-with(., '99')])",
+    "//b/descendant::a[. = (5, 39999)] ! string()",
+    "(//a)[last()] ! string()",
+    "exists(//a)",
+    "head(//a) ! string()",
+    "(//b)[3] ! string(@x)",
+  };
+
+  /**
+   * Initializes the tests; enforces parallel evaluation, regardless of the number of processors.
+   */
+  @BeforeClass
+  public static void initTests() {
+    Prop.put(StaticOptions.FORKJOIN, "4");
+    initSandbox();
+  }
+
+  /**
+   * Initializes a test.
+   */
+  @Before
+  public void before() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 1; i <= 100; i++) sb.append("<a>").append(i).append("</a>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+  }
+
+  /**
+   * Finalizes a test.
+   */
+  @After
+  public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.PARALLELQUERY, false);
+  }
+
+  /**
+   * Compares the results of parallel and sequential evaluation.
+   */
+  @Test
+  public void results() {
+    for(final String q : QUERIES) {
+      set(MainOptions.PARALLELQUERY, false);
+      final String expected = query(q);
+      set(MainOptions.PARALLELQUERY, true);
+      query(q, expected);
+    }
+  }
+
+  /**
+   * Compares the results of parallel and sequential scans of large databases.
+   */
+  @Test
+  public void paths() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 1; i <= 40000; i++) {
+      sb.append("<a>").append(i).append("</a>");
+      if(i % 10000 == 0) {
+        sb.append("<b x='").append(i).append("'><a>").append(i).append("</a></b>");
+      }
+    }
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+    for(final String q : PATHS) {
+      set(MainOptions.PARALLELQUERY, false);
+      final String expected = query(q);
+      set(MainOptions.PARALLELQUERY, true);
+      query(q, expected);
+    }
+    error("//a[if(. = 30000) then error() else true()]", FUNERR1);
+  }
+
+  /**
+   * Checks errors raised by single partitions.
+   */
+  @Test
+  public void errors() {
+    set(MainOptions.PARALLELQUERY, true);
+    error("(1 to 100) ! (if(. = 50) then error() else .)", FUNERR1);
+    error("for $i in 1 to 100 return if($i = 50) then error() else $i", FUNERR1);
+  }
+
+  /**
+   * Stops a parallel evaluation while partitions are running.
+   * @throws QueryException query exception
+   */
+  @Test
+  public void stop() throws QueryException {
+    set(MainOptions.PARALLELQUERY, true);
+    final String query = "for $i in 1 to 64 return count((1 to 10000000) ! (. + $i))";
+    try(QueryProcessor qp = new QueryProcessor(query, context)) {
+      new Thread(() -> {
+        Performance.sleep(200);
+        qp.qc.stop();
+      }).start();
+      qp.value();
+      fail("Query was not stopped.");
+    } catch(final JobException ex) {
+      Util.debug(ex);
+    }
+  }
+}
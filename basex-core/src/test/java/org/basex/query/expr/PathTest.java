@@ -259,4 +259,20 @@ public final class PathTest extends AdvancedQueryTest {
     execute(new Add("b.xml", "<b/>"));
     query(".[/a]", "<a/>");
   }
+
+  /**
+   * Iteration of database nodes with reused node instances.
+   */
+  @Test public void cursors() {
+    execute(new CreateDB(NAME, "<x><a><b>1</b><b>2</b></a><a><b>3</b><c/></a></x>"));
+    query("count(//a/b)", "3");
+    query("count(/x/a/b/text())", "3");
+    query("exists(//a/c)", "true");
+    query("empty(//a/b/c)", "true");
+    query("count(//a/b/..)", "2");
+    query("count(/x/a/descendant-or-self::node()/self::b)", "3");
+    query("//a/b/text()", "1\n2\n3");
+    query("let $b := //a/b return ($b[1] is $b[3], $b[2] is $b[2])", "false\ntrue");
+    query("for $b in /x/a/b return $b/../c ! name()", "c");
+  }
 }
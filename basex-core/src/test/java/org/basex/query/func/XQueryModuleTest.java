@@ -2,6 +2,9 @@ package org.basex.query.func;
 
 import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
 
 import org.basex.query.*;
 import org.junit.*;
@@ -56,6 +59,24 @@ public final class XQueryModuleTest extends AdvancedQueryTest {
         " map { 'memory': 10 }"), BXXQ_MEMORY);
   }
 
+  /** Test method. */
+  @Test
+  public void evalTimers() {
+    // timers are registered in the shared scheduler and removed when they are cancelled
+    final int timers = context.jobs.timers();
+    final ScheduledFuture<?> future = context.jobs.schedule(() -> { }, 100000);
+    assertEquals(timers + 1, context.jobs.timers());
+    future.cancel(false);
+    assertEquals(timers, context.jobs.timers());
+
+    // timers of evaluated queries are removed after the evaluation
+    query(_XQUERY_EVAL.args("1", " map { }", " map { 'timeout': 100, 'memory': 1000 }"), 1);
+    assertEquals(timers, context.jobs.timers());
+    error(_XQUERY_EVAL.args("\"(1 to 10000000000000)[. = 0]\"", " map { }",
+        " map { 'timeout': 1 }"), BXXQ_TIMEOUT);
+    assertEquals(timers, context.jobs.timers());
+  }
+
   /** Test method. */
   @Test
   public void update() {
@@ -86,10 +107,20 @@ public final class XQueryModuleTest extends AdvancedQueryTest {
     query(_XQUERY_FORK_JOIN.args("(true#0, function() { (1 to 10000000)[.=1] })"), "true\n1");
     query(_XQUERY_FORK_JOIN.args("()"), "");
 
+    // limit parallelism
+    query("string-join(" + _XQUERY_FORK_JOIN.args(" for $i in 1 to 10 return function() { $i }",
+        " map { 'parallel': 3 }") + ')', "12345678910");
+    query("string-join(" + _XQUERY_FORK_JOIN.args(" for $i in 1 to 10 return function() { $i }",
+        " map { 'parallel': 1 }") + ')', "12345678910");
+    query("string-join(" + _XQUERY_FORK_JOIN.args(" for $i in 1 to 3 return function() { $i }",
+        " map { 'parallel': 10 }") + ')', "123");
+
     // errors
     error(_XQUERY_FORK_JOIN.args(" count#1"), ZEROFUNCS_X_X);
     error(_XQUERY_FORK_JOIN.args(" 123"), ZEROFUNCS_X_X);
     error(_XQUERY_FORK_JOIN.args(" error#0"), FUNERR1);
+    // first error is returned, remaining tasks are stopped
+    error(_XQUERY_FORK_JOIN.args("(error#0, function() { (1 to 100000000000)[.=0] })"), FUNERR1);
   }
 
   /** Test method. */
@@ -205,6 +205,59 @@ public final class IndexOptimizeTest extends QueryPlanTest {
     }
   }
 
+  /** Checks path-qualified index names. */
+  @Test public void selectivePathIndexTest() {
+    final String doc = "<orders><order><status>open</status><item status='open'/></order>"
+        + "<log><status>open</status></log></orders>";
+    try {
+      set(MainOptions.UPDINDEX, true);
+      set(MainOptions.TEXTINCLUDE, "order/status");
+      set(MainOptions.ATTRINCLUDE, "/orders/order/item/@status");
+      set(MainOptions.TOKENINDEX, true);
+      set(MainOptions.TOKENINCLUDE, "/orders/order/item/@status");
+      execute(new CreateDB(NAME, doc));
+
+      // all addressed nodes are indexed
+      check("count(//order[status = 'open'])", "1", "exists(//ValueAccess)");
+      check("count(/orders/order[status/text() = 'open'])", "1", "exists(//ValueAccess)");
+      check("count(//order/status[. = 'open'])", "1", "exists(//ValueAccess)");
+      check("count(//order[item/@status = 'open'])", "1", "exists(//ValueAccess)");
+      check("count(//item[@status = 'open'])", "1", "exists(//ValueAccess)");
+      check("count(//@status[. = 'open'])", "1", "exists(//ValueAccess)");
+      // some addressed nodes are not indexed
+      check("count(//*[status = 'open'])", "2", "empty(//ValueAccess)");
+      check("count(//status[. = 'open'])", "2", "empty(//ValueAccess)");
+      check("count(//log[status = 'open'])", "1", "empty(//ValueAccess)");
+
+      // renamed ancestors
+      final String entries = "count(" + _DB_TEXT.args(NAME, "open") + ')';
+      final String attributes = "count(" + _DB_ATTRIBUTE.args(NAME, "open") + ')';
+      final String tokens = "count(" + _DB_TOKEN.args(NAME, "open") + ')';
+      query(entries, 1);
+      query(attributes, 1);
+      query(tokens, 1);
+      query("rename node /orders/log as 'order'");
+      query(entries, 2);
+      query("rename node /orders/order[1] as 'log'");
+      query(entries, 1);
+      query("rename node /orders as 'x'");
+      query(entries, 1);
+      query(attributes, 0);
+      query(tokens, 0);
+      query("rename node /x as 'orders'");
+      query(tokens, 0);
+      query("rename node /orders/log[item] as 'order'");
+      query(attributes, 1);
+      query(tokens, 1);
+    } finally {
+      set(MainOptions.UPDINDEX, false);
+      set(MainOptions.TEXTINCLUDE, "");
+      set(MainOptions.ATTRINCLUDE, "");
+      set(MainOptions.TOKENINCLUDE, "");
+      set(MainOptions.TOKENINDEX, false);
+    }
+  }
+
   /** Checks mixed downward and upward axes. */
   @Test public void upAndDown() {
     createDoc();
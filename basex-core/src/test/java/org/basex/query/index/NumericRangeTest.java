@@ -0,0 +1,151 @@
+package org.basex.query.index;
+
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.CmdIndex;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.ast.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests if numeric range queries are correctly evaluated with(out) the index.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class NumericRangeTest extends QueryPlanTest {
+  /**
+   * Initializes the tests.
+   */
+  @BeforeClass
+  public static void start() {
+    // create initial document with integers, negative numbers and decimals
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add("<xml>");
+    for(int i = -500; i < 1000; i++) tb.add("<n>").addInt(i).add("</n>");
+    for(int i = 0; i < 100; i++) tb.add("<d>").addInt(i).add(".5</d>");
+    tb.add("</xml>");
+    execute(new CreateDB(NAME, tb.toString()));
+  }
+
+  /**
+   * Finishes the tests.
+   */
+  @AfterClass
+  public static void finish() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Inclusive ranges.
+   */
+  @Test
+  public void inclusive() {
+    final Class<? extends Expr> clz = RangeAccess.class;
+    test("count(//n[text() >= 990 and text() <= 999])", "10", clz);
+    test("count(//n[text() >= 5 and text() <= 999])", "995", clz);
+    test("count(//n[text() >= -10 and text() <= 10])", "21", clz);
+    test("count(//n[text() >= -1000 and text() <= -499])", "2", clz);
+    test("count(//n[text() >= 2000])", "0");
+  }
+
+  /**
+   * Exclusive ranges.
+   */
+  @Test
+  public void exclusive() {
+    final Class<? extends Expr> clz = RangeAccess.class;
+    test("count(//n[text() > 990 and text() < 999])", "8", clz);
+    test("count(//n[text() > -10 and text() <= 10])", "20", clz);
+    test("count(//n[text() > 998])", "1", clz);
+    test("count(//n[text() < -499])", "1", clz);
+    test("count(//n[text() > 999])", "0");
+  }
+
+  /**
+   * Query plan and string representation of exclusive bounds.
+   */
+  @Test
+  public void bounds() {
+    execute(new CreateIndex(CmdIndex.TEXT));
+    check("count(//n[text() > 990 and text() <= 999])", "9",
+        "exists(//RangeAccess[@minInclusive = 'false'][@maxInclusive = 'true'])");
+    final double[][] bounds = { { 990, 999 }, { 990.5, 998.5 } };
+    final boolean[] incl = { true, false };
+    for(final double[] b : bounds) {
+      for(final boolean mni : incl) {
+        for(final boolean mxi : incl) {
+          final NumericRange nr = new NumericRange(IndexType.TEXT, b[0], mni, b[1], mxi);
+          final String string = new RangeAccess(null, nr, new IndexStaticDb(null,
+              context.data())).toString();
+          int count = 0;
+          for(int i = -500; i < 1000; i++) if(nr.contains(i)) count++;
+          query("count(" + string + ')', count);
+        }
+      }
+    }
+    execute(new DropIndex(CmdIndex.TEXT));
+  }
+
+  /**
+   * Decimal values.
+   */
+  @Test
+  public void decimals() {
+    final Class<? extends Expr> clz = RangeAccess.class;
+    test("count(//d[text() >= 10.5 and text() < 20])", "10", clz);
+    test("count(//d[text() > 10.5 and text() <= 20.5])", "10", clz);
+    test("count(//d[text() > 98.75])", "1", clz);
+  }
+
+  /**
+   * Updates.
+   */
+  @Test
+  public void update() {
+    execute(new CreateIndex(CmdIndex.TEXT));
+    execute(new Set("updindex", true));
+    try {
+      query("count(//n[text() > 990])", "9");
+      query("insert node <n>995.5</n> into /xml");
+      query("count(//n[text() > 990])", "10");
+      query("delete node //n[text() = 995]");
+      query("count(//n[text() > 990])", "9");
+    } finally {
+      execute(new Set("updindex", false));
+      // statistics are outdated after updates: recreate database
+      start();
+    }
+  }
+
+  /**
+   * Tests a query with and without index.
+   * @param query query
+   * @param result expected result
+   * @param expr class expected in query plan
+   */
+  private static void test(final String query, final String result,
+      final Class<? extends Expr> expr) {
+
+    execute(new CreateIndex(CmdIndex.TEXT));
+    check(query, result, "exists(//" + Util.className(expr) + ')');
+    execute(new DropIndex(CmdIndex.TEXT));
+    check(query, result, "not(//" + Util.className(expr) + ')');
+  }
+
+  /**
+   * Tests a query with and without index.
+   * @param query query
+   * @param result expected result
+   */
+  private static void test(final String query, final String result) {
+    execute(new CreateIndex(CmdIndex.TEXT));
+    check(query, result);
+    execute(new DropIndex(CmdIndex.TEXT));
+    check(query, result);
+  }
+}
@@ -0,0 +1,106 @@
+package org.basex.query.util;
+
+import static org.basex.query.QueryError.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for sorting records on disk ({@link MainOptions#SORTSIZE}).
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ExternalSortTest extends AdvancedQueryTest {
+  /** Queries to be compared with and without external sorting. */
+  private static final String[] QUERIES = {
+    "for $i in 1 to 1000 order by $i mod 7, $i descending return $i",
+    "for $i in 1 to 1000 order by $i mod 3 return $i",
+    "for $i in 1 to 1000 let $k := if($i mod 5 = 0) then () else $i mod 2 " +
+      "order by $k empty greatest return $i",
+    "for $d in (1 to 500) ! (. div 3, xs:double('NaN')) order by $d return $d",
+    "for $s in (1 to 500) ! string(.) order by $s descending return $s",
+    "for $n in //n order by string($n) return $n",
+    "for $n in //n order by number($n) mod 10 count $c return ($c, $n/text())",
+    "sort((1 to 1000) ! (. mod 17, xs:float(.), xs:decimal(.) div 4))",
+    "sort(//n, (), function($n) { string($n) })",
+    "sort((1 to 500) ! (. mod 2 = 0), (), function($b) { not($b) })",
+    "array:sort(array { (1 to 500) ! [., . mod 4] }, (), function($m) { $m(2) })",
+    "hof:sort-with(1 to 1000, function($a, $b) { $a mod 9 < $b mod 9 })",
+    "for $i in (1 to 500) ! (<a>{ . mod 4 }</a>, .) order by string($i) return $i",
+  };
+
+  /**
+   * Initializes a test.
+   */
+  @Before
+  public void before() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 1; i <= 200; i++) sb.append("<n>").append(i * 7 % 50).append("</n>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+  }
+
+  /**
+   * Finalizes a test.
+   */
+  @After
+  public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.SORTSIZE, 0);
+  }
+
+  /**
+   * Compares the results of external and internal sorts.
+   */
+  @Test
+  public void results() {
+    for(final String q : QUERIES) {
+      set(MainOptions.SORTSIZE, 0);
+      final String expected = query(q);
+      for(final int size : new int[] { 1, 10, 333 }) {
+        set(MainOptions.SORTSIZE, size);
+        query(q, expected);
+      }
+    }
+  }
+
+  /**
+   * Checks errors raised while comparing records.
+   */
+  @Test
+  public void errors() {
+    set(MainOptions.SORTSIZE, 10);
+    error("for $i in (1 to 100, 'a') order by $i return $i", INVCAST_X_X_X);
+    error("sort((1 to 100, 'a'))", CMPTYPES_X_X);
+  }
+
+  /**
+   * Checks if temporary files are deleted if not all records are requested.
+   */
+  @Test
+  public void files() {
+    set(MainOptions.SORTSIZE, 10);
+    final int count = files();
+    query("head(sort((1 to 1000) ! (. mod 17)))", 0);
+    query("hof:sort-with(1 to 1000, function($a, $b) { $a mod 9 < $b mod 9 })[1]", 9);
+    assertEquals(count, files());
+  }
+
+  /**
+   * Returns the number of temporary files created by the sorter.
+   * @return number of files
+   */
+  private static int files() {
+    final File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles(
+        (dir, name) -> name.startsWith(Prop.NAME + '-') && name.endsWith(IO.TMPSUFFIX));
+    return files == null ? 0 : files.length;
+  }
+}
@@ -0,0 +1,29 @@
+package org.basex.server;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * This class tests the client/server session API with a selector for idle sessions.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSessionNIOTest extends ClientSessionTest {
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass
+  public static void startServer() throws IOException {
+    Prop.put(StaticOptions.SERVERNIO, Boolean.toString(true));
+    try {
+      server = createServer();
+    } finally {
+      Prop.put(StaticOptions.SERVERNIO, Boolean.toString(false));
+    }
+  }
+}
@@ -5,8 +5,12 @@ import static org.junit.Assert.*;
 import java.io.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
 import org.basex.util.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * This class tests the client/server session API.
@@ -16,7 +20,7 @@ import org.junit.*;
  */
 public class ClientSessionTest extends SessionTest {
   /** Server reference. */
-  private static BaseXServer server;
+  static BaseXServer server;
 
   /**
    * Starts the server.
@@ -45,4 +49,60 @@ public class ClientSessionTest extends SessionTest {
       fail(Util.message(ex));
     }
   }
+
+  /**
+   * Runs updates while the cached results of a query are iterated.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void updateWhileIterating() throws IOException {
+    session.execute(new CreateDB(NAME, "<a/>"));
+    try(ClientSession cs = createClient()) {
+      final Query query = cs.query("(1 to 100) ! db:open('" + NAME + "')/a/name()");
+      int c = 0;
+      while(query.more()) {
+        assertEquals("a", query.next());
+        session.execute("xquery insert node <b/> into db:open('" + NAME + "')/a");
+        c++;
+      }
+      assertEquals(100, c);
+      assertEquals("100", cs.execute("xquery count(db:open('" + NAME + "')/a/b)"));
+    }
+  }
+
+  /**
+   * Stops a query of a non-admin user whose lazily read results are not read by the client.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void unreadResults() throws IOException {
+    final int timeout = server.context.soptions.get(StaticOptions.TIMEOUT);
+    server.context.soptions.set(StaticOptions.TIMEOUT, 1);
+    session.execute(new CreateUser(NAME, NAME));
+    session.execute(new Grant("write", NAME));
+    final ClientSession cs = createClient(NAME, NAME);
+    try {
+      session.execute(new CreateDB(NAME, "<a/>"));
+      final Query query = cs.query("for $i in 1 to 10000000 return " +
+        "string-join((db:open('" + NAME + "')/a/name(), (1 to 100) ! string()))");
+      query.lazy(true);
+      assertTrue(query.more());
+      // updating query is blocked until the server has stopped the reading query
+      session.execute("xquery insert node <b/> into db:open('" + NAME + "')/a");
+      try {
+        while(query.more()) query.next();
+        fail("Session should have been closed.");
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    } finally {
+      server.context.soptions.set(StaticOptions.TIMEOUT, timeout);
+      try {
+        cs.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+      session.execute(new DropUser(NAME));
+    }
+  }
 }
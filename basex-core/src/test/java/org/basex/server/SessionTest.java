@@ -616,6 +616,38 @@ public abstract class SessionTest extends SandboxTest {
     }
   }
 
+  /** Runs commands while the lazily read results of a query are being iterated.
+   * @throws IOException I/O exception */
+  @Test
+  public void queryInterrupted() throws IOException {
+    try(Query query = session.query("1 to 1000")) {
+      query.lazy(true);
+      for(int i = 1; i <= 10; i++) assertEqual(Integer.toString(i), query.next());
+      assertEqual("x", session.execute("xquery 'x'"));
+      for(int i = 11; i <= 1000; i++) assertEqual(Integer.toString(i), query.next());
+      assertNull(query.next());
+    }
+    // close query before all results have been iterated
+    try(Query query = session.query("1 to 1000")) {
+      query.lazy(true);
+      assertEqual("1", query.next());
+    }
+    assertEqual("y", session.execute("xquery 'y'"));
+  }
+
+  /** Runs a command while the lazily read results of an erroneous query are being iterated.
+   * @throws IOException expected exception */
+  @Test(expected = BaseXException.class)
+  public void queryInterruptedError() throws IOException {
+    final Query query = session.query("(1 to 3, error())");
+    query.lazy(true);
+    assertEqual("1", query.next());
+    assertEqual("x", session.execute("xquery 'x'"));
+    assertEqual("2", query.next());
+    assertEqual("3", query.next());
+    query.next();
+  }
+
   /** Runs 5 queries in parallel.
    * @throws IOException I/O exception */
   @Test